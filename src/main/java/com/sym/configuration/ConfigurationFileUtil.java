@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -39,13 +40,38 @@ public class ConfigurationFileUtil {
     }
 
     public static String getValue(String path, String key) {
-        return getReadImpl(path).getValue(key);
+        return getValue(getStrategy(), path, key);
     }
 
-    private static IRead getReadImpl(String path) {
-        Strategy strategy = getStrategy();
-        log.info("use strategy - {}", strategy.getName());
-        return readImplMap.computeIfAbsent(getPathKey(path), p -> {
+    /**
+     * 使用指定的策略读取, 不依赖当前线程设置的策略, 适合在后台线程中使用
+     */
+    public static String getValue(Strategy strategy, String path, String key) {
+        return getReadImpl(strategy, path).getValue(key);
+    }
+
+    public static Set<String> getKeys(String path) {
+        return getKeys(getStrategy(), path);
+    }
+
+    public static Set<String> getKeys(Strategy strategy, String path) {
+        return getReadImpl(strategy, path).getKeys();
+    }
+
+    /**
+     * 重新加载配置文件, 用于配置热更新
+     */
+    public static void reload(String path) {
+        reload(getStrategy(), path);
+    }
+
+    public static void reload(Strategy strategy, String path) {
+        getReadImpl(strategy, path).reload();
+    }
+
+    private static IRead getReadImpl(Strategy strategy, String path) {
+        log.debug("use strategy - {}", strategy.getName());
+        return readImplMap.computeIfAbsent(getPathKey(strategy, path), p -> {
             switch (strategy) {
                 case JDK:
                     return new JdkPropImpl(path);
@@ -57,8 +83,8 @@ public class ConfigurationFileUtil {
         });
     }
 
-    private static String getPathKey(String path) {
-        switch (getStrategy()) {
+    private static String getPathKey(Strategy strategy, String path) {
+        switch (strategy) {
             case JDK:
                 return path + ":1";
             case APACHE:
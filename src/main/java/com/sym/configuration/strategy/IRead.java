@@ -1,5 +1,7 @@
 package com.sym.configuration.strategy;
 
+import java.util.Set;
+
 /**
  * 定义读取接口
  *
@@ -15,4 +17,16 @@ public interface IRead {
      * @return 值
      */
     String getValue(String key);
+
+    /**
+     * 获取所有的键
+     *
+     * @return 键的集合
+     */
+    Set<String> getKeys();
+
+    /**
+     * 重新加载配置文件
+     */
+    void reload();
 }
@@ -6,6 +6,8 @@ import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.configuration.XMLConfiguration;
 
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * @author shenyanming
@@ -43,12 +45,33 @@ public class ApachePropImpl extends AbstractPropRead {
         return isProperties ? propConfig.getString(key) : xmlConfiguration.getString(key);
     }
 
+    @Override
+    public Set<String> getKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        (isProperties ? propConfig : xmlConfiguration).getKeys().forEachRemaining(keys::add);
+        return keys;
+    }
+
+    @Override
+    public void reload() {
+        try {
+            if (isProperties) {
+                propConfig.refresh();
+            } else {
+                xmlConfiguration.refresh();
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException("reload [" + path + "] fail", e);
+        }
+    }
+
     private void initPropertiesConfig() {
         propConfig = new PropertiesConfiguration();
         propConfig.setEncoding(StandardCharsets.UTF_8.name());
         try {
-            // 读取文件, 默认是从classpath下开始找
-            propConfig.load(formatPath(path));
+            // 读取文件, 默认是从classpath下开始找; 记录文件名, 以便 refresh() 重新加载
+            propConfig.setFileName(formatPath(path));
+            propConfig.load();
         } catch (ConfigurationException e) {
             throw new RuntimeException("load properties [" + path + "] fail", e);
         }
@@ -58,8 +81,9 @@ public class ApachePropImpl extends AbstractPropRead {
         xmlConfiguration = new XMLConfiguration();
         xmlConfiguration.setEncoding(StandardCharsets.UTF_8.name());
         try {
-            // 读取文件, 默认是从classpath下开始找
-            xmlConfiguration.load(formatPath(path));
+            // 读取文件, 默认是从classpath下开始找; 记录文件名, 以便 refresh() 重新加载
+            xmlConfiguration.setFileName(formatPath(path));
+            xmlConfiguration.load();
         } catch (ConfigurationException e) {
             throw new RuntimeException("load xml [" + path + "] fail", e);
         }
@@ -3,7 +3,9 @@ package com.sym.configuration.strategy.impl;
 import com.sym.configuration.strategy.AbstractPropRead;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * @author shenyanming
@@ -11,7 +13,7 @@ import java.util.Properties;
  */
 public class JdkPropImpl extends AbstractPropRead {
 
-    private Properties properties;
+    private volatile Properties properties;
 
     public JdkPropImpl(String path) {
         super(path);
@@ -19,14 +21,16 @@ public class JdkPropImpl extends AbstractPropRead {
 
     @Override
     protected void init() {
-        properties = new Properties();
-        try {
-            // 参数的写法是依据配置文件来写, 如果配置文件与当前类在同一个包内,
-            // 直接写文件名就行,不在同一个包内，以"/"开始表示src包, 按包路径写.
-            properties.load(JdkPropImpl.class.getResourceAsStream(path));
+        Properties properties = new Properties();
+        // 参数的写法是依据配置文件来写, 如果配置文件与当前类在同一个包内,
+        // 直接写文件名就行,不在同一个包内，以"/"开始表示src包, 按包路径写.
+        try (InputStream is = JdkPropImpl.class.getResourceAsStream(path)) {
+            properties.load(is);
         } catch (IOException e) {
             throw new RuntimeException("load properties fail", e);
         }
+        // 加载完成后再替换, 重新加载期间读到的仍是旧值
+        this.properties = properties;
     }
 
     @Override
@@ -40,4 +44,14 @@ public class JdkPropImpl extends AbstractPropRead {
     public String getValue(String key) {
         return properties.getProperty(key);
     }
+
+    @Override
+    public Set<String> getKeys() {
+        return properties.stringPropertyNames();
+    }
+
+    @Override
+    public void reload() {
+        init();
+    }
 }
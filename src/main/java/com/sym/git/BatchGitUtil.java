@@ -5,22 +5,53 @@ import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
-import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.PullResult;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.BranchConfig;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.EmptyProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.transport.CredentialsProvider;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 
 import java.io.*;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Properties;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
+ * 批量操作git仓库. 仓库之间并行执行, 并发数、单个仓库的超时时间和进度回调通过{@link BatchOptions}配置,
+ * 一个仓库失败不会影响其它仓库, 所有失败信息汇总在{@link BatchResult}中
+ *
  * @author shenyanming
  * Created on 2020/6/1 18:32
  */
@@ -28,11 +59,9 @@ import java.util.stream.Collectors;
 public class BatchGitUtil {
     private static String GIT_REPOSITORY_NAME = ".git";
     private static String DIR_LIMITER = "/";
-    private static FilenameFilter filenameFilter;
     private static CredentialsProvider credentialsProvider;
 
     static {
-        filenameFilter = (dir, name) -> GIT_REPOSITORY_NAME.equals(name);
         // 预先加载配置文件
         readProperties("/property/git.properties");
     }
@@ -48,53 +77,97 @@ public class BatchGitUtil {
     /**
      * 找出父目录地址下的所有git仓库
      *
+     * @param path    父目录
+     * @param options 忽略的目录和最大深度
+     * @return git仓库目录集合, 按路径排序
+     */
+    public static List<File> findGitRepositories(String path, BatchOptions options) {
+        return findGitRepository(new File(path), options);
+    }
+
+    /**
+     * 找出父目录地址下的所有git仓库. 父目录下的每个子目录单独遍历, 子目录之间并行;
+     * 遇到git仓库不再继续深入, 忽略列表中的目录和超过最大深度的目录都不会被遍历
+     *
      * @param parentDir 父目录
-     * @return {@link Git}集合
+     * @param options   执行参数
+     * @return git仓库目录集合, 在执行命令时才打开
      */
-    private static List<Git> findGitRepository(File parentDir) {
-        List<File> gitRepositoryList = new ArrayList<>();
-        doFind(parentDir, gitRepositoryList);
+    private static List<File> findGitRepository(File parentDir, BatchOptions options) {
+        Path root = parentDir.toPath();
+        List<File> gitRepositoryList;
+        if (isGitRepository(root)) {
+            gitRepositoryList = Collections.singletonList(parentDir);
+        } else if (options.getMaxDepth() < 1) {
+            gitRepositoryList = Collections.emptyList();
+        } else {
+            List<Path> children;
+            try (Stream<Path> stream = Files.list(root)) {
+                children = stream.filter(Files::isDirectory).collect(Collectors.toList());
+            } catch (IOException e) {
+                log.error("读取目录失败: {}, 原因: {}", root, e.getMessage());
+                children = Collections.emptyList();
+            }
+            gitRepositoryList = children.parallelStream()
+                    .flatMap(child -> doFind(child, options).stream())
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
         log.info("文件目录: {}, 找到git仓库数量: {}", parentDir, gitRepositoryList.size());
-        return gitRepositoryList.stream().map(file -> {
-            Objects.requireNonNull(file);
-            return initGit(file);
-        }).collect(Collectors.toList());
+        return gitRepositoryList;
     }
 
     /**
-     * 递归查询git仓库目录
+     * 遍历一个子目录查询git仓库, 不跟随符号链接
      *
-     * @param parentDir         父目录地址
-     * @param gitRepositoryList 添加集合
+     * @param start   父目录下的子目录, 深度为1
+     * @param options 执行参数
+     * @return git仓库目录集合
      */
-    private static void doFind(File parentDir, List<File> gitRepositoryList) {
-        if (!parentDir.isDirectory()) {
-            return;
-        }
-        if (isGitRepository(parentDir)) {
-            gitRepositoryList.add(parentDir);
-            return;
-        }
-        File[] files = parentDir.listFiles();
-        if (null != files) {
-            for (File file : files) {
-                doFind(file, gitRepositoryList);
-            }
+    private static List<Path> doFind(Path start, BatchOptions options) {
+        List<Path> gitRepositoryList = new ArrayList<>();
+        Set<String> ignored = options.getIgnoredDirectories();
+        try {
+            Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), options.getMaxDepth() - 1, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (isGitRepository(dir)) {
+                        gitRepositoryList.add(dir);
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return ignored.contains(dir.getFileName().toString()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // 达到最大深度的目录不会再进入, 作为文件访问
+                    if (attrs.isDirectory() && isGitRepository(file)) {
+                        gitRepositoryList.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.warn("跳过无法访问的目录: {}", file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("遍历目录失败: {}, 原因: {}", start, e.getMessage());
         }
+        return gitRepositoryList;
     }
 
     /**
-     * 判断一个文件目录是不是git仓库
+     * 判断一个文件目录是不是git仓库, .git 可能是目录, 也可能是文件(子模块和工作树)
      *
-     * @param file 文件目录
+     * @param dir 文件目录
      * @return true表示git仓库
      */
-    private static boolean isGitRepository(File file) {
-        if (!file.isDirectory()) {
-            return false;
-        }
-        String[] fileNameArray;
-        return (fileNameArray = file.list(filenameFilter)) != null && fileNameArray.length > 0;
+    private static boolean isGitRepository(Path dir) {
+        return Files.exists(dir.resolve(GIT_REPOSITORY_NAME), LinkOption.NOFOLLOW_LINKS);
     }
 
     /**
@@ -129,57 +202,166 @@ public class BatchGitUtil {
         }
     }
 
-    private static void runCommand(String path, Function<Git, Boolean> doCommand) {
+    private static BatchResult runCommand(String path, BatchOptions options, GitCommand doCommand) {
         File parentDir = new File(path);
         if (!parentDir.isDirectory()) {
             log.info("非文件夹: {}", parentDir);
-            return;
+            return BatchResult.empty();
         }
-        List<Git> gitList = findGitRepository(parentDir);
+        List<File> gitList = findGitRepository(parentDir, options);
         if (CollectionUtils.isEmpty(gitList)) {
             log.info("当前目录[{}]下未找到任何git仓库", path);
-            return;
+            return BatchResult.empty();
         }
-        List<FailureInfo> failureInfoList = new ArrayList<>();
-        gitList.forEach(git -> {
-            // git仓库地址
-            String repositoryPath = git.getRepository().getDirectory().getPath();
-            // 错误信息
-            String errorMsg = null;
-            boolean isSuccess = false;
-
-            long startTime = System.currentTimeMillis();
-            try {
-                isSuccess = doCommand.apply(git);
-            } catch (Exception e) {
-                errorMsg = e.getMessage();
-            } finally {
-                git.close();
+        List<String> repositories = new ArrayList<>(gitList.size());
+        gitList.forEach(file -> repositories.add(file.getPath()));
+        return execute(repositories, options, (repository, monitor) -> {
+            try (Git git = initGit(new File(repository))) {
+                return doCommand.apply(git, monitor);
             }
-            long endTime = System.currentTimeMillis();
+        });
+    }
+
+    /**
+     * 在有界线程池中并行执行, 每个仓库有独立的超时时间, 从开始执行该仓库时计算. 调用线程等待时以最近的截止时间为上限,
+     * 超时的仓库立即记为失败, 并通过{@link TaskMonitor}和中断通知取消; 被卡住的线程不会再占用并发数,
+     * 线程池会补充一个线程继续执行排队的仓库. 失败信息收集在线程安全的队列中
+     *
+     * @param repositories 仓库路径或地址
+     * @param options      执行参数
+     * @param task         对单个仓库执行的操作
+     * @return 执行结果
+     */
+    private static BatchResult execute(List<String> repositories, BatchOptions options, RepositoryTask task) {
+        long batchStart = System.currentTimeMillis();
+        int total = repositories.size();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger successCount = new AtomicInteger();
+        AtomicInteger skippedCount = new AtomicInteger();
+        ConcurrentLinkedQueue<FailureInfo> failureInfoQueue = new ConcurrentLinkedQueue<>();
+        CountDownLatch latch = new CountDownLatch(total);
+        AtomicInteger threadIndex = new AtomicInteger();
+        int concurrency = Math.max(1, Math.min(options.getConcurrency(), total));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "batch-git-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 记录一个仓库的结果, 每个仓库只会被记录一次
+        Outcome outcome = (monitor, isSuccess, errorMsg, usedTime) -> {
+            String repository = monitor.getRepository();
             if (null != errorMsg || !isSuccess) {
-                failureInfoList.add(FailureInfo.of(repositoryPath, errorMsg));
+                failureInfoQueue.add(FailureInfo.of(repository, errorMsg));
             } else {
-                long usedTime = endTime - startTime;
-                log.info("git拉取成功, {} - {} ms", repositoryPath, usedTime);
+                successCount.incrementAndGet();
+                if (monitor.isSkipped()) {
+                    skippedCount.incrementAndGet();
+                    log.info("远程仓库没有变化, 跳过: {} - {} ms", repository, usedTime);
+                } else {
+                    log.info("git操作成功, {} - {} ms", repository, usedTime);
+                }
             }
-        });
+            ProgressListener listener = options.getProgressListener();
+            if (null != listener) {
+                try {
+                    listener.onProgress(repository, null == errorMsg && isSuccess, completed.incrementAndGet(), total);
+                } catch (RuntimeException e) {
+                    log.warn("进度回调异常: {}", e.getMessage());
+                }
+            }
+            latch.countDown();
+        };
+        List<TaskMonitor> monitors = new ArrayList<>(total);
+        try {
+            for (String repository : repositories) {
+                TaskMonitor monitor = new TaskMonitor(repository, options.getTimeoutSeconds());
+                monitors.add(monitor);
+                monitor.setFuture(executor.submit(() -> {
+                    monitor.start();
+                    // 错误信息
+                    String errorMsg = null;
+                    boolean isSuccess = false;
+                    long startTime = System.currentTimeMillis();
+                    try {
+                        isSuccess = task.apply(repository, monitor);
+                    } catch (Throwable e) {
+                        errorMsg = e.getMessage();
+                    }
+                    // 已经被判定为超时的仓库不再记录
+                    if (monitor.finish()) {
+                        outcome.record(monitor, isSuccess, errorMsg, System.currentTimeMillis() - startTime);
+                    }
+                }));
+            }
+            long waitNanos;
+            while ((waitNanos = checkTimeout(monitors, executor, outcome, options)) > 0) {
+                if (latch.await(waitNanos, TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("批量git操作被中断");
+        } finally {
+            executor.shutdownNow();
+        }
+        List<FailureInfo> failureInfoList = new ArrayList<>(failureInfoQueue);
         if (!failureInfoList.isEmpty()) {
             log.error("操作失败的git仓库数量：{}", failureInfoList.size());
             failureInfoList.forEach(info -> {
                 log.error("操作失败原因：{}", info);
             });
         }
+        return new BatchResult(total, successCount.get(), skippedCount.get(), failureInfoList,
+                System.currentTimeMillis() - batchStart);
+    }
+
+    /**
+     * 把已经超过截止时间的仓库记为超时并取消, 每取消一个, 线程池就补充一个线程
+     *
+     * @return 下一次检查前最多等待的纳秒数, 所有仓库都已完成时返回0
+     */
+    private static long checkTimeout(List<TaskMonitor> monitors, ThreadPoolExecutor executor, Outcome outcome,
+                                     BatchOptions options) {
+        long now = System.nanoTime();
+        // 还没开始执行的仓库, 截止时间至少是一个完整的超时时间之后
+        long waitNanos = TimeUnit.SECONDS.toNanos(Math.max(1, options.getTimeoutSeconds()));
+        boolean pending = false;
+        for (TaskMonitor monitor : monitors) {
+            if (monitor.isFinished()) {
+                continue;
+            }
+            pending = true;
+            if (!monitor.isStarted()) {
+                continue;
+            }
+            long remaining = monitor.getDeadline() - now;
+            if (remaining > 0) {
+                waitNanos = Math.min(waitNanos, remaining);
+            } else if (monitor.finish()) {
+                monitor.cancel();
+                executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+                executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+                outcome.record(monitor, false, "timeout after " + options.getTimeoutSeconds() + "s",
+                        TimeUnit.NANOSECONDS.toMillis(now - monitor.getStartTime()));
+            }
+        }
+        return pending ? Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)) : 0;
+    }
+
+    public static BatchResult clone(String filePath, String dirPath) {
+        return clone(filePath, dirPath, new BatchOptions());
     }
 
-    public static void clone(String filePath, String dirPath) {
+    public static BatchResult clone(String filePath, String dirPath, BatchOptions options) {
         if (filePath.indexOf(DIR_LIMITER) != 0) {
             filePath = (DIR_LIMITER + filePath);
         }
         InputStream inputStream = BatchGitUtil.class.getResourceAsStream(filePath);
         if (inputStream == null) {
             log.error("指定的文件不存在：{}", filePath);
-            return;
+            return BatchResult.empty();
         }
         BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
         List<String> urls = new ArrayList<>();
@@ -193,71 +375,403 @@ public class BatchGitUtil {
         }
         if (urls.isEmpty()) {
             log.warn("未加载到git仓库地址");
-            return;
+            return BatchResult.empty();
         }
-        clone(urls, dirPath);
+        return clone(urls, dirPath, options);
     }
 
-    public static void clone(List<String> urls, String dirPath) {
+    public static BatchResult clone(List<String> urls, String dirPath) {
+        return clone(urls, dirPath, new BatchOptions());
+    }
 
-        if (dirPath.lastIndexOf(DIR_LIMITER) == -1) {
-            dirPath += DIR_LIMITER;
-        }
-        CloneCommand cloneCommand = Git.cloneRepository();
-        List<FailureInfo> failureInfoList = new ArrayList<>();
-        for (String url : urls) {
-            try {
-                String dirName = url.substring(url.lastIndexOf(DIR_LIMITER), url.indexOf(GIT_REPOSITORY_NAME));
-                cloneCommand.setRemote("origin")
-                        .setBranch("master")
-                        .setURI(url)
-                        .setCredentialsProvider(credentialsProvider)
-                        .setDirectory(new File(dirPath + dirName))
-                        .setCloneSubmodules(true)
-                        .call();
-            } catch (Exception e) {
-                // 仓库克隆失败, 不要影响到其它仓库克隆
-                failureInfoList.add(FailureInfo.of(url, e.getMessage()));
+    public static BatchResult clone(List<String> urls, String dirPath, BatchOptions options) {
+        String parentPath = dirPath.lastIndexOf(DIR_LIMITER) == -1 ? dirPath + DIR_LIMITER : dirPath;
+        // 仓库克隆失败, 不要影响到其它仓库克隆
+        BatchResult result = execute(urls, options, (url, monitor) -> {
+            String dirName = url.substring(url.lastIndexOf(DIR_LIMITER), url.indexOf(GIT_REPOSITORY_NAME));
+            try (Git ignored = Git.cloneRepository()
+                    .setRemote("origin")
+                    .setBranch("master")
+                    .setURI(url)
+                    .setCredentialsProvider(credentialsProvider)
+                    .setDirectory(new File(parentPath + dirName))
+                    .setCloneSubmodules(true)
+                    .setTimeout(options.getTimeoutSeconds())
+                    .setProgressMonitor(monitor)
+                    .call()) {
+                return true;
             }
-        }
-        if (failureInfoList.isEmpty()) {
+        });
+        if (result.getFailures().isEmpty()) {
             log.info("克隆git仓库成功, 共载入{}个新仓库", urls.size());
         } else {
-            log.error("载入失败的git仓库信息：{}", failureInfoList);
+            log.error("载入失败的git仓库信息：{}", result.getFailures());
         }
+        return result;
     }
 
-    public static void pull(String path) {
-        runCommand(path, git -> {
-            try {
-                PullResult pullResult = git.pull().setCredentialsProvider(credentialsProvider).call();
-                return pullResult.isSuccessful();
-            } catch (GitAPIException e) {
-                throw new RuntimeException(e);
+    public static BatchResult pull(String path) {
+        return pull(path, new BatchOptions());
+    }
+
+    /**
+     * 批量拉取. 开启{@link BatchOptions#isSkipUnchanged()}时, 先通过 ls-remote 获取远程分支的最新提交,
+     * 与本地跟踪分支和上一次记录的状态比较, 没有变化就不再 fetch 和 merge
+     */
+    public static BatchResult pull(String path, BatchOptions options) {
+        HeadStore headStore = options.isSkipUnchanged() ? HeadStore.load(options.getHeadsFile()) : null;
+        BatchResult result = runCommand(path, options, (git, monitor) -> {
+            String key = null;
+            ObjectId remoteHead = null;
+            if (null != headStore) {
+                BranchConfig branchConfig = new BranchConfig(git.getRepository().getConfig(), git.getRepository().getBranch());
+                key = git.getRepository().getDirectory().getAbsolutePath() + "#" + git.getRepository().getBranch();
+                remoteHead = lsRemote(git, branchConfig, options);
+                if (null != remoteHead && isUpToDate(git, branchConfig, remoteHead, headStore.get(key))) {
+                    headStore.put(key, remoteHead, git.getRepository().resolve(Constants.HEAD));
+                    monitor.markSkipped();
+                    return true;
+                }
+            }
+            PullResult pullResult = git.pull()
+                    .setCredentialsProvider(credentialsProvider)
+                    .setTimeout(options.getTimeoutSeconds())
+                    .setProgressMonitor(monitor)
+                    .call();
+            if (pullResult.isSuccessful() && null != remoteHead) {
+                headStore.put(key, remoteHead, git.getRepository().resolve(Constants.HEAD));
             }
+            return pullResult.isSuccessful();
         });
+        if (null != headStore) {
+            headStore.save();
+        }
+        return result;
     }
 
-    public static void commit(String path, String message) {
-        runCommand(path, git -> {
-            try {
-                git.commit().setMessage(message).call();
-                return true;
-            } catch (GitAPIException e) {
-                throw new RuntimeException(e);
-            }
+    /**
+     * 只获取远程仓库的引用列表, 不传输任何对象
+     *
+     * @return 当前分支对应的远程分支的最新提交, 没有配置跟踪分支或远程分支不存在时返回null
+     */
+    private static ObjectId lsRemote(Git git, BranchConfig branchConfig, BatchOptions options) throws GitAPIException {
+        String remote = branchConfig.getRemote();
+        String merge = branchConfig.getMerge();
+        if (null == remote || null == merge) {
+            return null;
+        }
+        Map<String, Ref> refs = git.lsRemote()
+                .setRemote(remote)
+                .setHeads(true)
+                .setCredentialsProvider(credentialsProvider)
+                .setTimeout(options.getTimeoutSeconds())
+                .callAsMap();
+        Ref ref = refs.get(merge);
+        return null == ref ? null : ref.getObjectId();
+    }
+
+    /**
+     * 判断本地是否已经包含远程分支的最新提交: 与上一次记录的远程提交和本地HEAD都相同时直接返回,
+     * 否则要求本地跟踪分支等于远程提交, 并且已经合并到HEAD
+     */
+    private static boolean isUpToDate(Git git, BranchConfig branchConfig, ObjectId remoteHead, HeadStore.Heads known) throws IOException {
+        Repository repository = git.getRepository();
+        ObjectId localHead = repository.resolve(Constants.HEAD);
+        if (null == localHead) {
+            return false;
+        }
+        if (null != known && known.remote.equals(remoteHead) && known.local.equals(localHead)) {
+            return true;
+        }
+        String trackingBranch = branchConfig.getRemoteTrackingBranch();
+        Ref tracking = null == trackingBranch ? null : repository.exactRef(trackingBranch);
+        if (null == tracking || !remoteHead.equals(tracking.getObjectId())) {
+            return false;
+        }
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            return revWalk.isMergedInto(revWalk.parseCommit(remoteHead), revWalk.parseCommit(localHead));
+        }
+    }
+
+    public static BatchResult commit(String path, String message) {
+        return commit(path, message, new BatchOptions());
+    }
+
+    public static BatchResult commit(String path, String message, BatchOptions options) {
+        return runCommand(path, options, (git, monitor) -> {
+            git.commit().setMessage(message).call();
+            return true;
         });
     }
 
-    public static void push(String path) {
-        runCommand(path, git -> {
+    public static BatchResult push(String path) {
+        return push(path, new BatchOptions());
+    }
+
+    public static BatchResult push(String path, BatchOptions options) {
+        return runCommand(path, options, (git, monitor) -> {
+            git.push()
+                    .setCredentialsProvider(credentialsProvider)
+                    .setTimeout(options.getTimeoutSeconds())
+                    .setProgressMonitor(monitor)
+                    .call();
+            return true;
+        });
+    }
+
+    /**
+     * 对单个已打开的git仓库执行的操作
+     */
+    @FunctionalInterface
+    private interface GitCommand {
+        boolean apply(Git git, TaskMonitor monitor) throws Exception;
+    }
+
+    /**
+     * 对单个仓库(路径或地址)执行的操作
+     */
+    @FunctionalInterface
+    private interface RepositoryTask {
+        boolean apply(String repository, TaskMonitor monitor) throws Exception;
+    }
+
+    /**
+     * 进度回调, 在执行操作的线程中调用, 实现需要是线程安全的
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * 一个仓库操作完成
+         *
+         * @param repository 仓库路径或地址
+         * @param success    是否成功
+         * @param completed  已完成的仓库数量
+         * @param total      仓库总数
+         */
+        void onProgress(String repository, boolean success, int completed, int total);
+    }
+
+    /**
+     * 记录单个仓库的执行结果
+     */
+    @FunctionalInterface
+    private interface Outcome {
+        void record(TaskMonitor monitor, boolean success, String errorMsg, long usedTime);
+    }
+
+    /**
+     * 单个仓库的执行状态. 超时后由等待线程取消: JGit在进度回调中检查{@link #isCancelled()}, 同时中断执行线程,
+     * 没有进度回调的操作(如commit)也能尽快退出; 记录操作是否被跳过
+     */
+    private static class TaskMonitor extends EmptyProgressMonitor {
+        private final String repository;
+        private final long timeoutNanos;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long startTime;
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private volatile boolean skipped;
+        private volatile Future<?> future;
+
+        TaskMonitor(String repository, int timeoutSeconds) {
+            this.repository = repository;
+            this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        }
+
+        String getRepository() {
+            return repository;
+        }
+
+        void setFuture(Future<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * 开始执行, 从此刻开始计算超时时间
+         */
+        void start() {
+            this.startTime = System.nanoTime();
+            this.started = true;
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        long getStartTime() {
+            return startTime;
+        }
+
+        long getDeadline() {
+            return startTime + timeoutNanos;
+        }
+
+        /**
+         * 执行线程和等待线程之间只有一个能记录结果
+         *
+         * @return true-由当前线程记录结果
+         */
+        boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+
+        boolean isFinished() {
+            return finished.get();
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            Future<?> f = future;
+            if (null != f) {
+                f.cancel(true);
+            }
+        }
+
+        /**
+         * 仓库没有变化, 操作被跳过
+         */
+        void markSkipped() {
+            this.skipped = true;
+        }
+
+        boolean isSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class BatchOptions {
+        /**
+         * 同时操作的仓库数量
+         */
+        private int concurrency = 8;
+        /**
+         * 单个仓库的超时时间, 单位秒, 同时作为网络传输的超时时间
+         */
+        private int timeoutSeconds = 300;
+        /**
+         * 进度回调, 可以为空
+         */
+        private ProgressListener progressListener;
+        /**
+         * 查找仓库时不进入的目录名称, 目录本身是git仓库时仍然会被找到
+         */
+        private Set<String> ignoredDirectories = new HashSet<>(Arrays.asList(
+                "node_modules", "target", "build", "out", ".idea", ".gradle", ".svn"));
+        /**
+         * 查找仓库的最大深度, 父目录的子目录深度为1
+         */
+        private int maxDepth = Integer.MAX_VALUE;
+        /**
+         * 拉取前先比较远程分支, 没有变化时跳过
+         */
+        private boolean skipUnchanged = true;
+        /**
+         * 记录每个仓库上一次的远程提交和本地HEAD的文件
+         */
+        private File headsFile = new File(System.getProperty("user.home"), ".sym/batch-git-heads.properties");
+    }
+
+    @Data
+    public static class BatchResult {
+        private final int total;
+        private final int successCount;
+        /**
+         * 因为没有变化而跳过的仓库数量, 已包含在成功数量中
+         */
+        private final int skippedCount;
+        private final List<FailureInfo> failures;
+        private final long elapsedMillis;
+
+        static BatchResult empty() {
+            return new BatchResult(0, 0, 0, Collections.emptyList(), 0);
+        }
+
+        public boolean isAllSuccess() {
+            return failures.isEmpty();
+        }
+    }
+
+    /**
+     * 持久化的仓库状态, 仓库目录#分支 -> 远程提交:本地HEAD, 批量拉取开始时读取, 结束后整体写回
+     */
+    private static class HeadStore {
+        private final File file;
+        private final Map<String, Heads> heads = new ConcurrentHashMap<>();
+        private volatile boolean changed;
+
+        private HeadStore(File file) {
+            this.file = file;
+        }
+
+        static HeadStore load(File file) {
+            HeadStore store = new HeadStore(file);
+            if (null == file || !file.isFile()) {
+                return store;
+            }
+            Properties prop = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                prop.load(in);
+            } catch (IOException e) {
+                log.warn("读取仓库状态失败: {}, 原因: {}", file, e.getMessage());
+                return store;
+            }
+            prop.stringPropertyNames().forEach(key -> {
+                String[] ids = prop.getProperty(key).split(":");
+                if (ids.length == 2 && ObjectId.isId(ids[0]) && ObjectId.isId(ids[1])) {
+                    store.heads.put(key, new Heads(ObjectId.fromString(ids[0]), ObjectId.fromString(ids[1])));
+                }
+            });
+            return store;
+        }
+
+        Heads get(String key) {
+            return heads.get(key);
+        }
+
+        void put(String key, ObjectId remote, ObjectId local) {
+            if (null != remote && null != local) {
+                Heads old = heads.put(key, new Heads(remote.copy(), local.copy()));
+                if (null == old || !old.remote.equals(remote) || !old.local.equals(local)) {
+                    changed = true;
+                }
+            }
+        }
+
+        void save() {
+            if (null == file || !changed) {
+                return;
+            }
+            Properties prop = new Properties();
+            heads.forEach((key, value) -> prop.setProperty(key, value.remote.name() + ":" + value.local.name()));
             try {
-                git.push().setCredentialsProvider(credentialsProvider).call();
-                return true;
-            } catch (GitAPIException e) {
-                throw new RuntimeException(e);
+                File parent = file.getAbsoluteFile().getParentFile();
+                Files.createDirectories(parent.toPath());
+                Path temp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    prop.store(out, "batch git heads");
+                }
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log.warn("保存仓库状态失败: {}, 原因: {}", file, e.getMessage());
             }
-        });
+        }
+
+        private static class Heads {
+            private final ObjectId remote;
+            private final ObjectId local;
+
+            Heads(ObjectId remote, ObjectId local) {
+                this.remote = remote;
+                this.local = local;
+            }
+        }
     }
 
     @Data
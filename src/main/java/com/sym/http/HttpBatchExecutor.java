@@ -0,0 +1,172 @@
+package com.sym.http;
+
+import com.sym.http.protocol.HttpBatchResult;
+import com.sym.http.protocol.HttpRequest;
+import com.sym.http.protocol.HttpResponse;
+import com.sym.http.strategy.IHttpStrategy;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 批量请求执行器. 请求按 host 分组, 每个 host 最多同时发出 N 个请求, 借助各策略的异步接口在连接池上并发执行.
+ * N 可以显式设置, 未设置时取自{@link HttpClientProfiles}中该主机的配置.
+ * 底层是OkHttp且服务端支持HTTP/2时, 同一个host的请求会复用一条连接.
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class HttpBatchExecutor {
+
+    /**
+     * 通过{@link #setDefaultMaxConcurrentPerHost(int)}显式设置的默认值, 为null时使用{@link HttpClientProfile#getMaxConcurrentRequests()}
+     */
+    private volatile Integer defaultMaxConcurrentPerHost;
+    private final Map<String, Integer> maxConcurrentPerHost = new ConcurrentHashMap<>();
+    private final HttpClientProfiles profiles;
+
+    HttpBatchExecutor(HttpClientProfiles profiles) {
+        this.profiles = profiles;
+    }
+
+    void setDefaultMaxConcurrentPerHost(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max concurrent per host must be positive");
+        }
+        this.defaultMaxConcurrentPerHost = max;
+    }
+
+    /**
+     * @param host 形如 host:port, 端口为默认端口时也可以省略
+     */
+    void setMaxConcurrentPerHost(String host, int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max concurrent per host must be positive");
+        }
+        maxConcurrentPerHost.put(host.toLowerCase(), max);
+    }
+
+    /**
+     * 优先级: 显式设置的主机上限 > 主机单独的配置 > 显式设置的默认值 > 默认配置
+     */
+    int getMaxConcurrentPerHost(String hostKey, String host) {
+        Integer max = maxConcurrentPerHost.get(hostKey);
+        if (Objects.isNull(max)) {
+            max = maxConcurrentPerHost.get(host);
+        }
+        if (Objects.nonNull(max)) {
+            return max;
+        }
+        HttpClientProfile profile = profiles.getProfile(host);
+        Integer defaultMax = defaultMaxConcurrentPerHost;
+        if (profile == profiles.getDefaultProfile() && Objects.nonNull(defaultMax)) {
+            return defaultMax;
+        }
+        return Math.max(1, profile.getMaxConcurrentRequests());
+    }
+
+    /**
+     * 执行所有请求并等待全部结束
+     *
+     * @return 与请求顺序一致的结果
+     */
+    List<HttpBatchResult> executeAll(IHttpStrategy strategy, List<HttpRequest> requests, HttpRequest.HttpMethod method) {
+        List<HttpBatchResult> results = new ArrayList<>(requests.size());
+        // host -> 请求下标
+        Map<String, Queue<Integer>> groups = new LinkedHashMap<>();
+        Map<String, Integer> limits = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            HttpRequest request = requests.get(i);
+            HttpBatchResult result = new HttpBatchResult(request);
+            results.add(result);
+            URL url;
+            try {
+                url = new URL(Objects.requireNonNull(request, "request").getUrl());
+            } catch (MalformedURLException | NullPointerException e) {
+                result.setError(e);
+                continue;
+            }
+            String host = url.getHost().toLowerCase();
+            int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+            String hostKey = host + ":" + port;
+            groups.computeIfAbsent(hostKey, k -> new ConcurrentLinkedQueue<>()).add(i);
+            limits.computeIfAbsent(hostKey, k -> getMaxConcurrentPerHost(k, host));
+        }
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        groups.forEach((hostKey, queue) -> {
+            int laneCount = Math.min(limits.get(hostKey), queue.size());
+            for (int i = 0; i < laneCount; i++) {
+                CompletableFuture<Void> lane = new CompletableFuture<>();
+                lanes.add(lane);
+                runLane(strategy, method, queue, results, lane);
+            }
+        });
+        CompletableFuture.allOf(lanes.toArray(new CompletableFuture[0])).join();
+        return results;
+    }
+
+    /**
+     * 一条"通道"依次执行队列中的请求, 同一个host同时运行的通道数即为该host的并发上限.
+     * 同步完成的请求(例如被线程池拒绝)在循环里继续处理, 避免回调嵌套过深
+     */
+    private void runLane(IHttpStrategy strategy, HttpRequest.HttpMethod method, Queue<Integer> queue,
+                         List<HttpBatchResult> results, CompletableFuture<Void> lane) {
+        Integer index;
+        while (Objects.nonNull(index = queue.poll())) {
+            HttpBatchResult result = results.get(index);
+            CompletableFuture<HttpResponse> future;
+            try {
+                future = send(strategy, method, result.getRequest());
+            } catch (RuntimeException e) {
+                result.setError(e);
+                continue;
+            }
+            if (future.isDone()) {
+                complete(result, future);
+                continue;
+            }
+            future.whenComplete((r, e) -> {
+                complete(result, future);
+                runLane(strategy, method, queue, results, lane);
+            });
+            return;
+        }
+        lane.complete(null);
+    }
+
+    private static void complete(HttpBatchResult result, CompletableFuture<HttpResponse> future) {
+        try {
+            result.setResponse(future.join());
+        } catch (CompletionException e) {
+            result.setError(Objects.isNull(e.getCause()) ? e : e.getCause());
+        } catch (RuntimeException e) {
+            result.setError(e);
+        }
+    }
+
+    private static CompletableFuture<HttpResponse> send(IHttpStrategy strategy, HttpRequest.HttpMethod method,
+                                                        HttpRequest request) {
+        switch (method) {
+            case GET:
+                return strategy.getAsync(request);
+            case POST:
+                return strategy.postAsync(request);
+            case PUT:
+                return strategy.putAsync(request);
+            case DELETE:
+                return strategy.deleteAsync(request);
+            default:
+                throw new IllegalArgumentException("illegal http method of " + method);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.sym.http;
+
+import lombok.Data;
+
+/**
+ * HTTP客户端配置, 可以按目标主机分别配置, 由{@link HttpClientProfiles}管理.
+ * 未特别说明的配置三种策略都会生效
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Data
+public class HttpClientProfile {
+
+    /**
+     * 建立连接的超时时间, 0表示不限制
+     */
+    private int connectTimeoutMillis = 10000;
+
+    /**
+     * 读取数据的超时时间(两次读取之间的最大间隔), 0表示不限制
+     */
+    private int readTimeoutMillis = 60000;
+
+    /**
+     * 整个调用(包括连接、重试、读完响应体)的超时时间, 0表示不限制. 仅OkHttp支持
+     */
+    private int callTimeoutMillis = 60000;
+
+    /**
+     * 每个主机的最大连接数. 仅apache httpClient支持, OkHttp的连接池是全局的
+     */
+    private int maxConnections = 20;
+
+    /**
+     * 是否复用连接, 为false时发送 Connection: close
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * 空闲连接最多保留多久, 服务端通过 Keep-Alive 头指定了更短的时间时以服务端为准. 仅apache httpClient支持
+     */
+    private long keepAliveMillis = 30000;
+
+    /**
+     * 批量请求以及 OkHttp 异步请求时对该主机的最大并发数, 同步请求不受限制
+     */
+    private int maxConcurrentRequests = 8;
+
+    /**
+     * 连接失败时的最大重试次数, 0表示不重试. OkHttp只区分重试与否; JDK不支持
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 请求已经发送出去之后失败, 是否仍然重试, 只对幂等请求生效. 仅apache httpClient支持
+     */
+    private boolean retryRequestSent = false;
+
+    public HttpClientProfile copy() {
+        HttpClientProfile copy = new HttpClientProfile();
+        copy.setConnectTimeoutMillis(connectTimeoutMillis);
+        copy.setReadTimeoutMillis(readTimeoutMillis);
+        copy.setCallTimeoutMillis(callTimeoutMillis);
+        copy.setMaxConnections(maxConnections);
+        copy.setKeepAlive(keepAlive);
+        copy.setKeepAliveMillis(keepAliveMillis);
+        copy.setMaxConcurrentRequests(maxConcurrentRequests);
+        copy.setMaxRetries(maxRetries);
+        copy.setRetryRequestSent(retryRequestSent);
+        return copy;
+    }
+
+    /**
+     * 按配置项名称赋值, 名称与字段名一致
+     *
+     * @return 是否是可识别的配置项
+     */
+    boolean set(String name, String value) {
+        value = value.trim();
+        switch (name) {
+            case "connectTimeoutMillis":
+                connectTimeoutMillis = Integer.parseInt(value);
+                return true;
+            case "readTimeoutMillis":
+                readTimeoutMillis = Integer.parseInt(value);
+                return true;
+            case "callTimeoutMillis":
+                callTimeoutMillis = Integer.parseInt(value);
+                return true;
+            case "maxConnections":
+                maxConnections = Integer.parseInt(value);
+                return true;
+            case "keepAlive":
+                keepAlive = Boolean.parseBoolean(value);
+                return true;
+            case "keepAliveMillis":
+                keepAliveMillis = Long.parseLong(value);
+                return true;
+            case "maxConcurrentRequests":
+                maxConcurrentRequests = Integer.parseInt(value);
+                return true;
+            case "maxRetries":
+                maxRetries = Integer.parseInt(value);
+                return true;
+            case "retryRequestSent":
+                retryRequestSent = Boolean.parseBoolean(value);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
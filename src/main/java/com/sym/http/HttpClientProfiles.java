@@ -0,0 +1,201 @@
+package com.sym.http;
+
+import com.sym.configuration.ConfigurationFileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 按主机管理的HTTP客户端配置, 各个HTTP策略每次请求时按目标主机查找配置, 所以配置更新后立即生效, 不需要重建连接池.
+ * <p>
+ * 配置文件通过{@link ConfigurationFileUtil}读取, 格式如下(主机名可以包含".", 最后一段为配置项名称):
+ * <pre>
+ * http.client.default.connectTimeoutMillis=10000
+ * http.client.default.readTimeoutMillis=60000
+ * http.client.host.api.example.com.readTimeoutMillis=2000
+ * http.client.host.api.example.com.maxRetries=0
+ * </pre>
+ * 主机配置中未出现的配置项继承默认配置. 调用{@link #reload()}或者{@link #watch(long)}实现热更新
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class HttpClientProfiles {
+
+    public static final String PREFIX = "http.client.";
+    private static final String DEFAULT_PREFIX = PREFIX + "default.";
+    private static final String HOST_PREFIX = PREFIX + "host.";
+
+    private static final HttpClientProfiles GLOBAL = new HttpClientProfiles();
+
+    private volatile HttpClientProfile defaultProfile = new HttpClientProfile();
+    private volatile Map<String, HttpClientProfile> hostProfiles = Collections.emptyMap();
+
+    private final List<Consumer<HttpClientProfiles>> listeners = new CopyOnWriteArrayList<>();
+    private ConfigurationFileUtil.Strategy strategy;
+    private String path;
+    private ScheduledExecutorService watcher;
+
+    /**
+     * 所有策略默认使用的全局配置
+     */
+    public static HttpClientProfiles getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * 查找主机对应的配置, 没有单独配置时返回默认配置. 返回的对象不应该被修改
+     */
+    public HttpClientProfile getProfile(String host) {
+        if (Objects.nonNull(host)) {
+            HttpClientProfile profile = hostProfiles.get(host.toLowerCase());
+            if (Objects.nonNull(profile)) {
+                return profile;
+            }
+        }
+        return defaultProfile;
+    }
+
+    public HttpClientProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public Map<String, HttpClientProfile> getHostProfiles() {
+        return hostProfiles;
+    }
+
+    public synchronized void setDefaultProfile(HttpClientProfile profile) {
+        this.defaultProfile = profile.copy();
+        fireChanged();
+    }
+
+    public synchronized void setProfile(String host, HttpClientProfile profile) {
+        Map<String, HttpClientProfile> map = new HashMap<>(hostProfiles);
+        map.put(host.toLowerCase(), profile.copy());
+        this.hostProfiles = Collections.unmodifiableMap(map);
+        fireChanged();
+    }
+
+    /**
+     * 配置更新后的回调
+     */
+    public void addListener(Consumer<HttpClientProfiles> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 从配置文件加载, .properties 使用JDK读取, .xml 使用apache commons-configuration读取
+     */
+    public void load(String path) {
+        load(path.endsWith(".xml") ? ConfigurationFileUtil.Strategy.APACHE : ConfigurationFileUtil.Strategy.JDK, path);
+    }
+
+    public synchronized void load(ConfigurationFileUtil.Strategy strategy, String path) {
+        this.strategy = strategy;
+        this.path = path;
+        apply(false);
+    }
+
+    /**
+     * 重新读取配置文件, 有变化时替换当前配置并通知监听者
+     */
+    public synchronized void reload() {
+        if (Objects.isNull(path)) {
+            throw new IllegalStateException("you should load the profiles first");
+        }
+        ConfigurationFileUtil.reload(strategy, path);
+        apply(true);
+    }
+
+    /**
+     * 定期重新加载配置文件
+     */
+    public synchronized void watch(long periodMillis) {
+        if (Objects.nonNull(watcher)) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "http-client-profiles-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (Exception e) {
+                log.warn("reload http client profiles fail, {}", path, e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopWatching() {
+        if (Objects.nonNull(watcher)) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    private void apply(boolean onlyIfChanged) {
+        HttpClientProfile newDefault = new HttpClientProfile();
+        Map<String, Map<String, String>> hostItems = new HashMap<>();
+        for (String key : ConfigurationFileUtil.getKeys(strategy, path)) {
+            if (!key.startsWith(PREFIX)) {
+                continue;
+            }
+            String value = ConfigurationFileUtil.getValue(strategy, path, key);
+            int index = key.lastIndexOf('.');
+            String name = key.substring(index + 1);
+            if (key.startsWith(DEFAULT_PREFIX) && index == DEFAULT_PREFIX.length() - 1) {
+                setItem(newDefault, key, name, value);
+            } else if (key.startsWith(HOST_PREFIX) && index > HOST_PREFIX.length()) {
+                String host = key.substring(HOST_PREFIX.length(), index).toLowerCase();
+                hostItems.computeIfAbsent(host, h -> new HashMap<>()).put(name, value);
+            } else {
+                log.warn("unknown http client config [{}]", key);
+            }
+        }
+        Map<String, HttpClientProfile> newHosts = new HashMap<>();
+        hostItems.forEach((host, items) -> {
+            HttpClientProfile profile = newDefault.copy();
+            items.forEach((name, value) -> setItem(profile, HOST_PREFIX + host + "." + name, name, value));
+            newHosts.put(host, profile);
+        });
+        if (onlyIfChanged && newDefault.equals(defaultProfile) && newHosts.equals(hostProfiles)) {
+            return;
+        }
+        this.defaultProfile = newDefault;
+        this.hostProfiles = Collections.unmodifiableMap(newHosts);
+        log.info("http client profiles loaded from {}, hosts: {}", path, newHosts.keySet());
+        fireChanged();
+    }
+
+    private static void setItem(HttpClientProfile profile, String key, String name, String value) {
+        try {
+            if (!profile.set(name, value)) {
+                log.warn("unknown http client config [{}]", key);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("illegal value of http client config [{}={}]", key, value);
+        }
+    }
+
+    private void fireChanged() {
+        for (Consumer<HttpClientProfiles> listener : listeners) {
+            try {
+                listener.accept(this);
+            } catch (Exception e) {
+                log.warn("notify http client profiles listener fail", e);
+            }
+        }
+    }
+}
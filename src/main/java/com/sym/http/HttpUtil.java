@@ -1,19 +1,29 @@
 package com.sym.http;
 
+import com.sym.http.protocol.HttpBatchResult;
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
 import com.sym.http.strategy.IHttpStrategy;
+import com.sym.http.strategy.cache.CachingHttpStrategy;
+import com.sym.http.strategy.cache.HttpResponseCache;
 import com.sym.http.strategy.impl.ApacheHttpClientStrategy;
 import com.sym.http.strategy.impl.JdkHttpStrategy;
 import com.sym.http.strategy.impl.OkClientStrategy;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * HTTP Client 工具类
+ * HTTP Client 工具类.
+ * <p>
+ * 选择策略的三种方式:
+ * 1. 通过{@link #client(Strategy)}获取绑定了策略的客户端, 获取一次后反复使用, 推荐在高频调用的场景使用;
+ * 2. 调用带{@link Strategy}参数的方法, 每次调用单独指定;
+ * 3. 通过{@link #setStrategy(Strategy)}设置当前线程的策略. 线程池中的线程会被复用, 用完需要调用{@link #clearStrategy()}
  *
  * @author shenyanming
  * Create on 2021/07/08 10:54
@@ -21,17 +31,35 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class HttpUtil {
 
+    private static final Strategy DEFAULT_STRATEGY = Strategy.OK_CLINT;
+
     private static ThreadLocal<Strategy> strategyThreadLocal = new ThreadLocal<>();
-    private static Map<Strategy, IHttpStrategy> strategyMap = new ConcurrentHashMap<>(8);
+    /**
+     * 以{@link Strategy#ordinal()}为下标
+     */
+    private static final AtomicReferenceArray<IHttpStrategy> strategies = new AtomicReferenceArray<>(Strategy.values().length);
+    private static final AtomicReferenceArray<CachingHttpStrategy> cachingStrategies = new AtomicReferenceArray<>(Strategy.values().length);
+    private static final HttpBatchExecutor batchExecutor = new HttpBatchExecutor(HttpClientProfiles.getGlobal());
+    private static volatile HttpResponseCache responseCache;
 
     public static void setStrategy(Strategy strategy) {
-        Strategy old;
-        if (Objects.nonNull((old = strategyThreadLocal.get())) && old == strategy) {
-            return;
-        }
         strategyThreadLocal.set(strategy);
     }
 
+    /**
+     * 清除当前线程设置的策略, 避免线程被复用时影响后续的调用
+     */
+    public static void clearStrategy() {
+        strategyThreadLocal.remove();
+    }
+
+    /**
+     * 获取绑定了指定策略的客户端. 开启了响应缓存时返回带缓存的客户端, 之后再开关缓存不会影响已经获取的客户端
+     */
+    public static IHttpStrategy client(Strategy strategy) {
+        return getStrategyImpl(Objects.requireNonNull(strategy));
+    }
+
     public static HttpResponse get(HttpRequest request) {
         return getStrategyImpl().get(request);
     }
@@ -48,30 +76,170 @@ public class HttpUtil {
         return getStrategyImpl().delete(request);
     }
 
-    private static IHttpStrategy getStrategyImpl() {
-        return strategyMap.computeIfAbsent(getStrategy(), s -> {
-            switch (s) {
-                case JDK:
-                    return new JdkHttpStrategy();
-                case OK_CLINT:
-                    return new OkClientStrategy();
-                case APACHE_HTTP_CLIENT:
-                    return new ApacheHttpClientStrategy();
-                default:
-                    throw new IllegalArgumentException("illegal strategy");
-            }
-        });
+    public static HttpResponse get(HttpRequest request, Strategy strategy) {
+        return client(strategy).get(request);
+    }
+
+    public static HttpResponse post(HttpRequest request, Strategy strategy) {
+        return client(strategy).post(request);
+    }
+
+    public static HttpResponse put(HttpRequest request, Strategy strategy) {
+        return client(strategy).put(request);
+    }
+
+    public static HttpResponse delete(HttpRequest request, Strategy strategy) {
+        return client(strategy).delete(request);
+    }
+
+    /**
+     * 流式get请求, 适用于大文件下载, 返回对象使用完毕必须关闭
+     */
+    public static StreamingHttpResponse getStream(HttpRequest request) {
+        return getStrategyImpl().stream(request, HttpRequest.HttpMethod.GET);
+    }
+
+    /**
+     * 流式get请求, 响应体逐块交给回调处理
+     *
+     * @return HTTP状态码
+     */
+    public static int getStream(HttpRequest request, StreamingHttpResponse.ChunkConsumer consumer) {
+        return getStrategyImpl().stream(request, HttpRequest.HttpMethod.GET, consumer);
+    }
+
+    public static CompletableFuture<HttpResponse> getAsync(HttpRequest request) {
+        return getStrategyImpl().getAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> postAsync(HttpRequest request) {
+        return getStrategyImpl().postAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> putAsync(HttpRequest request) {
+        return getStrategyImpl().putAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> deleteAsync(HttpRequest request) {
+        return getStrategyImpl().deleteAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> getAsync(HttpRequest request, Strategy strategy) {
+        return client(strategy).getAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> postAsync(HttpRequest request, Strategy strategy) {
+        return client(strategy).postAsync(request);
     }
 
-    private static Strategy getStrategy() {
+    public static CompletableFuture<HttpResponse> putAsync(HttpRequest request, Strategy strategy) {
+        return client(strategy).putAsync(request);
+    }
+
+    public static CompletableFuture<HttpResponse> deleteAsync(HttpRequest request, Strategy strategy) {
+        return client(strategy).deleteAsync(request);
+    }
+
+    /**
+     * 批量执行get请求, 请求按host分组并发执行, 阻塞直到全部结束
+     *
+     * @return 与请求顺序一致的结果, 单个请求的失败不会影响其它请求
+     */
+    public static List<HttpBatchResult> executeAll(List<HttpRequest> requests) {
+        return executeAll(requests, HttpRequest.HttpMethod.GET);
+    }
+
+    /**
+     * 批量执行请求, 请求按host分组并发执行, 阻塞直到全部结束
+     *
+     * @return 与请求顺序一致的结果, 单个请求的失败不会影响其它请求
+     */
+    public static List<HttpBatchResult> executeAll(List<HttpRequest> requests, HttpRequest.HttpMethod method) {
+        return batchExecutor.executeAll(getStrategyImpl(), requests, method);
+    }
+
+    public static List<HttpBatchResult> executeAll(List<HttpRequest> requests, HttpRequest.HttpMethod method, Strategy strategy) {
+        return batchExecutor.executeAll(client(strategy), requests, method);
+    }
+
+    /**
+     * 批量请求时每个host默认的最大并发数, 未设置时取{@link HttpClientProfiles}中的配置
+     */
+    public static void setMaxConcurrentPerHost(int max) {
+        batchExecutor.setDefaultMaxConcurrentPerHost(max);
+    }
+
+    /**
+     * 批量请求时指定host的最大并发数
+     *
+     * @param host 形如 host:port, 也可以只写host
+     */
+    public static void setMaxConcurrentPerHost(String host, int max) {
+        batchExecutor.setMaxConcurrentPerHost(host, max);
+    }
+
+    /**
+     * 开启响应缓存, 所有策略共用同一个缓存; 传入null则关闭
+     */
+    public static void setResponseCache(HttpResponseCache cache) {
+        responseCache = cache;
+        for (int i = 0; i < cachingStrategies.length(); i++) {
+            cachingStrategies.set(i, null);
+        }
+    }
+
+    public static HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    private static IHttpStrategy getStrategyImpl() {
         Strategy strategy = strategyThreadLocal.get();
-        if (Objects.isNull(strategy)) {
-            strategy = Strategy.OK_CLINT;
+        return getStrategyImpl(Objects.isNull(strategy) ? DEFAULT_STRATEGY : strategy);
+    }
+
+    private static IHttpStrategy getStrategyImpl(Strategy strategy) {
+        IHttpStrategy impl = getRawStrategyImpl(strategy);
+        HttpResponseCache cache = responseCache;
+        if (Objects.isNull(cache)) {
+            return impl;
+        }
+        CachingHttpStrategy caching = cachingStrategies.get(strategy.ordinal());
+        if (Objects.isNull(caching) || caching.getCache() != cache) {
+            caching = new CachingHttpStrategy(impl, cache);
+            cachingStrategies.set(strategy.ordinal(), caching);
         }
-        log.info("use strategy [{}]", strategy.getName());
-        return strategy;
+        return caching;
     }
 
+    private static IHttpStrategy getRawStrategyImpl(Strategy strategy) {
+        IHttpStrategy impl = strategies.get(strategy.ordinal());
+        if (Objects.nonNull(impl)) {
+            return impl;
+        }
+        // 只在第一次使用时创建, 之后都是数组下标访问
+        synchronized (strategies) {
+            impl = strategies.get(strategy.ordinal());
+            if (Objects.isNull(impl)) {
+                impl = newStrategyImpl(strategy);
+                log.info("init strategy [{}]", strategy.getName());
+                strategies.set(strategy.ordinal(), impl);
+            }
+            return impl;
+        }
+    }
+
+    private static IHttpStrategy newStrategyImpl(Strategy strategy) {
+        switch (strategy) {
+            case JDK:
+                return new JdkHttpStrategy();
+            case OK_CLINT:
+                return new OkClientStrategy();
+            case APACHE_HTTP_CLIENT:
+                return new ApacheHttpClientStrategy();
+            default:
+                throw new IllegalArgumentException("illegal strategy");
+        }
+    }
 
     public enum Strategy {
         JDK(JdkHttpStrategy.class.getName()),
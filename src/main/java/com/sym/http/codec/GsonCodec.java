@@ -0,0 +1,54 @@
+package com.sym.http.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * 基于 Gson 的JSON编解码器, 编码时通过{@link JsonWriter}边序列化边写入输出流
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class GsonCodec implements HttpBodyCodec {
+
+    public static final GsonCodec INSTANCE = new GsonCodec(new Gson());
+
+    private final Gson gson;
+
+    public GsonCodec(Gson gson) {
+        this.gson = Objects.requireNonNull(gson);
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json; charset=UTF-8";
+    }
+
+    @Override
+    public void encode(Object value, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        JsonWriter jsonWriter = gson.newJsonWriter(writer);
+        try {
+            gson.toJson(value, Objects.isNull(value) ? Object.class : value.getClass(), jsonWriter);
+        } catch (JsonIOException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+        // 只刷新不关闭, 输出流由调用方关闭
+        jsonWriter.flush();
+    }
+
+    @Override
+    public <T> T decode(Reader reader, Type type) {
+        return gson.fromJson(reader, type);
+    }
+}
@@ -0,0 +1,31 @@
+package com.sym.http.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+
+/**
+ * 请求体和响应体的编解码器, 默认实现是{@link GsonCodec}.
+ * 编码时直接写入请求体的输出流, 不生成中间字符串
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public interface HttpBodyCodec {
+
+    /**
+     * 编码后的 Content-Type
+     */
+    String contentType();
+
+    /**
+     * 把对象编码后写入输出流, 不需要关闭输出流
+     */
+    void encode(Object value, OutputStream out) throws IOException;
+
+    /**
+     * 把响应体解码为指定类型的对象
+     */
+    <T> T decode(Reader reader, Type type) throws IOException;
+}
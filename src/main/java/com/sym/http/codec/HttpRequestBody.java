@@ -0,0 +1,198 @@
+package com.sym.http.codec;
+
+import com.sym.http.protocol.HttpRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 请求体, 由各个策略适配到自己的请求体类型上, 统一直接写入底层连接的输出流.
+ * <p>
+ * 根据{@link HttpRequest#getBody()}的类型决定写法:
+ * 1. byte[]: 原样写入, 长度已知;
+ * 2. InputStream: 边读边写, 只能写一次, 写完后关闭;
+ * 3. CharSequence: 按 UTF-8 写入;
+ * 4. 其它对象: 交给编解码器编码, 默认为JSON.
+ * 没有设置请求体时, 兼容原来的行为把{@link HttpRequest#getParameters()}编码为JSON
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public abstract class HttpRequestBody {
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final String TEXT_PLAIN = "text/plain; charset=UTF-8";
+
+    private static volatile HttpBodyCodec defaultCodec = GsonCodec.INSTANCE;
+
+    private final String contentType;
+
+    HttpRequestBody(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public static HttpBodyCodec getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    /**
+     * 设置全局默认的编解码器, 请求上单独设置的编解码器优先
+     */
+    public static void setDefaultCodec(HttpBodyCodec codec) {
+        defaultCodec = Objects.requireNonNull(codec);
+    }
+
+    /**
+     * 解析请求的请求体, GET/DELETE 以及没有内容时返回null
+     */
+    public static HttpRequestBody of(HttpRequest request, HttpRequest.HttpMethod method) {
+        if (!HttpRequest.HttpMethod.shouldJson.contains(method)) {
+            return null;
+        }
+        Object body = request.getBody();
+        if (Objects.isNull(body)) {
+            Map<String, String> parameters = request.getParameters();
+            if (Objects.isNull(parameters) || parameters.isEmpty()) {
+                return null;
+            }
+            body = parameters;
+        }
+        String contentType = headerContentType(request);
+        if (body instanceof byte[]) {
+            return new BytesBody(Objects.isNull(contentType) ? OCTET_STREAM : contentType, (byte[]) body);
+        }
+        if (body instanceof InputStream) {
+            return new StreamBody(Objects.isNull(contentType) ? OCTET_STREAM : contentType, (InputStream) body);
+        }
+        if (body instanceof CharSequence) {
+            return new BytesBody(Objects.isNull(contentType) ? TEXT_PLAIN : contentType,
+                    body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        HttpBodyCodec codec = Objects.isNull(request.getCodec()) ? defaultCodec : request.getCodec();
+        return new EncodedBody(Objects.isNull(contentType) ? codec.contentType() : contentType, codec, body);
+    }
+
+    /**
+     * 请求头中显式指定的 Content-Type 优先
+     */
+    private static String headerContentType(HttpRequest request) {
+        Map<String, String> headers = request.getHeaders();
+        if (Objects.isNull(headers)) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if ("Content-Type".equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * 请求体长度, 未知时返回-1, 此时以 chunked 方式发送
+     */
+    public long contentLength() {
+        return -1;
+    }
+
+    /**
+     * 能否重复写入, 流式请求体只能写一次, 不能重试
+     */
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * 写入请求体, 不会关闭输出流
+     */
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * 以输入流的方式读取请求体, 给只能拉取数据的客户端使用(如 Apache 的异步客户端), 编码类的请求体会先在内存中编码
+     */
+    public InputStream openStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static class BytesBody extends HttpRequestBody {
+        private final byte[] bytes;
+
+        BytesBody(String contentType, byte[] bytes) {
+            super(contentType);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(bytes);
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+    }
+
+    private static class StreamBody extends HttpRequestBody {
+        private final InputStream in;
+
+        StreamBody(String contentType, InputStream in) {
+            super(contentType);
+            this.in = in;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream input = in) {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = input.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            }
+        }
+
+        @Override
+        public InputStream openStream() {
+            return in;
+        }
+    }
+
+    private static class EncodedBody extends HttpRequestBody {
+        private final HttpBodyCodec codec;
+        private final Object value;
+
+        EncodedBody(String contentType, HttpBodyCodec codec, Object value) {
+            super(contentType);
+            this.codec = codec;
+            this.value = value;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            codec.encode(value, out);
+        }
+    }
+}
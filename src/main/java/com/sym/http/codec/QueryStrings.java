@@ -0,0 +1,98 @@
+package com.sym.http.codec;
+
+import com.sym.http.protocol.HttpRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 查询字符串的编码, 按 RFC 3986 对参数名和参数值做百分号编码(空格编码为%20)
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class QueryStrings {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private QueryStrings() {
+    }
+
+    /**
+     * 请求实际访问的地址: 没有请求体的方法(GET/DELETE)把{@link HttpRequest#getParameters()}拼接到查询字符串上
+     */
+    public static String urlOf(HttpRequest request, HttpRequest.HttpMethod method) {
+        if (HttpRequest.HttpMethod.shouldJson.contains(method)) {
+            return request.getUrl();
+        }
+        return appendTo(request.getUrl(), request.getParameters());
+    }
+
+    /**
+     * 把参数拼接到地址上, 地址中已有的查询字符串和锚点会保留
+     */
+    public static String appendTo(String url, Map<String, String> parameters) {
+        if (Objects.isNull(url) || Objects.isNull(parameters) || parameters.isEmpty()) {
+            return url;
+        }
+        int fragment = url.indexOf('#');
+        String base = fragment < 0 ? url : url.substring(0, fragment);
+        StringBuilder builder = new StringBuilder(url.length() + parameters.size() * 16).append(base);
+        int query = base.indexOf('?');
+        char separator = query < 0 ? '?' : (query == base.length() - 1 || base.endsWith("&") ? 0 : '&');
+        if (separator != 0) {
+            builder.append(separator);
+        }
+        encode(parameters, builder);
+        if (fragment >= 0) {
+            builder.append(url, fragment, url.length());
+        }
+        return builder.toString();
+    }
+
+    public static String encode(Map<String, String> parameters) {
+        StringBuilder builder = new StringBuilder();
+        encode(parameters, builder);
+        return builder.toString();
+    }
+
+    private static void encode(Map<String, String> parameters, StringBuilder builder) {
+        boolean first = true;
+        for (Map.Entry<String, String> entry : parameters.entrySet()) {
+            if (Objects.isNull(entry.getKey())) {
+                continue;
+            }
+            if (!first) {
+                builder.append('&');
+            }
+            first = false;
+            percentEncode(entry.getKey(), builder);
+            if (Objects.nonNull(entry.getValue())) {
+                builder.append('=');
+                percentEncode(entry.getValue(), builder);
+            }
+        }
+    }
+
+    private static void percentEncode(String value, StringBuilder builder) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                builder.append(c);
+                continue;
+            }
+            // 非 ASCII 字符按 UTF-8 编码, 代理对需要一起编码
+            int end = Character.isHighSurrogate(c) && i + 1 < value.length() ? i + 2 : i + 1;
+            for (byte b : value.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+            }
+            i = end - 1;
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
@@ -0,0 +1,44 @@
+package com.sym.http.protocol;
+
+import lombok.Data;
+
+import java.util.Objects;
+
+/**
+ * 批量请求中单个请求的结果
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Data
+public class HttpBatchResult {
+
+    /**
+     * 原始请求
+     */
+    private HttpRequest request;
+
+    /**
+     * 响应, 请求异常时为null
+     */
+    private HttpResponse response;
+
+    /**
+     * 请求过程中的异常, 例如url非法、连接失败、超时等
+     */
+    private Throwable error;
+
+    public HttpBatchResult(HttpRequest request) {
+        this.request = request;
+    }
+
+    public HttpResponse.RequestStatus getStatus() {
+        return Objects.isNull(response) || Objects.isNull(response.getStatus()) ?
+                HttpResponse.RequestStatus.FAILURE :
+                response.getStatus();
+    }
+
+    public boolean isSuccess() {
+        return getStatus() == HttpResponse.RequestStatus.SUCCESS;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sym.http.protocol;
 
+import com.sym.http.codec.HttpBodyCodec;
 import lombok.Data;
 
 import java.io.Serializable;
@@ -27,10 +28,21 @@ public class HttpRequest implements Serializable {
     private Map<String, String> headers;
 
     /**
-     * 请求参数
+     * 请求参数, GET/DELETE 拼接到查询字符串上; POST/PUT 在没有设置请求体时编码为JSON
      */
     private Map<String, String> parameters;
 
+    /**
+     * 请求体, 只对 POST/PUT 生效: byte[]和InputStream原样发送, 字符串按UTF-8发送, 其它对象交给编解码器.
+     * InputStream 只能发送一次, 发送后会被关闭. 请求体不参与序列化
+     */
+    private transient Object body;
+
+    /**
+     * 请求体的编解码器, 为空时使用{@link com.sym.http.codec.HttpRequestBody#getDefaultCodec()}
+     */
+    private transient HttpBodyCodec codec;
+
     /**
      * HTTP协议方法
      */
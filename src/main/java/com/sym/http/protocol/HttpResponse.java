@@ -1,8 +1,15 @@
 package com.sym.http.protocol;
 
+import com.sym.http.codec.HttpBodyCodec;
+import com.sym.http.codec.HttpRequestBody;
 import lombok.Data;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * HTTP 返回体
@@ -16,6 +23,38 @@ public class HttpResponse implements Serializable {
     private RequestStatus status;
     private String data;
 
+    /**
+     * HTTP状态码
+     */
+    private int statusCode;
+
+    /**
+     * 响应头, 查找时忽略大小写, 同名的多个响应头以", "拼接
+     */
+    private Map<String, String> headers;
+
+    public String getHeader(String name) {
+        return Objects.isNull(headers) ? null : headers.get(name);
+    }
+
+    /**
+     * 使用默认的编解码器把响应体解码为指定类型
+     */
+    public <T> T getData(Type type) {
+        return getData(type, HttpRequestBody.getDefaultCodec());
+    }
+
+    public <T> T getData(Type type, HttpBodyCodec codec) {
+        if (Objects.isNull(data)) {
+            return null;
+        }
+        try {
+            return codec.decode(new StringReader(data), type);
+        } catch (IOException e) {
+            throw new RuntimeException("decode response fail", e);
+        }
+    }
+
     public enum RequestStatus{
         SUCCESS, FAILURE
     }
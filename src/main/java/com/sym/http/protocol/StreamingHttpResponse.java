@@ -0,0 +1,160 @@
+package com.sym.http.protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 流式的HTTP返回体, 响应内容不会被读到内存里, 而是以{@link InputStream}/{@link ReadableByteChannel}的形式交给调用方,
+ * 适用于大文件下载. 使用完毕必须调用{@link #close()}释放底层连接, 未读完就关闭会直接断开连接
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class StreamingHttpResponse implements Closeable {
+
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final Closeable releaser;
+    private volatile boolean closed;
+
+    /**
+     * @param statusCode HTTP状态码
+     * @param headers    响应头, 查找时忽略大小写
+     * @param body       响应体, 没有响应体时可以为null
+     * @param releaser   释放底层连接的操作
+     */
+    public StreamingHttpResponse(int statusCode, Map<String, String> headers, InputStream body, Closeable releaser) {
+        this.statusCode = statusCode;
+        Map<String, String> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (Objects.nonNull(headers)) {
+            map.putAll(headers);
+        }
+        this.headers = Collections.unmodifiableMap(map);
+        this.body = Objects.isNull(body) ? new EmptyInputStream() : body;
+        this.releaser = releaser;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpResponse.RequestStatus getStatus() {
+        return statusCode >= 200 && statusCode < 300 ?
+                HttpResponse.RequestStatus.SUCCESS :
+                HttpResponse.RequestStatus.FAILURE;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * 响应体的长度, 未知时返回-1
+     */
+    public long getContentLength() {
+        String value = headers.get("Content-Length");
+        if (Objects.isNull(value)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    public ReadableByteChannel getChannel() {
+        return Channels.newChannel(body);
+    }
+
+    /**
+     * 逐块读取响应体并交给回调处理, 读取完毕后自动关闭
+     */
+    public void consume(ChunkConsumer consumer) throws IOException {
+        consume(consumer, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 逐块读取响应体并交给回调处理, 读取完毕后自动关闭
+     *
+     * @param consumer  回调, 每次传入的{@link ByteBuffer}都处于可读状态, 回调返回后会被复用
+     * @param chunkSize 每一块的最大字节数
+     */
+    public void consume(ChunkConsumer consumer, int chunkSize) throws IOException {
+        try (ReadableByteChannel channel = getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    consumer.accept(buffer);
+                }
+                buffer.clear();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (Objects.isNull(releaser)) {
+            body.close();
+            return;
+        }
+        // 先释放连接再关闭流, 有些客户端(例如apache httpClient)关闭流时会把剩余的内容读完.
+        // 连接已经释放, 关闭流时的异常可以忽略
+        try {
+            releaser.close();
+        } finally {
+            try {
+                body.close();
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * 响应体的分块回调
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        /**
+         * 处理一块数据
+         *
+         * @param chunk 数据块
+         * @throws IOException 处理异常
+         */
+        void accept(ByteBuffer chunk) throws IOException;
+    }
+
+    private static class EmptyInputStream extends InputStream {
+        @Override
+        public int read() {
+            return -1;
+        }
+    }
+}
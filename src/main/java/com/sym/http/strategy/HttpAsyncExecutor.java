@@ -0,0 +1,55 @@
+package com.sym.http.strategy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 不支持原生异步的HTTP策略所使用的有界线程池, 线程数和队列长度都有上限, 队列满了直接失败而不是无限堆积
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class HttpAsyncExecutor {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+    private static final int QUEUE_SIZE = 1024;
+
+    private static final ThreadPoolExecutor DEFAULT_EXECUTOR;
+
+    static {
+        AtomicInteger index = new AtomicInteger();
+        DEFAULT_EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+            Thread thread = new Thread(r, "http-async-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        DEFAULT_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private HttpAsyncExecutor() {
+    }
+
+    public static Executor getDefault() {
+        return DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * 在指定线程池上执行阻塞调用, 线程池拒绝时返回异常结束的 future
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> supplier, Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.sym.http.strategy;
+
+/**
+ * HTTP请求的埋点接口, 所有策略都会把各阶段的耗时和请求结果回调到这里, 通过{@link HttpInstrumentation}注册.
+ * 回调发生在请求线程或者IO线程上, 参数都是基本类型或已有对象, 实现类应该尽快返回并且不分配对象
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public interface HttpEventListener {
+
+    /**
+     * 不做任何事情的默认实现
+     */
+    HttpEventListener NONE = new HttpEventListener() {
+    };
+
+    /**
+     * 请求的某个阶段结束
+     *
+     * @param host  目标主机
+     * @param phase 阶段, 不会是{@link Phase#TOTAL}
+     * @param nanos 耗时, 纳秒
+     */
+    default void onPhase(String host, Phase phase, long nanos) {
+    }
+
+    /**
+     * 收到响应并读完响应体
+     *
+     * @param nanos 整个请求的耗时, 纳秒
+     */
+    default void onResponse(String host, int statusCode, long nanos) {
+    }
+
+    /**
+     * 请求失败, 没有拿到响应
+     */
+    default void onFailure(String host, Throwable error, long nanos) {
+    }
+
+    /**
+     * 请求的各个阶段. 不同策略能观测到的阶段不同:
+     * OkHttp 和 Apache 的同步请求全部支持, Apache 的异步请求只有 BODY 和 TOTAL;
+     * JDK 无法单独观测DNS和TLS, CONNECT 包含了它们
+     */
+    enum Phase {
+        /**
+         * 域名解析
+         */
+        DNS,
+        /**
+         * 建立TCP连接, 复用连接时没有这个阶段
+         */
+        CONNECT,
+        /**
+         * TLS握手
+         */
+        TLS,
+        /**
+         * 请求发出后到收到响应头(首字节)
+         */
+        TTFB,
+        /**
+         * 读取响应体
+         */
+        BODY,
+        /**
+         * 整个请求, 通过{@link #onResponse}和{@link #onFailure}回调
+         */
+        TOTAL
+    }
+}
@@ -0,0 +1,59 @@
+package com.sym.http.strategy;
+
+import java.util.Objects;
+
+/**
+ * 全局的{@link HttpEventListener}, 各个策略通过这里的静态方法上报事件.
+ * 没有注册监听器时只多一次 volatile 读
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class HttpInstrumentation {
+
+    private static volatile HttpEventListener listener = HttpEventListener.NONE;
+
+    private HttpInstrumentation() {
+    }
+
+    public static HttpEventListener getListener() {
+        return listener;
+    }
+
+    /**
+     * 注册监听器, 传入null表示取消
+     */
+    public static void setListener(HttpEventListener eventListener) {
+        listener = Objects.isNull(eventListener) ? HttpEventListener.NONE : eventListener;
+    }
+
+    public static boolean isEnabled() {
+        return listener != HttpEventListener.NONE;
+    }
+
+    /**
+     * 上报一个阶段的耗时
+     *
+     * @param startNanos 阶段开始时的{@link System#nanoTime()}
+     */
+    public static void phase(String host, HttpEventListener.Phase phase, long startNanos) {
+        HttpEventListener current = listener;
+        if (current != HttpEventListener.NONE && Objects.nonNull(host)) {
+            current.onPhase(host, phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void responded(String host, int statusCode, long startNanos) {
+        HttpEventListener current = listener;
+        if (current != HttpEventListener.NONE && Objects.nonNull(host)) {
+            current.onResponse(host, statusCode, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void failed(String host, Throwable error, long startNanos) {
+        HttpEventListener current = listener;
+        if (current != HttpEventListener.NONE && Objects.nonNull(host)) {
+            current.onFailure(host, error, System.nanoTime() - startNanos);
+        }
+    }
+}
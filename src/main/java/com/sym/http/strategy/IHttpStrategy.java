@@ -2,9 +2,16 @@ package com.sym.http.strategy;
 
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * HTTP抽象方法
+ * HTTP抽象方法.
+ * 异步方法默认在{@link #asyncExecutor()}上执行对应的阻塞方法, 支持非阻塞IO的实现应该覆盖它们
  *
  * @author shenyanming
  * Create on 2021/07/08 10:08
@@ -42,4 +49,80 @@ public interface IHttpStrategy {
      * @return 返回对象
      */
     HttpResponse delete(HttpRequest httpRequest);
+
+    /**
+     * 流式请求, 响应体不会读入内存, 调用方读取完毕后必须关闭返回对象
+     *
+     * @param httpRequest 请求对象
+     * @param method      请求方法
+     * @return 流式的返回对象
+     */
+    StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method);
+
+    /**
+     * 流式请求, 响应体逐块交给回调处理, 处理完毕后自动关闭
+     *
+     * @param httpRequest 请求对象
+     * @param method      请求方法
+     * @param consumer    分块回调
+     * @return HTTP状态码
+     */
+    default int stream(HttpRequest httpRequest, HttpRequest.HttpMethod method, StreamingHttpResponse.ChunkConsumer consumer) {
+        StreamingHttpResponse response = stream(httpRequest, method);
+        try {
+            response.consume(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("consume response fail", e);
+        }
+        return response.getStatusCode();
+    }
+
+    /**
+     * 异步get请求
+     *
+     * @param httpRequest 请求对象
+     * @return 返回对象
+     */
+    default CompletableFuture<HttpResponse> getAsync(HttpRequest httpRequest) {
+        return HttpAsyncExecutor.supply(() -> get(httpRequest), asyncExecutor());
+    }
+
+    /**
+     * 异步post请求
+     *
+     * @param httpRequest 请求对象
+     * @return 返回对象
+     */
+    default CompletableFuture<HttpResponse> postAsync(HttpRequest httpRequest) {
+        return HttpAsyncExecutor.supply(() -> post(httpRequest), asyncExecutor());
+    }
+
+    /**
+     * 异步put请求
+     *
+     * @param httpRequest 请求对象
+     * @return 返回对象
+     */
+    default CompletableFuture<HttpResponse> putAsync(HttpRequest httpRequest) {
+        return HttpAsyncExecutor.supply(() -> put(httpRequest), asyncExecutor());
+    }
+
+    /**
+     * 异步delete请求
+     *
+     * @param httpRequest 请求对象
+     * @return 返回对象
+     */
+    default CompletableFuture<HttpResponse> deleteAsync(HttpRequest httpRequest) {
+        return HttpAsyncExecutor.supply(() -> delete(httpRequest), asyncExecutor());
+    }
+
+    /**
+     * 默认异步实现所使用的有界线程池
+     *
+     * @return 线程池
+     */
+    default Executor asyncExecutor() {
+        return HttpAsyncExecutor.getDefault();
+    }
 }
@@ -0,0 +1,83 @@
+package com.sym.http.strategy.cache;
+
+import java.util.Objects;
+
+/**
+ * Cache-Control 头的解析结果, 只关心客户端缓存用得到的指令
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class CacheControl {
+
+    static final CacheControl EMPTY = new CacheControl();
+
+    boolean noStore;
+    boolean noCache;
+    boolean mustRevalidate;
+    boolean isPublic;
+    boolean isPrivate;
+    /**
+     * 是否带有 s-maxage, 客户端缓存不使用它的值, 只用来判断响应能否共享
+     */
+    boolean sharedMaxAge;
+    /**
+     * 秒, -1表示未指定
+     */
+    long maxAge = -1;
+
+    static CacheControl parse(String value) {
+        if (Objects.isNull(value) || value.trim().isEmpty()) {
+            return EMPTY;
+        }
+        CacheControl cacheControl = new CacheControl();
+        for (String directive : value.split(",")) {
+            directive = directive.trim();
+            int index = directive.indexOf('=');
+            String name = (index < 0 ? directive : directive.substring(0, index)).trim().toLowerCase();
+            String argument = index < 0 ? null : directive.substring(index + 1).trim();
+            switch (name) {
+                case "no-store":
+                    cacheControl.noStore = true;
+                    break;
+                case "no-cache":
+                    cacheControl.noCache = true;
+                    break;
+                case "must-revalidate":
+                case "proxy-revalidate":
+                    cacheControl.mustRevalidate = true;
+                    break;
+                case "max-age":
+                    cacheControl.maxAge = parseSeconds(argument);
+                    break;
+                case "public":
+                    cacheControl.isPublic = true;
+                    break;
+                case "private":
+                    cacheControl.isPrivate = true;
+                    break;
+                case "s-maxage":
+                    cacheControl.sharedMaxAge = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return cacheControl;
+    }
+
+    private static long parseSeconds(String argument) {
+        if (Objects.isNull(argument)) {
+            return -1;
+        }
+        if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+            argument = argument.substring(1, argument.length() - 1);
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            // 超出long范围的视为永久有效, 其它非法值视为已过期
+            return !argument.isEmpty() && argument.chars().allMatch(Character::isDigit) ? Long.MAX_VALUE / 1000 : 0;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.sym.http.strategy.cache;
+
+import com.sym.http.protocol.HttpResponse;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存条目, 保存响应以及计算新鲜度所需的时间信息(参考 RFC 7234 第4章)
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class CacheEntry {
+
+    private static final int MAGIC = 0x53594d43;
+    private static final long MAX_HEURISTIC_LIFETIME = TimeUnit.HOURS.toMillis(24);
+    /**
+     * 响应304时不应该覆盖的响应头
+     */
+    private static final String[] NOT_UPDATABLE_HEADERS = {"Content-Length", "Content-Encoding", "Transfer-Encoding", "Content-Range"};
+
+    final String key;
+    /**
+     * Vary 中列出的请求头及其在原始请求中的取值, 名称为小写, 取值可以为null
+     */
+    final Map<String, String> varyValues;
+    final HttpResponse response;
+    volatile long requestTime;
+    volatile long responseTime;
+    private final long size;
+
+    CacheEntry(String key, Map<String, String> varyValues, HttpResponse response, long requestTime, long responseTime) {
+        this.key = key;
+        this.varyValues = varyValues;
+        this.response = response;
+        this.requestTime = requestTime;
+        this.responseTime = responseTime;
+        this.size = estimateSize();
+    }
+
+    long size() {
+        return size;
+    }
+
+    String getETag() {
+        return response.getHeader("ETag");
+    }
+
+    String getLastModified() {
+        return response.getHeader("Last-Modified");
+    }
+
+    boolean hasValidator() {
+        return Objects.nonNull(getETag()) || Objects.nonNull(getLastModified());
+    }
+
+    CacheControl cacheControl() {
+        return CacheControl.parse(response.getHeader("Cache-Control"));
+    }
+
+    /**
+     * 新鲜期, 依次取 max-age、Expires - Date, 都没有时按 Last-Modified 估算(距今的10%, 最多24小时)
+     */
+    long freshnessLifetime() {
+        CacheControl cacheControl = cacheControl();
+        if (cacheControl.maxAge >= 0) {
+            return TimeUnit.SECONDS.toMillis(cacheControl.maxAge);
+        }
+        long date = dateValue();
+        String expires = response.getHeader("Expires");
+        if (Objects.nonNull(expires)) {
+            // 非法的 Expires(例如"0")表示已经过期
+            long expiresTime = parseDate(expires);
+            return expiresTime < 0 ? 0 : Math.max(0, expiresTime - date);
+        }
+        long lastModified = parseDate(getLastModified());
+        if (lastModified >= 0 && lastModified < date) {
+            return Math.min(MAX_HEURISTIC_LIFETIME, (date - lastModified) / 10);
+        }
+        return 0;
+    }
+
+    /**
+     * 当前的年龄, 即响应在服务端生成之后过去的时间
+     */
+    long currentAge(long now) {
+        long apparentAge = Math.max(0, responseTime - dateValue());
+        long ageValue = 0;
+        String age = response.getHeader("Age");
+        if (Objects.nonNull(age)) {
+            try {
+                ageValue = TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim()));
+            } catch (NumberFormatException ignore) {
+                // ignore
+            }
+        }
+        long correctedAge = ageValue + (responseTime - requestTime);
+        return Math.max(apparentAge, correctedAge) + Math.max(0, now - responseTime);
+    }
+
+    boolean isFresh(long now) {
+        return !cacheControl().noCache && currentAge(now) < freshnessLifetime();
+    }
+
+    /**
+     * 收到304后, 用新的响应头刷新条目
+     */
+    CacheEntry revalidated(HttpResponse notModified, long requestTime, long responseTime) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (Objects.nonNull(response.getHeaders())) {
+            headers.putAll(response.getHeaders());
+        }
+        if (Objects.nonNull(notModified.getHeaders())) {
+            notModified.getHeaders().forEach((name, value) -> {
+                if (Arrays.stream(NOT_UPDATABLE_HEADERS).noneMatch(name::equalsIgnoreCase)) {
+                    headers.put(name, value);
+                }
+            });
+        }
+        HttpResponse merged = copy(response);
+        merged.setHeaders(headers);
+        return new CacheEntry(key, varyValues, merged, requestTime, responseTime);
+    }
+
+    private long dateValue() {
+        long date = parseDate(response.getHeader("Date"));
+        return date < 0 ? responseTime : date;
+    }
+
+    private long estimateSize() {
+        long size = 64 + key.length() * 2L;
+        String data = response.getData();
+        if (Objects.nonNull(data)) {
+            size += data.length() * 2L;
+        }
+        if (Objects.nonNull(response.getHeaders())) {
+            for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+                size += 32 + (header.getKey().length() + header.getValue().length()) * 2L;
+            }
+        }
+        return size;
+    }
+
+    static HttpResponse copy(HttpResponse response) {
+        HttpResponse copy = new HttpResponse();
+        copy.setStatus(response.getStatus());
+        copy.setStatusCode(response.getStatusCode());
+        copy.setData(response.getData());
+        if (Objects.nonNull(response.getHeaders())) {
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(response.getHeaders());
+            copy.setHeaders(headers);
+        }
+        return copy;
+    }
+
+    static long parseDate(String value) {
+        if (Objects.isNull(value)) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeUTF(key);
+        out.writeLong(requestTime);
+        out.writeLong(responseTime);
+        out.writeInt(response.getStatusCode());
+        out.writeUTF(Objects.isNull(response.getStatus()) ? "" : response.getStatus().name());
+        Map<String, String> headers = Objects.isNull(response.getHeaders()) ? Collections.emptyMap() : response.getHeaders();
+        out.writeInt(headers.size());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            out.writeUTF(header.getKey());
+            writeString(out, header.getValue());
+        }
+        out.writeInt(varyValues.size());
+        for (Map.Entry<String, String> vary : varyValues.entrySet()) {
+            out.writeUTF(vary.getKey());
+            writeString(out, vary.getValue());
+        }
+        writeString(out, response.getData());
+    }
+
+    static CacheEntry readFrom(DataInputStream in) throws IOException {
+        String key = readKey(in);
+        long requestTime = in.readLong();
+        long responseTime = in.readLong();
+        HttpResponse response = new HttpResponse();
+        response.setStatusCode(in.readInt());
+        String status = in.readUTF();
+        response.setStatus(status.isEmpty() ? null : HttpResponse.RequestStatus.valueOf(status));
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0, size = in.readInt(); i < size; i++) {
+            headers.put(in.readUTF(), readString(in));
+        }
+        response.setHeaders(headers);
+        Map<String, String> varyValues = new HashMap<>();
+        for (int i = 0, size = in.readInt(); i < size; i++) {
+            varyValues.put(in.readUTF(), readString(in));
+        }
+        response.setData(readString(in));
+        return new CacheEntry(key, varyValues, response, requestTime, responseTime);
+    }
+
+    /**
+     * 只读取缓存key, 用于启动时重建磁盘索引
+     */
+    static String readKey(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a cache file");
+        }
+        return in.readUTF();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
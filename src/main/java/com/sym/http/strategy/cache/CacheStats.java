@@ -0,0 +1,88 @@
+package com.sym.http.strategy.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 响应缓存的统计信息
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class CacheStats {
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder revalidations = new LongAdder();
+    final LongAdder revalidationHits = new LongAdder();
+    final LongAdder stores = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder diskSpills = new LongAdder();
+    final LongAdder diskHits = new LongAdder();
+
+    /**
+     * 直接由缓存返回, 没有发起请求的次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 没有可用缓存, 发起完整请求的次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 缓存过期后发起条件请求(If-None-Match/If-Modified-Since)的次数
+     */
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    /**
+     * 条件请求返回304, 继续使用缓存的次数
+     */
+    public long getRevalidationHitCount() {
+        return revalidationHits.sum();
+    }
+
+    public long getStoreCount() {
+        return stores.sum();
+    }
+
+    /**
+     * 因容量不足被淘汰(包括溢出到磁盘)的次数
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getDiskSpillCount() {
+        return diskSpills.sum();
+    }
+
+    /**
+     * 从磁盘读回的次数
+     */
+    public long getDiskHitCount() {
+        return diskHits.sum();
+    }
+
+    /**
+     * 命中率, 304也算作命中
+     */
+    public double getHitRate() {
+        long hit = getHitCount() + getRevalidationHitCount();
+        long total = getHitCount() + getMissCount() + getRevalidationCount();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats(hits=" + getHitCount() + ", misses=" + getMissCount() +
+                ", revalidations=" + getRevalidationCount() + ", revalidationHits=" + getRevalidationHitCount() +
+                ", stores=" + getStoreCount() + ", evictions=" + getEvictionCount() +
+                ", diskSpills=" + getDiskSpillCount() + ", diskHits=" + getDiskHitCount() + ")";
+    }
+}
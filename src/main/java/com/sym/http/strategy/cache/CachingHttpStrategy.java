@@ -0,0 +1,287 @@
+package com.sym.http.strategy.cache;
+
+import com.sym.http.codec.QueryStrings;
+import com.sym.http.protocol.HttpRequest;
+import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.IHttpStrategy;
+
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 带响应缓存的HTTP策略, 可以装饰任意一个{@link IHttpStrategy}.
+ * <p>
+ * 1. 只缓存GET请求的200响应, 遵循 Cache-Control(no-store/no-cache/max-age/must-revalidate) 和 Expires;
+ * 2. 缓存过期后, 如果响应带有 ETag/Last-Modified, 则发起条件请求, 服务端返回304时继续使用缓存;
+ * 3. 请求头中的 Cache-Control: no-cache/no-store/max-age 同样生效;
+ * 4. POST/PUT/DELETE 请求会使同一个地址(包括拼接在查询字符串上的参数)的缓存失效;
+ * 5. 缓存可能被多个调用方共享(见 HttpUtil.setResponseCache), 按共享缓存处理(RFC 7234 §3): 不缓存 private 的响应,
+ * 带有 Authorization 或 Cookie 的请求只有响应声明了 public、s-maxage 或 must-revalidate 时才缓存.
+ * 缓存以url为key, 响应带有 Vary 时会比较对应的请求头
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class CachingHttpStrategy implements IHttpStrategy {
+
+    private final IHttpStrategy delegate;
+    private final HttpResponseCache cache;
+
+    public CachingHttpStrategy(IHttpStrategy delegate) {
+        this(delegate, new HttpResponseCache());
+    }
+
+    public CachingHttpStrategy(IHttpStrategy delegate, HttpResponseCache cache) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.cache = Objects.requireNonNull(cache);
+    }
+
+    public IHttpStrategy getDelegate() {
+        return delegate;
+    }
+
+    public HttpResponseCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public HttpResponse get(HttpRequest httpRequest) {
+        Lookup lookup = lookup(httpRequest);
+        if (Objects.nonNull(lookup.cached)) {
+            return lookup.cached;
+        }
+        return onResponse(lookup, delegate.get(lookup.networkRequest));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> getAsync(HttpRequest httpRequest) {
+        Lookup lookup = lookup(httpRequest);
+        if (Objects.nonNull(lookup.cached)) {
+            return CompletableFuture.completedFuture(lookup.cached);
+        }
+        return delegate.getAsync(lookup.networkRequest).thenApply(response -> onResponse(lookup, response));
+    }
+
+    @Override
+    public HttpResponse post(HttpRequest httpRequest) {
+        return invalidate(httpRequest, HttpRequest.HttpMethod.POST, delegate.post(httpRequest));
+    }
+
+    @Override
+    public HttpResponse put(HttpRequest httpRequest) {
+        return invalidate(httpRequest, HttpRequest.HttpMethod.PUT, delegate.put(httpRequest));
+    }
+
+    @Override
+    public HttpResponse delete(HttpRequest httpRequest) {
+        return invalidate(httpRequest, HttpRequest.HttpMethod.DELETE, delegate.delete(httpRequest));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> postAsync(HttpRequest httpRequest) {
+        return delegate.postAsync(httpRequest).thenApply(response -> invalidate(httpRequest, HttpRequest.HttpMethod.POST, response));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> putAsync(HttpRequest httpRequest) {
+        return delegate.putAsync(httpRequest).thenApply(response -> invalidate(httpRequest, HttpRequest.HttpMethod.PUT, response));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> deleteAsync(HttpRequest httpRequest) {
+        return delegate.deleteAsync(httpRequest).thenApply(response -> invalidate(httpRequest, HttpRequest.HttpMethod.DELETE, response));
+    }
+
+    /**
+     * 流式请求不经过缓存
+     */
+    @Override
+    public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
+        if (method != HttpRequest.HttpMethod.GET) {
+            cache.remove(QueryStrings.urlOf(httpRequest, method));
+        }
+        return delegate.stream(httpRequest, method);
+    }
+
+    @Override
+    public Executor asyncExecutor() {
+        return delegate.asyncExecutor();
+    }
+
+    private Lookup lookup(HttpRequest request) {
+        Lookup lookup = new Lookup(request);
+        CacheControl requestCacheControl = CacheControl.parse(headerOf(request, "Cache-Control"));
+        if (requestCacheControl.noStore) {
+            lookup.bypass = true;
+            return lookup;
+        }
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cache.get(keyOf(request));
+        if (Objects.nonNull(entry) && !varyMatches(entry, request)) {
+            entry = null;
+        }
+        if (Objects.isNull(entry)) {
+            cache.getStats().misses.increment();
+            return lookup;
+        }
+        boolean noCache = requestCacheControl.noCache || "no-cache".equalsIgnoreCase(headerOf(request, "Pragma"));
+        boolean fresh = entry.isFresh(now) && !noCache &&
+                (requestCacheControl.maxAge < 0 || entry.currentAge(now) <= requestCacheControl.maxAge * 1000);
+        if (fresh) {
+            cache.getStats().hits.increment();
+            lookup.cached = CacheEntry.copy(entry.response);
+            return lookup;
+        }
+        if (!entry.hasValidator()) {
+            cache.getStats().misses.increment();
+            return lookup;
+        }
+        // 发起条件请求
+        Map<String, String> headers = new HashMap<>();
+        if (Objects.nonNull(request.getHeaders())) {
+            headers.putAll(request.getHeaders());
+        }
+        if (Objects.nonNull(entry.getETag())) {
+            headers.put("If-None-Match", entry.getETag());
+        }
+        if (Objects.nonNull(entry.getLastModified())) {
+            headers.put("If-Modified-Since", entry.getLastModified());
+        }
+        HttpRequest conditional = new HttpRequest();
+        conditional.setUrl(request.getUrl());
+        conditional.setParameters(request.getParameters());
+        conditional.setHeaders(headers);
+        lookup.networkRequest = conditional;
+        lookup.stale = entry;
+        cache.getStats().revalidations.increment();
+        return lookup;
+    }
+
+    private HttpResponse onResponse(Lookup lookup, HttpResponse response) {
+        long responseTime = System.currentTimeMillis();
+        if (lookup.bypass) {
+            return response;
+        }
+        String key = keyOf(lookup.request);
+        if (Objects.nonNull(lookup.stale) && response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            CacheEntry refreshed = lookup.stale.revalidated(response, lookup.requestTime, responseTime);
+            cache.put(refreshed);
+            cache.getStats().revalidationHits.increment();
+            return CacheEntry.copy(refreshed.response);
+        }
+        if (isCacheable(lookup.request, response)) {
+            Map<String, String> varyValues = varyValuesOf(lookup.request, response.getHeader("Vary"));
+            cache.put(new CacheEntry(key, varyValues, CacheEntry.copy(response), lookup.requestTime, responseTime));
+            cache.getStats().stores.increment();
+        } else if (Objects.nonNull(lookup.stale)) {
+            cache.remove(key);
+        }
+        return response;
+    }
+
+    private boolean isCacheable(HttpRequest request, HttpResponse response) {
+        if (response.getStatusCode() != HttpURLConnection.HTTP_OK) {
+            return false;
+        }
+        CacheControl cacheControl = CacheControl.parse(response.getHeader("Cache-Control"));
+        if (cacheControl.noStore || cacheControl.isPrivate) {
+            return false;
+        }
+        // 带凭证的响应只属于当前调用方, 服务端明确允许时才能共享
+        boolean credentialed = Objects.nonNull(headerOf(request, "Authorization")) || Objects.nonNull(headerOf(request, "Cookie"));
+        if (credentialed && !(cacheControl.isPublic || cacheControl.sharedMaxAge || cacheControl.mustRevalidate)) {
+            return false;
+        }
+        String vary = response.getHeader("Vary");
+        if (Objects.nonNull(vary) && vary.contains("*")) {
+            return false;
+        }
+        // 既没有新鲜度信息也没有校验器的响应缓存了也用不上
+        return Objects.nonNull(response.getHeader("Cache-Control")) || Objects.nonNull(response.getHeader("Expires")) ||
+                Objects.nonNull(response.getHeader("ETag")) || Objects.nonNull(response.getHeader("Last-Modified"));
+    }
+
+    /**
+     * 使请求实际访问的地址的缓存失效, DELETE 的参数与 GET 一样拼接在查询字符串上
+     */
+    private HttpResponse invalidate(HttpRequest request, HttpRequest.HttpMethod method, HttpResponse response) {
+        cache.remove(QueryStrings.urlOf(request, method));
+        return response;
+    }
+
+    /**
+     * 缓存键为实际访问的地址, GET 参数拼接在查询字符串上, 不同参数的响应分开缓存
+     */
+    private static String keyOf(HttpRequest request) {
+        return QueryStrings.urlOf(request, HttpRequest.HttpMethod.GET);
+    }
+
+    private static boolean varyMatches(CacheEntry entry, HttpRequest request) {
+        for (Map.Entry<String, String> vary : entry.varyValues.entrySet()) {
+            if (!Objects.equals(vary.getValue(), headerOf(request, vary.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> varyValuesOf(HttpRequest request, String vary) {
+        if (Objects.isNull(vary) || vary.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String name : vary.split(",")) {
+            name = name.trim().toLowerCase();
+            if (!name.isEmpty()) {
+                values.put(name, headerOf(request, name));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 请求头的key大小写不确定, 忽略大小写查找
+     */
+    private static String headerOf(HttpRequest request, String name) {
+        Map<String, String> headers = request.getHeaders();
+        if (Objects.isNull(headers) || headers.isEmpty()) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (Objects.nonNull(value)) {
+            return value;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static class Lookup {
+        final HttpRequest request;
+        final long requestTime = System.currentTimeMillis();
+        HttpRequest networkRequest;
+        /**
+         * 可以直接返回的缓存
+         */
+        HttpResponse cached;
+        /**
+         * 正在重新校验的缓存
+         */
+        CacheEntry stale;
+        boolean bypass;
+
+        Lookup(HttpRequest request) {
+            this.request = request;
+            this.networkRequest = request;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.sym.http.strategy.cache;
+
+import com.google.common.hash.Hashing;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * HTTP响应缓存的存储, 按占用字节数限制容量, 超出后按LRU淘汰.
+ * 配置了磁盘目录时, 从内存淘汰的条目会溢出到磁盘, 磁盘同样按LRU限制容量, 再次访问时读回内存.
+ * 同一个实例可以被多个{@link CachingHttpStrategy}共享
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class HttpResponseCache {
+
+    private static final String FILE_SUFFIX = ".cache";
+
+    private final CacheConfig config;
+    private final CacheStats stats = new CacheStats();
+
+    private final LinkedHashMap<String, CacheEntry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    /**
+     * 已从内存淘汰、还没有写入磁盘的条目, 写入前被删除或重新放入内存的不再写入
+     */
+    private final Map<String, CacheEntry> spilling = new HashMap<>();
+
+    /**
+     * 磁盘索引, key -> 文件大小, 为null时不启用磁盘
+     */
+    private final LinkedHashMap<String, Long> disk;
+    private final Path directory;
+    private long diskBytes;
+
+    public HttpResponseCache() {
+        this(new CacheConfig());
+    }
+
+    public HttpResponseCache(CacheConfig config) {
+        this.config = config;
+        if (Objects.isNull(config.getDiskDirectory())) {
+            this.disk = null;
+            this.directory = null;
+        } else {
+            this.disk = new LinkedHashMap<>(64, 0.75f, true);
+            this.directory = Paths.get(config.getDiskDirectory());
+            loadDiskIndex();
+        }
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public CacheConfig getConfig() {
+        return config;
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized int getMemoryCount() {
+        return memory.size();
+    }
+
+    public long getDiskBytes() {
+        if (Objects.isNull(disk)) {
+            return 0;
+        }
+        synchronized (disk) {
+            return diskBytes;
+        }
+    }
+
+    /**
+     * 删除指定url的缓存
+     */
+    public void remove(String key) {
+        synchronized (this) {
+            CacheEntry old = memory.remove(key);
+            if (Objects.nonNull(old)) {
+                memoryBytes -= old.size();
+            }
+            spilling.remove(key);
+        }
+        removeFromDisk(key);
+    }
+
+    public void clear() {
+        synchronized (this) {
+            memory.clear();
+            memoryBytes = 0;
+            spilling.clear();
+        }
+        if (Objects.nonNull(disk)) {
+            List<String> keys;
+            synchronized (disk) {
+                keys = new ArrayList<>(disk.keySet());
+            }
+            keys.forEach(this::removeFromDisk);
+        }
+    }
+
+    CacheEntry get(String key) {
+        synchronized (this) {
+            CacheEntry entry = memory.get(key);
+            if (Objects.nonNull(entry)) {
+                return entry;
+            }
+        }
+        CacheEntry entry = readFromDisk(key);
+        if (Objects.nonNull(entry)) {
+            stats.diskHits.increment();
+            put(entry);
+        }
+        return entry;
+    }
+
+    void put(CacheEntry entry) {
+        if (entry.size() > config.getMaxEntryBytes()) {
+            remove(entry.key);
+            return;
+        }
+        List<CacheEntry> spilled = new ArrayList<>();
+        synchronized (this) {
+            CacheEntry old = memory.put(entry.key, entry);
+            spilling.remove(entry.key);
+            if (Objects.nonNull(old)) {
+                memoryBytes -= old.size();
+            }
+            memoryBytes += entry.size();
+            Iterator<CacheEntry> iterator = memory.values().iterator();
+            while (memoryBytes > config.getMaxMemoryBytes() && iterator.hasNext()) {
+                CacheEntry eldest = iterator.next();
+                if (eldest == entry) {
+                    continue;
+                }
+                iterator.remove();
+                memoryBytes -= eldest.size();
+                stats.evictions.increment();
+                if (Objects.nonNull(disk)) {
+                    spilling.put(eldest.key, eldest);
+                    spilled.add(eldest);
+                }
+            }
+        }
+        // 磁盘IO放在内存锁之外
+        spilled.forEach(this::writeToDisk);
+        removeFromDisk(entry.key);
+    }
+
+    private CacheEntry readFromDisk(String key) {
+        if (Objects.isNull(disk)) {
+            return null;
+        }
+        synchronized (disk) {
+            if (!disk.containsKey(key)) {
+                return null;
+            }
+            Path file = fileOf(key);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                CacheEntry entry = CacheEntry.readFrom(in);
+                return key.equals(entry.key) ? entry : null;
+            } catch (IOException e) {
+                log.warn("read cache file fail, {}", file, e);
+                diskBytes -= disk.remove(key);
+                return null;
+            }
+        }
+    }
+
+    private void writeToDisk(CacheEntry entry) {
+        synchronized (disk) {
+            // 在磁盘锁内确认条目没有在溢出期间被删除或替换, 之后的删除一定能看到写入的文件
+            synchronized (this) {
+                if (!spilling.remove(entry.key, entry) || memory.containsKey(entry.key)) {
+                    return;
+                }
+            }
+            Path file = fileOf(entry.key);
+            Path temp = directory.resolve(file.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(directory);
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    entry.writeTo(out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                long size = Files.size(file);
+                Long old = disk.put(entry.key, size);
+                diskBytes += size - (Objects.isNull(old) ? 0 : old);
+                stats.diskSpills.increment();
+            } catch (IOException e) {
+                log.warn("write cache file fail, {}", file, e);
+                return;
+            }
+            Iterator<Map.Entry<String, Long>> iterator = disk.entrySet().iterator();
+            while (diskBytes > config.getMaxDiskBytes() && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                iterator.remove();
+                diskBytes -= eldest.getValue();
+                deleteQuietly(fileOf(eldest.getKey()));
+            }
+        }
+    }
+
+    private void removeFromDisk(String key) {
+        if (Objects.isNull(disk)) {
+            return;
+        }
+        synchronized (disk) {
+            Long size = disk.remove(key);
+            if (Objects.nonNull(size)) {
+                diskBytes -= size;
+                deleteQuietly(fileOf(key));
+            }
+        }
+    }
+
+    /**
+     * 启动时根据目录下已有的缓存文件重建索引, 最近修改的文件视为最近使用
+     */
+    private void loadDiskIndex() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparingLong(p -> p.toFile().lastModified()))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("load cache directory fail, {}", directory, e);
+            return;
+        }
+        synchronized (disk) {
+            for (Path file : files) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    String key = CacheEntry.readKey(in);
+                    if (fileOf(key).equals(file)) {
+                        long size = Files.size(file);
+                        disk.put(key, size);
+                        diskBytes += size;
+                    }
+                } catch (IOException e) {
+                    log.warn("skip broken cache file, {}", file);
+                }
+            }
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + FILE_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+            // ignore
+        }
+    }
+
+    @Data
+    public static class CacheConfig {
+        /**
+         * 内存中缓存的最大字节数(估算值)
+         */
+        private long maxMemoryBytes = 16 * 1024 * 1024;
+
+        /**
+         * 单个响应的最大字节数, 超过的不缓存
+         */
+        private long maxEntryBytes = 1024 * 1024;
+
+        /**
+         * 溢出到磁盘的目录, 为null时不启用磁盘
+         */
+        private String diskDirectory;
+
+        /**
+         * 磁盘缓存的最大字节数
+         */
+        private long maxDiskBytes = 256 * 1024 * 1024;
+    }
+}
@@ -1,35 +1,144 @@
 package com.sym.http.strategy.impl;
 
-import com.google.gson.Gson;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
+import com.sym.http.codec.HttpRequestBody;
+import com.sym.http.codec.QueryStrings;
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.HttpEventListener;
+import com.sym.http.strategy.HttpInstrumentation;
 import com.sym.http.strategy.IHttpStrategy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.poi.util.IOUtils;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.ManagedNHttpClientConnectionFactory;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.protocol.HttpRequestExecutor;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.net.InetAddress;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 使用 apache httpClient 发起Http请求
  * 参考教程地址：https://www.yiibai.com/apache_httpclient
  * <p>
- * 每次请求都重新创建一个 CloseableHttpClient 对象，而不是将一个 CloseableHttpClient 复用多次，
+ * 所有请求共享同一个 CloseableHttpClient 和底层的 {@link PoolingHttpClientConnectionManager},
+ * 连接在响应关闭后归还连接池, 由后台线程定期清理过期和空闲的连接.
+ * 异步请求使用基于NIO的 HttpAsyncClient, 它的连接池({@link PoolingNHttpClientConnectionManager})与同步请求的相互独立,
+ * 但使用相同的上限配置, 同样由后台线程清理, 统计信息和回调包含两个连接池之和. 因此同一个主机的连接数最多是上限的两倍.
+ * <p>
+ * 超时时间、连接保活和重试按目标主机从{@link HttpClientProfiles}中读取, 每次请求时生效;
+ * 单独配置了的主机, 其最大连接数会同步到两个连接池的路由上限, 其余主机使用{@link PoolConfig#getMaxPerRoute()}
+ * <p>
+ * 同步请求的DNS、TCP连接、TLS握手、首字节和响应体耗时都会上报到{@link HttpInstrumentation}, 异步请求只上报响应体和总耗时
  *
  * @author shenyanming
  * Create on 2021/07/08 10:59
  */
-public class ApacheHttpClientStrategy implements IHttpStrategy {
+@Slf4j
+public class ApacheHttpClientStrategy implements IHttpStrategy, Closeable {
+
+
+    private final PoolConfig poolConfig;
+    private final HttpClientProfiles profiles;
+    private final Map<HttpClientProfile, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+    private final Map<HttpRoute, Integer> routeLimits = new ConcurrentHashMap<>();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final ScheduledExecutorService evictor;
+    private volatile CloseableHttpAsyncClient asyncClient;
+    private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
+
+    /**
+     * 连接池统计信息的回调, 每次清理连接之后触发, 可用于上报监控
+     */
+    private volatile Consumer<PoolStats> poolStatsListener;
+
+    public ApacheHttpClientStrategy() {
+        this(new PoolConfig());
+    }
 
-    private Gson gson = new Gson();
+    public ApacheHttpClientStrategy(PoolConfig poolConfig) {
+        this(poolConfig, HttpClientProfiles.getGlobal());
+    }
+
+    public ApacheHttpClientStrategy(PoolConfig poolConfig, HttpClientProfiles profiles) {
+        this.poolConfig = poolConfig;
+        this.profiles = profiles;
+        this.connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new InstrumentedSocketFactory(null))
+                .register("https", new InstrumentedSocketFactory(SSLConnectionSocketFactory.getSocketFactory()))
+                .build(), null, null, dnsResolver(), poolConfig.getTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+        this.connectionManager.setMaxTotal(poolConfig.getMaxTotal());
+        this.connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxPerRoute());
+        this.connectionManager.setValidateAfterInactivity(poolConfig.getValidateAfterInactivityMillis());
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(keepAliveStrategy())
+                .setRetryHandler(retryHandler())
+                .setRequestExecutor(requestExecutor())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(poolConfig.getConnectionRequestTimeoutMillis())
+                        .build())
+                .build();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "apache-http-client-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = poolConfig.getEvictPeriodMillis();
+        this.evictor.scheduleWithFixedDelay(this::evictConnections, period, period, TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public HttpResponse get(HttpRequest httpRequest) {
@@ -51,25 +160,223 @@ public class ApacheHttpClientStrategy implements IHttpStrategy {
         return doRequest(adapterRequest(httpRequest, HttpRequest.HttpMethod.DELETE));
     }
 
-    private HttpResponse doRequest(HttpUriRequest request) {
-        CloseableHttpClient client = HttpClients.createDefault();
+    @Override
+    public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
         CloseableHttpResponse response;
-        InputStream inputStream = null;
-        String data = null;
+        InputStream content;
         try {
-            response = client.execute(request);
+            response = client.execute(adapterRequest(httpRequest, method));
             HttpEntity entity = response.getEntity();
-            inputStream = entity.getContent();
-            byte[] temp = new byte[1024];
-            StringBuilder sb = new StringBuilder();
-            while (inputStream.read(temp) != -1) {
-                sb.append(new String(temp, StandardCharsets.UTF_8));
+            content = Objects.isNull(entity) ? null : entity.getContent();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("execute request fail", e);
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (Header header : response.getAllHeaders()) {
+            headers.putIfAbsent(header.getName(), header.getValue());
+        }
+        // 关闭响应时, 如果响应体已经读完则连接归还连接池, 否则直接断开连接, 不会把剩余的内容读完
+        return new StreamingHttpResponse(response.getStatusLine().getStatusCode(), headers, content, response);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> getAsync(HttpRequest httpRequest) {
+        return doRequestAsync(adapterRequest(httpRequest, HttpRequest.HttpMethod.GET));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> postAsync(HttpRequest httpRequest) {
+        return doRequestAsync(adapterRequest(httpRequest, HttpRequest.HttpMethod.POST));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> putAsync(HttpRequest httpRequest) {
+        return doRequestAsync(adapterRequest(httpRequest, HttpRequest.HttpMethod.PUT));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> deleteAsync(HttpRequest httpRequest) {
+        return doRequestAsync(adapterRequest(httpRequest, HttpRequest.HttpMethod.DELETE));
+    }
+
+    /**
+     * 连接池的整体统计信息: 租用中、空闲、等待获取连接、上限. 用到异步请求后为同步和异步两个连接池之和
+     */
+    public PoolStats getTotalStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        PoolingNHttpClientConnectionManager async = asyncConnectionManager;
+        return Objects.isNull(async) ? stats : sum(stats, async.getTotalStats());
+    }
+
+    /**
+     * 每个路由(目标主机)的统计信息, 用到异步请求后为同步和异步两个连接池之和
+     */
+    public Map<HttpRoute, PoolStats> getRouteStats() {
+        Map<HttpRoute, PoolStats> stats = new HashMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            stats.put(route, connectionManager.getStats(route));
+        }
+        PoolingNHttpClientConnectionManager async = asyncConnectionManager;
+        if (Objects.nonNull(async)) {
+            for (HttpRoute route : async.getRoutes()) {
+                stats.merge(route, async.getStats(route), ApacheHttpClientStrategy::sum);
+            }
+        }
+        return stats;
+    }
+
+    private static PoolStats sum(PoolStats a, PoolStats b) {
+        return new PoolStats(a.getLeased() + b.getLeased(), a.getPending() + b.getPending(),
+                a.getAvailable() + b.getAvailable(), a.getMax() + b.getMax());
+    }
+
+    public void setPoolStatsListener(Consumer<PoolStats> poolStatsListener) {
+        this.poolStatsListener = poolStatsListener;
+    }
+
+    public PoolConfig getPoolConfig() {
+        return poolConfig;
+    }
+
+    @Override
+    public void close() throws IOException {
+        evictor.shutdownNow();
+        client.close();
+        CloseableHttpAsyncClient async = asyncClient;
+        if (Objects.nonNull(async)) {
+            async.close();
+        }
+    }
+
+    /**
+     * 基于NIO的异步客户端, 少量IO线程即可承载大量并发请求. 只有用到异步请求时才会创建并启动,
+     * 连接池使用与同步请求相同的上限, 并补上已经同步过的主机路由上限
+     */
+    private CloseableHttpAsyncClient getAsyncClient() {
+        CloseableHttpAsyncClient async = asyncClient;
+        if (Objects.isNull(async)) {
+            synchronized (this) {
+                async = asyncClient;
+                if (Objects.isNull(async)) {
+                    PoolingNHttpClientConnectionManager manager;
+                    try {
+                        manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT),
+                                ManagedNHttpClientConnectionFactory.INSTANCE, RegistryBuilder.<SchemeIOSessionStrategy>create()
+                                .register("http", NoopIOSessionStrategy.INSTANCE)
+                                .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                                .build(), DefaultSchemePortResolver.INSTANCE, SystemDefaultDnsResolver.INSTANCE,
+                                poolConfig.getTimeToLiveMillis(), TimeUnit.MILLISECONDS);
+                    } catch (IOReactorException e) {
+                        throw new IllegalStateException("create async connection manager fail", e);
+                    }
+                    manager.setMaxTotal(poolConfig.getMaxTotal());
+                    manager.setDefaultMaxPerRoute(poolConfig.getMaxPerRoute());
+                    routeLimits.forEach(manager::setMaxPerRoute);
+                    async = HttpAsyncClients.custom()
+                            .setConnectionManager(manager)
+                            .setKeepAliveStrategy(keepAliveStrategy())
+                            .setDefaultRequestConfig(RequestConfig.custom()
+                                    .setConnectionRequestTimeout(poolConfig.getConnectionRequestTimeoutMillis())
+                                    .build())
+                            .build();
+                    async.start();
+                    asyncConnectionManager = manager;
+                    asyncClient = async;
+                }
+            }
+        }
+        return async;
+    }
+
+    private CompletableFuture<HttpResponse> doRequestAsync(HttpUriRequest request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        String host = request.getURI().getHost();
+        long start = System.nanoTime();
+        Future<org.apache.http.HttpResponse> execution;
+        try {
+            execution = getAsyncClient().execute(request, new FutureCallback<org.apache.http.HttpResponse>() {
+                @Override
+                public void completed(org.apache.http.HttpResponse result) {
+                    try {
+                        HttpResponse httpResponse = toHttpResponse(result, host);
+                        HttpInstrumentation.responded(host, httpResponse.getStatusCode(), start);
+                        future.complete(httpResponse);
+                    } catch (Exception e) {
+                        HttpInstrumentation.failed(host, e, start);
+                        future.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    HttpInstrumentation.failed(host, ex, start);
+                    future.completeExceptionally(new IllegalArgumentException("execute request fail", ex));
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 客户端已经关闭(IO reactor 停止)时会直接抛出异常, 同样通过 future 返回
+            HttpInstrumentation.failed(host, e, start);
+            future.completeExceptionally(new IllegalStateException("execute request fail", e));
+            return future;
+        }
+        // 调用方取消 future 时同时取消底层请求
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                execution.cancel(true);
             }
-            data = sb.toString();
+        });
+        return future;
+    }
+
+    private void evictConnections() {
+        try {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(poolConfig.getMaxIdleMillis(), TimeUnit.MILLISECONDS);
+            PoolingNHttpClientConnectionManager async = asyncConnectionManager;
+            if (Objects.nonNull(async)) {
+                async.closeExpiredConnections();
+                async.closeIdleConnections(poolConfig.getMaxIdleMillis(), TimeUnit.MILLISECONDS);
+            }
+            Consumer<PoolStats> listener = poolStatsListener;
+            if (Objects.nonNull(listener)) {
+                listener.accept(getTotalStats());
+            }
+        } catch (Exception e) {
+            // 不能让异常终止定时任务
+            log.warn("evict connections fail", e);
+        }
+    }
+
+    private HttpResponse doRequest(HttpUriRequest request) {
+        String host = request.getURI().getHost();
+        long start = System.nanoTime();
+        // 必须关闭响应, 连接才会归还到连接池
+        try (CloseableHttpResponse response = client.execute(request)) {
+            HttpResponse httpResponse = toHttpResponse(response, host);
+            HttpInstrumentation.responded(host, httpResponse.getStatusCode(), start);
+            return httpResponse;
         } catch (IOException e) {
+            HttpInstrumentation.failed(host, e, start);
             throw new IllegalArgumentException("execute request fail", e);
-        } finally {
-            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    private HttpResponse toHttpResponse(org.apache.http.HttpResponse response, String host) throws IOException {
+        HttpEntity entity = response.getEntity();
+        String data = null;
+        if (Objects.nonNull(entity)) {
+            Header contentType = entity.getContentType();
+            long start = System.nanoTime();
+            try (InputStream inputStream = entity.getContent()) {
+                data = ResponseBodyReader.read(inputStream, entity.getContentLength(),
+                        Objects.isNull(contentType) ? null : contentType.getValue());
+            }
+            HttpInstrumentation.phase(host, HttpEventListener.Phase.BODY, start);
         }
         HttpResponse httpResponse = new HttpResponse();
         // 响应状态
@@ -79,33 +386,238 @@ public class ApacheHttpClientStrategy implements IHttpStrategy {
         httpResponse.setStatus(status);
         // 数据
         httpResponse.setData(data);
+        httpResponse.setStatusCode(response.getStatusLine().getStatusCode());
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : response.getAllHeaders()) {
+            headers.merge(header.getName(), header.getValue(), (v1, v2) -> v1 + ", " + v2);
+        }
+        httpResponse.setHeaders(headers);
         return httpResponse;
     }
 
     private HttpUriRequest adapterRequest(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
+        HttpRequestBase request;
+        String url = QueryStrings.urlOf(httpRequest, method);
         switch (method) {
             case GET:
-                return new HttpGet(httpRequest.getUrl());
+                request = new HttpGet(url);
+                break;
             case POST:
-                HttpPost httpPost = new HttpPost(httpRequest.getUrl());
-                StringEntity stringEntity = new StringEntity(toJson(httpRequest.getParameters()), "UTF-8");
-                httpPost.setEntity(stringEntity);
-                return httpPost;
+                HttpPost httpPost = new HttpPost(url);
+                httpPost.setEntity(toEntity(HttpRequestBody.of(httpRequest, method)));
+                request = httpPost;
+                break;
             case PUT:
-                HttpPut httpPut = new HttpPut(httpRequest.getUrl());
-                httpPut.setEntity(new StringEntity(toJson(httpRequest.getParameters()), "UTF-8"));
-                return httpPut;
+                HttpPut httpPut = new HttpPut(url);
+                httpPut.setEntity(toEntity(HttpRequestBody.of(httpRequest, method)));
+                request = httpPut;
+                break;
             case DELETE:
-                return new HttpDelete(httpRequest.getUrl());
+                request = new HttpDelete(url);
+                break;
             default:
                 throw new IllegalArgumentException("invalid request method");
         }
+        String host = request.getURI().getHost();
+        HttpClientProfile profile = profiles.getProfile(host);
+        request.setConfig(requestConfigOf(profile));
+        if (!profile.isKeepAlive()) {
+            request.setHeader("Connection", "close");
+        }
+        if (profile != profiles.getDefaultProfile()) {
+            applyRouteLimit(request, profile.getMaxConnections());
+        }
+        Map<String, String> headers = httpRequest.getHeaders();
+        if (Objects.nonNull(headers)) {
+            headers.forEach(request::setHeader);
+        }
+        return request;
+    }
+
+    /**
+     * 配置对应的 RequestConfig, 以配置的副本作为key, 配置热更新修改原对象后不会影响已缓存的key
+     */
+    private RequestConfig requestConfigOf(HttpClientProfile profile) {
+        RequestConfig requestConfig = requestConfigs.get(profile);
+        if (Objects.isNull(requestConfig)) {
+            if (requestConfigs.size() >= 64) {
+                // 配置多次变更后, 旧配置对应的 RequestConfig 不会再被用到
+                requestConfigs.clear();
+            }
+            requestConfig = requestConfigs.computeIfAbsent(profile.copy(), this::toRequestConfig);
+        }
+        return requestConfig;
+    }
+
+    private RequestConfig toRequestConfig(HttpClientProfile profile) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(poolConfig.getConnectionRequestTimeoutMillis())
+                .setConnectTimeout(profile.getConnectTimeoutMillis())
+                .setSocketTimeout(profile.getReadTimeoutMillis())
+                .build();
+    }
+
+    /**
+     * 把主机的最大连接数同步到同步和异步的连接池, 路由与 DefaultRoutePlanner 的计算方式保持一致
+     */
+    private void applyRouteLimit(HttpUriRequest request, int maxConnections) {
+        HttpHost target = new HttpHost(request.getURI().getHost(), request.getURI().getPort(), request.getURI().getScheme());
+        boolean secure = "https".equalsIgnoreCase(target.getSchemeName());
+        if (target.getPort() <= 0) {
+            target = new HttpHost(target.getHostName(), secure ? 443 : 80, target.getSchemeName());
+        }
+        HttpRoute route = new HttpRoute(target, null, secure);
+        Integer applied = routeLimits.get(route);
+        if (Objects.isNull(applied) || applied != maxConnections) {
+            routeLimits.put(route, maxConnections);
+            connectionManager.setMaxPerRoute(route, maxConnections);
+            // 与创建异步连接池互斥, 不会漏掉正在创建的连接池
+            synchronized (this) {
+                PoolingNHttpClientConnectionManager async = asyncConnectionManager;
+                if (Objects.nonNull(async)) {
+                    async.setMaxPerRoute(route, maxConnections);
+                }
+            }
+        }
+    }
+
+    /**
+     * 空闲连接的保活时间取服务端 Keep-Alive 头与主机配置中较小的一个
+     */
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        return (response, context) -> {
+            long server = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+            long local = profiles.getProfile(Objects.isNull(target) ? null : target.getHostName()).getKeepAliveMillis();
+            return server > 0 ? Math.min(server, local) : local;
+        };
+    }
+
+    /**
+     * 统计域名解析的耗时
+     */
+    private static DnsResolver dnsResolver() {
+        return host -> {
+            long start = System.nanoTime();
+            InetAddress[] addresses = SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            HttpInstrumentation.phase(host, HttpEventListener.Phase.DNS, start);
+            return addresses;
+        };
+    }
+
+    /**
+     * 统计请求发出后到收到响应头的耗时, 目标主机从上下文中读取, 不需要创建对象
+     */
+    private static HttpRequestExecutor requestExecutor() {
+        return new HttpRequestExecutor() {
+            @Override
+            protected org.apache.http.HttpResponse doReceiveResponse(org.apache.http.HttpRequest request,
+                                                                     HttpClientConnection conn, HttpContext context)
+                    throws HttpException, IOException {
+                long start = System.nanoTime();
+                org.apache.http.HttpResponse response = super.doReceiveResponse(request, conn, context);
+                Object target = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+                if (target instanceof HttpHost) {
+                    HttpInstrumentation.phase(((HttpHost) target).getHostName(), HttpEventListener.Phase.TTFB, start);
+                }
+                return response;
+            }
+        };
+    }
+
+    /**
+     * 按主机配置决定是否重试, 具体哪些异常可以重试沿用 {@link DefaultHttpRequestRetryHandler} 的判断
+     */
+    private HttpRequestRetryHandler retryHandler() {
+        HttpRequestRetryHandler unsent = new DefaultHttpRequestRetryHandler(1, false);
+        HttpRequestRetryHandler sent = new DefaultHttpRequestRetryHandler(1, true);
+        return (exception, executionCount, context) -> {
+            HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+            HttpClientProfile profile = profiles.getProfile(Objects.isNull(target) ? null : target.getHostName());
+            if (executionCount > profile.getMaxRetries()) {
+                return false;
+            }
+            return (profile.isRetryRequestSent() ? sent : unsent).retryRequest(exception, 1, context);
+        };
     }
 
-    private String toJson(Map<String, String> params) {
-        if (Objects.isNull(params)) {
-            params = new HashMap<>();
+    /**
+     * 请求体在发送时直接写入连接的输出流, 长度未知时以 chunked 方式发送
+     */
+    private static HttpEntity toEntity(HttpRequestBody body) {
+        if (Objects.isNull(body)) {
+            return null;
         }
-        return gson.toJson(params);
+        AbstractHttpEntity entity = new AbstractHttpEntity() {
+            @Override
+            public boolean isRepeatable() {
+                return body.isRepeatable();
+            }
+
+            @Override
+            public long getContentLength() {
+                return body.contentLength();
+            }
+
+            @Override
+            public InputStream getContent() throws IOException {
+                // 异步客户端通过这个方法拉取请求体
+                return body.openStream();
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                body.writeTo(out);
+            }
+
+            @Override
+            public boolean isStreaming() {
+                return !body.isRepeatable();
+            }
+        };
+        entity.setContentType(body.contentType());
+        entity.setChunked(body.contentLength() < 0);
+        return entity;
+    }
+
+    /**
+     * 连接池配置
+     */
+    @Data
+    public static class PoolConfig {
+        /**
+         * 连接池最大连接数
+         */
+        private int maxTotal = 200;
+
+        /**
+         * 每个路由(目标主机)的最大连接数
+         */
+        private int maxPerRoute = 20;
+
+        /**
+         * 从连接池获取连接的超时时间
+         */
+        private int connectionRequestTimeoutMillis = 5000;
+
+        /**
+         * 连接空闲超过该时间后, 再次使用前需要校验是否可用
+         */
+        private int validateAfterInactivityMillis = 2000;
+
+        /**
+         * 连接的最长存活时间, -1表示不限制
+         */
+        private long timeToLiveMillis = -1;
+
+        /**
+         * 空闲超过该时间的连接会被关闭
+         */
+        private long maxIdleMillis = 30000;
+
+        /**
+         * 清理连接的周期
+         */
+        private long evictPeriodMillis = 5000;
     }
 }
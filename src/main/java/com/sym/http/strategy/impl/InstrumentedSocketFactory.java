@@ -0,0 +1,69 @@
+package com.sym.http.strategy.impl;
+
+import com.sym.http.strategy.HttpEventListener;
+import com.sym.http.strategy.HttpInstrumentation;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Objects;
+
+/**
+ * Apache HttpClient 的连接工厂, 分别统计TCP连接和TLS握手的耗时.
+ * 先用{@link PlainConnectionSocketFactory}建立TCP连接, HTTPS 再交给原来的 TLS 工厂在这个连接上握手,
+ * 与{@link org.apache.http.conn.ssl.SSLConnectionSocketFactory#connectSocket}的做法一致
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class InstrumentedSocketFactory implements LayeredConnectionSocketFactory {
+
+    private final ConnectionSocketFactory plain = PlainConnectionSocketFactory.getSocketFactory();
+
+    /**
+     * HTTP 时为null
+     */
+    private final LayeredConnectionSocketFactory tls;
+
+    InstrumentedSocketFactory(LayeredConnectionSocketFactory tls) {
+        this.tls = tls;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return plain.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        long start = System.nanoTime();
+        Socket connected = plain.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        HttpInstrumentation.phase(host.getHostName(), HttpEventListener.Phase.CONNECT, start);
+        if (Objects.isNull(tls)) {
+            return connected;
+        }
+        start = System.nanoTime();
+        try {
+            Socket secured = tls.createLayeredSocket(connected, host.getHostName(), remoteAddress.getPort(), context);
+            HttpInstrumentation.phase(host.getHostName(), HttpEventListener.Phase.TLS, start);
+            return secured;
+        } catch (IOException | RuntimeException e) {
+            connected.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+        if (Objects.isNull(tls)) {
+            throw new IllegalStateException("plain socket factory can not create layered socket");
+        }
+        return tls.createLayeredSocket(socket, target, port, context);
+    }
+}
@@ -1,25 +1,34 @@
 package com.sym.http.strategy.impl;
 
-import com.google.gson.Gson;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
+import com.sym.http.codec.HttpRequestBody;
+import com.sym.http.codec.QueryStrings;
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.HttpEventListener;
+import com.sym.http.strategy.HttpInstrumentation;
 import com.sym.http.strategy.IHttpStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.util.IOUtils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 /**
- * JDK api
+ * JDK api.
+ * 超时时间和是否复用连接按目标主机从{@link HttpClientProfiles}中读取,
+ * 建立连接、等待响应和读取响应体的耗时上报到{@link HttpInstrumentation}
  *
  * @author shenyanming
  * Create on 2021/07/08 10:11
@@ -27,7 +36,15 @@ import java.util.Objects;
 @Slf4j
 public class JdkHttpStrategy implements IHttpStrategy {
 
-    private Gson gson = new Gson();
+    private final HttpClientProfiles profiles;
+
+    public JdkHttpStrategy() {
+        this(HttpClientProfiles.getGlobal());
+    }
+
+    public JdkHttpStrategy(HttpClientProfiles profiles) {
+        this.profiles = profiles;
+    }
 
     @Override
     public HttpResponse get(HttpRequest httpRequest) {
@@ -49,19 +66,60 @@ public class JdkHttpStrategy implements IHttpStrategy {
         return doRequest(httpRequest, HttpRequest.HttpMethod.DELETE);
     }
 
+    @Override
+    public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
+        HttpURLConnection conn = openAndSetRequestMethod(QueryStrings.urlOf(httpRequest, method), method);
+        connect(conn, httpRequest, method);
+        try {
+            int code = conn.getResponseCode();
+            InputStream body = code < HttpURLConnection.HTTP_BAD_REQUEST ? conn.getInputStream() : conn.getErrorStream();
+            Map<String, String> headers = new HashMap<>();
+            conn.getHeaderFields().forEach((name, values) -> {
+                // 状态行对应的key为null
+                if (Objects.nonNull(name) && Objects.nonNull(values) && !values.isEmpty()) {
+                    headers.put(name, values.get(0));
+                }
+            });
+            // 读完后关闭流, HttpURLConnection 会复用底层socket; 未读完就关闭则会断开连接
+            return new StreamingHttpResponse(code, headers, body, null);
+        } catch (IOException e) {
+            throw new RuntimeException("handle response fail", e);
+        }
+    }
+
     private HttpResponse doRequest(HttpRequest request, HttpRequest.HttpMethod method) {
-        HttpURLConnection conn = openAndSetRequestMethod(request.getUrl(), method);
+        HttpURLConnection conn = openAndSetRequestMethod(QueryStrings.urlOf(request, method), method);
+        String host = conn.getURL().getHost();
+        long start = System.nanoTime();
+        try {
+            connect(conn, request, method);
+            // 处理请求结果
+            HttpResponse response = handleResponse(conn);
+            HttpInstrumentation.responded(host, response.getStatusCode(), start);
+            return response;
+        } catch (RuntimeException e) {
+            HttpInstrumentation.failed(host, e, start);
+            throw e;
+        }
+    }
+
+    /**
+     * HttpURLConnection 无法单独观测DNS和TLS, 上报的 CONNECT 包含了它们; 复用连接时 connect() 几乎不耗时
+     */
+    private void connect(HttpURLConnection conn, HttpRequest request, HttpRequest.HttpMethod method) {
         configConnection(conn);
         setHeaders(conn, request);
-        setParameters(conn, request, method);
+        HttpRequestBody body = HttpRequestBody.of(request, method);
+        prepareBody(conn, body);
+        long start = System.nanoTime();
         try {
             // 开启连接
             conn.connect();
         } catch (IOException e) {
             throw new RuntimeException("connect fail", e);
         }
-        // 处理请求结果
-        return handleResponse(conn);
+        HttpInstrumentation.phase(conn.getURL().getHost(), HttpEventListener.Phase.CONNECT, start);
+        writeBody(conn, body);
     }
 
 
@@ -81,11 +139,12 @@ public class JdkHttpStrategy implements IHttpStrategy {
     }
 
     private void configConnection(HttpURLConnection connection) {
-        // TODO instead of config
-        connection.setConnectTimeout(60000);
-        connection.setReadTimeout(60000);
+        HttpClientProfile profile = profiles.getProfile(connection.getURL().getHost());
+        connection.setConnectTimeout(profile.getConnectTimeoutMillis());
+        connection.setReadTimeout(profile.getReadTimeoutMillis());
+        // 通过设置 Connection: Keep-Alive 来复用底层socket
+        connection.setRequestProperty("Connection", profile.isKeepAlive() ? "Keep-Alive" : "close");
         connection.setDoInput(true);
-        connection.setDoOutput(true);
     }
 
     private void setHeaders(HttpURLConnection conn, HttpRequest request) {
@@ -93,54 +152,73 @@ public class JdkHttpStrategy implements IHttpStrategy {
         if (Objects.isNull(headers) || headers.isEmpty()) {
             return;
         }
-        // 通过设置 Connection: Keep-Alive 来复用底层socket
-        conn.setRequestProperty("Connection", "Keep-Alive");
         headers.forEach(conn::setRequestProperty);
     }
 
-    private void setParameters(HttpURLConnection conn, HttpRequest request, HttpRequest.HttpMethod method) {
-        Map<String, String> parameters = request.getParameters();
-        if (!HttpRequest.HttpMethod.shouldJson.contains(method)) {
+    /**
+     * 以流模式写入请求体, 长度已知时用 Content-Length, 否则用 chunked, 避免 HttpURLConnection 在内存中缓冲整个请求体.
+     * 流模式必须在建立连接之前设置
+     */
+    private void prepareBody(HttpURLConnection conn, HttpRequestBody body) {
+        if (Objects.isNull(body)) {
             return;
         }
-        if (Objects.isNull(parameters) || parameters.isEmpty()) {
+        conn.setDoOutput(true);
+        conn.setRequestProperty("Content-Type", body.contentType());
+        if (body.contentLength() >= 0) {
+            conn.setFixedLengthStreamingMode(body.contentLength());
+        } else {
+            conn.setChunkedStreamingMode(0);
+        }
+    }
+
+    private void writeBody(HttpURLConnection conn, HttpRequestBody body) {
+        if (Objects.isNull(body)) {
             return;
         }
-        try (PrintWriter printWriter = new PrintWriter(conn.getOutputStream())) {
-            printWriter.println(gson.toJson(parameters));
-            printWriter.flush();
+        try (OutputStream out = conn.getOutputStream()) {
+            body.writeTo(out);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException("write request body fail", e);
         }
     }
 
     private HttpResponse handleResponse(HttpURLConnection conn) {
-        BufferedReader bufferedReader = null;
         HttpResponse.RequestStatus status;
-        StringBuilder sb = new StringBuilder();
+        String data;
+        int code;
+        InputStream body = null;
+        String host = conn.getURL().getHost();
         try {
-            int code = conn.getResponseCode();
-
-            if (code == 200) {
-                status = HttpResponse.RequestStatus.SUCCESS;
-                bufferedReader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            } else {
-                //请求失败
-                status = HttpResponse.RequestStatus.FAILURE;
-                bufferedReader = new BufferedReader(new InputStreamReader(conn.getErrorStream()));
-            }
-            String line;
-            while ((line = bufferedReader.readLine()) != null) {
-                sb.append(line);
-            }
+            long start = System.nanoTime();
+            code = conn.getResponseCode();
+            HttpInstrumentation.phase(host, HttpEventListener.Phase.TTFB, start);
+            status = code == HttpURLConnection.HTTP_OK ?
+                    HttpResponse.RequestStatus.SUCCESS :
+                    //请求失败
+                    HttpResponse.RequestStatus.FAILURE;
+            // 没有响应体时 getErrorStream() 返回null
+            body = code < HttpURLConnection.HTTP_BAD_REQUEST ? conn.getInputStream() : conn.getErrorStream();
+            start = System.nanoTime();
+            data = ResponseBodyReader.read(body, conn.getContentLengthLong(), conn.getContentType());
+            HttpInstrumentation.phase(host, HttpEventListener.Phase.BODY, start);
         } catch (IOException e) {
             throw new RuntimeException("handle response fail", e);
         } finally {
-            IOUtils.closeQuietly(bufferedReader);
+            IOUtils.closeQuietly(body);
         }
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        conn.getHeaderFields().forEach((name, values) -> {
+            // 状态行对应的key为null
+            if (Objects.nonNull(name) && Objects.nonNull(values) && !values.isEmpty()) {
+                headers.put(name, String.join(", ", values));
+            }
+        });
         HttpResponse response = new HttpResponse();
         response.setStatus(status);
-        response.setData(sb.toString());
+        response.setData(data);
+        response.setStatusCode(code);
+        response.setHeaders(headers);
         return response;
     }
 }
@@ -1,24 +1,56 @@
 package com.sym.http.strategy.impl;
 
-import com.google.gson.Gson;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
+import com.sym.http.codec.HttpRequestBody;
+import com.sym.http.codec.QueryStrings;
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.HttpInstrumentation;
 import com.sym.http.strategy.IHttpStrategy;
 import okhttp3.*;
+import okio.BufferedSink;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * 超时时间、是否复用连接和是否重试按目标主机从{@link HttpClientProfiles}中读取,
+ * 每种配置通过{@link OkHttpClient#newBuilder()}派生出一个客户端, 它们共享同一个连接池和 Dispatcher 的线程池;
+ * 每个派生的客户端有自己的 Dispatcher, 异步请求对每个主机的并发数不超过配置中的{@link HttpClientProfile#getMaxConcurrentRequests()}.
+ * 各阶段的耗时通过 OkHttp 的{@link EventListener}上报到{@link HttpInstrumentation}
+ *
  * @author shenyanming
  * Create on 2021/07/08 10:59
  */
-public class OkClientStrategy implements IHttpStrategy {
+public class OkClientStrategy implements IHttpStrategy, Closeable {
 
-    private OkHttpClient client = initAndConfigClient();
-    private Gson gson = new Gson();
+    private static final int MAX_DERIVED_CLIENTS = 64;
+    /**
+     * 每个 Dispatcher 同时执行的异步请求数上限
+     */
+    private static final int MAX_REQUESTS = 256;
+
+    private final HttpClientProfiles profiles;
+    private final OkHttpClient client;
+    private final Map<HttpClientProfile, OkHttpClient> derivedClients = new ConcurrentHashMap<>();
+
+    public OkClientStrategy() {
+        this(HttpClientProfiles.getGlobal());
+    }
+
+    public OkClientStrategy(HttpClientProfiles profiles) {
+        this.profiles = profiles;
+        this.client = initAndConfigClient();
+    }
 
     @Override
     public HttpResponse get(HttpRequest httpRequest) {
@@ -40,32 +72,166 @@ public class OkClientStrategy implements IHttpStrategy {
         return doRequest(buildRequest(httpRequest, HttpRequest.HttpMethod.DELETE));
     }
 
-    private HttpResponse doRequest(Request request) {
+    @Override
+    public CompletableFuture<HttpResponse> getAsync(HttpRequest httpRequest) {
+        return doRequestAsync(buildRequest(httpRequest, HttpRequest.HttpMethod.GET));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> postAsync(HttpRequest httpRequest) {
+        return doRequestAsync(buildRequest(httpRequest, HttpRequest.HttpMethod.POST));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> putAsync(HttpRequest httpRequest) {
+        return doRequestAsync(buildRequest(httpRequest, HttpRequest.HttpMethod.PUT));
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> deleteAsync(HttpRequest httpRequest) {
+        return doRequestAsync(buildRequest(httpRequest, HttpRequest.HttpMethod.DELETE));
+    }
+
+    @Override
+    public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
         Response response;
-        String data = null;
         try {
-            response = client.newCall(request).execute();
-            ResponseBody body = response.body();
-            if (Objects.nonNull(body)) {
-                data = body.string();
-            }
+            Request request = buildRequest(httpRequest, method);
+            response = clientOf(request).newCall(request).execute();
         } catch (IOException e) {
             throw new RuntimeException("execute request fail", e);
         }
+        Map<String, String> headers = new HashMap<>();
+        Headers responseHeaders = response.headers();
+        for (int i = 0, size = responseHeaders.size(); i < size; i++) {
+            headers.putIfAbsent(responseHeaders.name(i), responseHeaders.value(i));
+        }
+        ResponseBody body = response.body();
+        return new StreamingHttpResponse(response.code(), headers,
+                Objects.isNull(body) ? null : body.byteStream(), response);
+    }
+
+    /**
+     * 关闭 Dispatcher 的线程池并断开空闲连接, 之后的异步请求以异常结束
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    private HttpResponse doRequest(Request request) {
+        String host = request.url().host();
+        long start = System.nanoTime();
+        try (Response response = clientOf(request).newCall(request).execute()) {
+            HttpResponse httpResponse = toHttpResponse(response);
+            HttpInstrumentation.responded(host, httpResponse.getStatusCode(), start);
+            return httpResponse;
+        } catch (IOException e) {
+            HttpInstrumentation.failed(host, e, start);
+            throw new RuntimeException("execute request fail", e);
+        }
+    }
+
+    /**
+     * 通过 {@link Call#enqueue(Callback)} 交给 OkHttp 的 Dispatcher 调度, 调用方线程不会阻塞
+     */
+    private CompletableFuture<HttpResponse> doRequestAsync(Request request) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        String host = request.url().host();
+        long start = System.nanoTime();
+        Call call = clientOf(request).newCall(request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                HttpInstrumentation.failed(host, e, start);
+                future.completeExceptionally(new RuntimeException("execute request fail", e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    HttpResponse httpResponse = toHttpResponse(r);
+                    HttpInstrumentation.responded(host, httpResponse.getStatusCode(), start);
+                    future.complete(httpResponse);
+                } catch (Exception e) {
+                    HttpInstrumentation.failed(host, e, start);
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        // 调用方取消 future 时同时取消底层请求
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private HttpResponse toHttpResponse(Response response) throws IOException {
+        String data = null;
+        ResponseBody body = response.body();
+        if (Objects.nonNull(body)) {
+            data = body.string();
+        }
         HttpResponse.RequestStatus status = response.isSuccessful() ?
                 HttpResponse.RequestStatus.SUCCESS :
                 HttpResponse.RequestStatus.FAILURE;
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Headers responseHeaders = response.headers();
+        for (int i = 0, size = responseHeaders.size(); i < size; i++) {
+            headers.merge(responseHeaders.name(i), responseHeaders.value(i), (v1, v2) -> v1 + ", " + v2);
+        }
         HttpResponse httpResponse = new HttpResponse();
         httpResponse.setStatus(status);
         httpResponse.setData(data);
+        httpResponse.setStatusCode(response.code());
+        httpResponse.setHeaders(headers);
         return httpResponse;
     }
 
     private OkHttpClient initAndConfigClient() {
-        // TODO instead of configuration
-        return new OkHttpClient.Builder()
-                .readTimeout(1, TimeUnit.MINUTES)
-                .callTimeout(1, TimeUnit.MINUTES)
+        // 异步请求由 Dispatcher 调度, 默认每个主机最多只有5个并发, 按配置放宽
+        HttpClientProfile profile = profiles.getDefaultProfile();
+        return applyProfile(new OkHttpClient.Builder()
+                .dispatcher(dispatcherOf(new Dispatcher(), profile))
+                .eventListener(OkHttpEventAdapter.INSTANCE), profile);
+    }
+
+    /**
+     * Dispatcher 的每主机并发上限只有一个值, 所以每种配置使用单独的 Dispatcher, 共用同一个线程池
+     */
+    private static Dispatcher dispatcherOf(Dispatcher dispatcher, HttpClientProfile profile) {
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(Math.max(1, profile.getMaxConcurrentRequests()));
+        return dispatcher;
+    }
+
+    /**
+     * 目标主机对应的客户端, 配置相同的主机共用同一个客户端; 配置热更新后自然会派生出新的客户端
+     */
+    private OkHttpClient clientOf(Request request) {
+        HttpClientProfile profile = profiles.getProfile(request.url().host());
+        OkHttpClient derived = derivedClients.get(profile);
+        if (Objects.isNull(derived)) {
+            if (derivedClients.size() >= MAX_DERIVED_CLIENTS) {
+                // 配置多次变更后, 旧配置对应的客户端不会再被用到
+                derivedClients.clear();
+            }
+            derived = derivedClients.computeIfAbsent(profile.copy(), p -> applyProfile(client.newBuilder()
+                    .dispatcher(dispatcherOf(new Dispatcher(client.dispatcher().executorService()), p)), p));
+        }
+        return derived;
+    }
+
+    private static OkHttpClient applyProfile(OkHttpClient.Builder builder, HttpClientProfile profile) {
+        return builder
+                .connectTimeout(profile.getConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(profile.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .writeTimeout(profile.getReadTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .callTimeout(profile.getCallTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(profile.getMaxRetries() > 0)
                 .build();
     }
 
@@ -76,10 +242,10 @@ public class OkClientStrategy implements IHttpStrategy {
                 builder = new Request.Builder().get();
                 break;
             case POST:
-                builder = new Request.Builder().post(buildRequestBody(httpRequest));
+                builder = new Request.Builder().post(buildRequestBody(httpRequest, method));
                 break;
             case PUT:
-                builder = new Request.Builder().put(buildRequestBody(httpRequest));
+                builder = new Request.Builder().put(buildRequestBody(httpRequest, method));
                 break;
             case DELETE:
                 builder = new Request.Builder().delete();
@@ -87,7 +253,11 @@ public class OkClientStrategy implements IHttpStrategy {
             default:
                 throw new IllegalArgumentException("invalid method");
         }
-        builder.url(httpRequest.getUrl());
+        HttpUrl url = HttpUrl.get(QueryStrings.urlOf(httpRequest, method));
+        builder.url(url);
+        if (!profiles.getProfile(url.host()).isKeepAlive()) {
+            builder.header("Connection", "close");
+        }
         // set headers
         Map<String, String> headers = httpRequest.getHeaders();
         if (Objects.nonNull(headers) && !headers.isEmpty()) {
@@ -96,8 +266,30 @@ public class OkClientStrategy implements IHttpStrategy {
         return builder.build();
     }
 
-    private RequestBody buildRequestBody(HttpRequest request) {
-        return RequestBody.create(MediaType.get("application/json"),
-                gson.toJson(request.getParameters()));
+    /**
+     * 请求体直接写入 OkHttp 的 sink, 长度未知时以 chunked 方式发送
+     */
+    private RequestBody buildRequestBody(HttpRequest request, HttpRequest.HttpMethod method) {
+        HttpRequestBody body = HttpRequestBody.of(request, method);
+        if (Objects.isNull(body)) {
+            return RequestBody.create(null, new byte[0]);
+        }
+        MediaType contentType = MediaType.parse(body.contentType());
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return contentType;
+            }
+
+            @Override
+            public long contentLength() {
+                return body.contentLength();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                body.writeTo(sink.outputStream());
+            }
+        };
     }
 }
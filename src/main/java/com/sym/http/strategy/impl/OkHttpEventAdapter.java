@@ -0,0 +1,118 @@
+package com.sym.http.strategy.impl;
+
+import com.sym.http.strategy.HttpEventListener;
+import com.sym.http.strategy.HttpInstrumentation;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 把 OkHttp 的{@link EventListener}事件转换为{@link HttpInstrumentation}的阶段耗时.
+ * 所有客户端共用一个实例; 同一个请求的各个阶段都在同一个线程上触发(异步请求在 Dispatcher 的线程上),
+ * 所以各阶段的开始时间保存在线程本地的数组中, 不需要为每个请求创建对象
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class OkHttpEventAdapter extends EventListener {
+
+    static final OkHttpEventAdapter INSTANCE = new OkHttpEventAdapter();
+
+    private static final ThreadLocal<long[]> STARTS = ThreadLocal.withInitial(
+            () -> new long[HttpEventListener.Phase.values().length]);
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        start(HttpEventListener.Phase.DNS);
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        end(call, HttpEventListener.Phase.DNS);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        start(HttpEventListener.Phase.CONNECT);
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        // TCP连接建立后才开始TLS握手, CONNECT 只统计TCP部分
+        end(call, HttpEventListener.Phase.CONNECT);
+        start(HttpEventListener.Phase.TLS);
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        end(call, HttpEventListener.Phase.TLS);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        end(call, HttpEventListener.Phase.CONNECT);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+                              IOException ioe) {
+        clear(HttpEventListener.Phase.CONNECT);
+        clear(HttpEventListener.Phase.TLS);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        start(HttpEventListener.Phase.TTFB);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        end(call, HttpEventListener.Phase.TTFB);
+    }
+
+    @Override
+    public void responseBodyStart(Call call) {
+        start(HttpEventListener.Phase.BODY);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        end(call, HttpEventListener.Phase.BODY);
+    }
+
+    private static void start(HttpEventListener.Phase phase) {
+        if (HttpInstrumentation.isEnabled()) {
+            STARTS.get()[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    /**
+     * 开始时间为0说明开始事件发生在监听器注册之前, 或者已经上报过
+     */
+    private static void end(Call call, HttpEventListener.Phase phase) {
+        if (!HttpInstrumentation.isEnabled()) {
+            return;
+        }
+        long[] starts = STARTS.get();
+        long start = starts[phase.ordinal()];
+        if (start != 0) {
+            starts[phase.ordinal()] = 0;
+            Request request = call.request();
+            HttpInstrumentation.phase(request.url().host(), phase, start);
+        }
+    }
+
+    private static void clear(HttpEventListener.Phase phase) {
+        if (HttpInstrumentation.isEnabled()) {
+            STARTS.get()[phase.ordinal()] = 0;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sym.http.strategy.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 响应体读取工具, 供各个HTTP策略共用.
+ * <p>
+ * 1. 已知 Content-Length 时按长度预先分配(最多{@link #MAX_PREALLOCATE_SIZE}, 不完全信任服务端声明的长度), 不够时再按需扩容;
+ * 2. 先把所有字节读完再按 Content-Type 中的 charset 一次性解码, 不会在分块边界上截断多字节字符;
+ * 3. 读取用的字节数组按线程复用, 超过上限的大响应不缓存
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+final class ResponseBodyReader {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final int MAX_CACHED_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_PREALLOCATE_SIZE = 1024 * 1024;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final ThreadLocal<byte[]> BUFFER_CACHE = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+    private ResponseBodyReader() {
+    }
+
+    /**
+     * 读取响应体并解码成字符串
+     *
+     * @param in            响应体, 可以为null
+     * @param contentLength Content-Length, 未知时传-1
+     * @param contentType   Content-Type, 从中解析charset, 默认UTF-8
+     * @return 响应体字符串, 没有响应体时返回null
+     */
+    static String read(InputStream in, long contentLength, String contentType) throws IOException {
+        if (Objects.isNull(in)) {
+            return null;
+        }
+        byte[] buffer = BUFFER_CACHE.get();
+        if (contentLength > buffer.length) {
+            // 按 Content-Length 预先分配, 避免读取过程中反复扩容; 声明的长度可能很大, 超过上限的部分边读边扩容
+            buffer = new byte[(int) Math.min(contentLength, MAX_PREALLOCATE_SIZE)];
+        }
+        int length = 0;
+        int n;
+        while (true) {
+            if (length == buffer.length) {
+                if (contentLength >= 0 && length >= contentLength) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, newCapacity(buffer.length, contentLength));
+            }
+            n = in.read(buffer, length, buffer.length - length);
+            if (n == -1) {
+                break;
+            }
+            length += n;
+        }
+        if (buffer.length <= MAX_CACHED_BUFFER_SIZE && buffer.length > BUFFER_CACHE.get().length) {
+            BUFFER_CACHE.set(buffer);
+        }
+        // new String 内部只用一个 CharsetDecoder 做一次解码
+        return new String(buffer, 0, length, charsetOf(contentType));
+    }
+
+    /**
+     * 扩容后的长度: 翻倍, 不超过数组长度上限, 已知 Content-Length 时不超过它
+     */
+    private static int newCapacity(int capacity, long contentLength) throws IOException {
+        if (capacity >= MAX_ARRAY_SIZE) {
+            throw new IOException("response body exceeds " + MAX_ARRAY_SIZE + " bytes");
+        }
+        long newCapacity = Math.min((long) capacity << 1, MAX_ARRAY_SIZE);
+        if (contentLength > capacity) {
+            newCapacity = Math.min(newCapacity, contentLength);
+        }
+        return (int) newCapacity;
+    }
+
+    /**
+     * 从 Content-Type 中解析字符集, 例如 application/json; charset=GBK
+     */
+    static Charset charsetOf(String contentType) {
+        if (Objects.isNull(contentType)) {
+            return StandardCharsets.UTF_8;
+        }
+        for (String part : contentType.split(";")) {
+            part = part.trim();
+            if (part.regionMatches(true, 0, "charset=", 0, 8)) {
+                String name = part.substring(8).trim();
+                if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+                    name = name.substring(1, name.length() - 1);
+                }
+                try {
+                    return Charset.forName(name);
+                } catch (Exception e) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
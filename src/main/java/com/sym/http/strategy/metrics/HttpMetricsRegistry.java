@@ -0,0 +1,28 @@
+package com.sym.http.strategy.metrics;
+
+import com.sym.http.strategy.HttpEventListener;
+
+/**
+ * 指标的存储, 默认实现是{@link InMemoryHttpMetricsRegistry}, 也可以适配到其它监控系统.
+ * 通过{@link MetricsEventListener}接收各个策略上报的事件
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public interface HttpMetricsRegistry {
+
+    /**
+     * 记录某个主机某个阶段的耗时
+     */
+    void recordLatency(String host, HttpEventListener.Phase phase, long nanos);
+
+    /**
+     * 记录某个主机返回的状态码
+     */
+    void recordStatus(String host, int statusCode);
+
+    /**
+     * 记录某个主机的请求失败
+     */
+    void recordError(String host, Throwable error);
+}
@@ -0,0 +1,133 @@
+package com.sym.http.strategy.metrics;
+
+import com.sym.http.strategy.HttpEventListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 保存在内存中的指标: 每个主机每个阶段一个{@link LatencyHistogram}, 以及状态码和失败次数的计数.
+ * 主机的指标对象第一次出现时创建, 之后的记录都不分配对象. 主机数量超过上限后, 新的主机合并记录到{@link #OTHER_HOST}
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class InMemoryHttpMetricsRegistry implements HttpMetricsRegistry {
+
+    public static final String OTHER_HOST = "_other";
+
+    private final int maxHosts;
+    private final Map<String, HostMetrics> hosts = new ConcurrentHashMap<>();
+
+    public InMemoryHttpMetricsRegistry() {
+        this(1024);
+    }
+
+    public InMemoryHttpMetricsRegistry(int maxHosts) {
+        this.maxHosts = maxHosts;
+    }
+
+    @Override
+    public void recordLatency(String host, HttpEventListener.Phase phase, long nanos) {
+        metricsOf(host).histograms[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordStatus(String host, int statusCode) {
+        HostMetrics metrics = metricsOf(host);
+        // 不合法的状态码记在0上
+        metrics.statusCounts.incrementAndGet(statusCode > 0 && statusCode < HostMetrics.MAX_STATUS ? statusCode : 0);
+    }
+
+    @Override
+    public void recordError(String host, Throwable error) {
+        metricsOf(host).errors.increment();
+    }
+
+    /**
+     * 指定主机的指标, 没有记录过时返回null
+     */
+    public HostMetrics getHostMetrics(String host) {
+        return hosts.get(host);
+    }
+
+    public Map<String, HostMetrics> getAllHostMetrics() {
+        return Collections.unmodifiableMap(hosts);
+    }
+
+    public void clear() {
+        hosts.clear();
+    }
+
+    private HostMetrics metricsOf(String host) {
+        HostMetrics metrics = hosts.get(host);
+        if (Objects.nonNull(metrics)) {
+            return metrics;
+        }
+        if (hosts.size() >= maxHosts) {
+            host = OTHER_HOST;
+        }
+        return hosts.computeIfAbsent(host, h -> new HostMetrics());
+    }
+
+    /**
+     * 单个主机的指标
+     */
+    public static class HostMetrics {
+
+        static final int MAX_STATUS = 600;
+
+        private final LatencyHistogram[] histograms = new LatencyHistogram[HttpEventListener.Phase.values().length];
+        private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS);
+        private final LongAdder errors = new LongAdder();
+
+        HostMetrics() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        public LatencyHistogram getHistogram(HttpEventListener.Phase phase) {
+            return histograms[phase.ordinal()];
+        }
+
+        public long getStatusCount(int statusCode) {
+            return statusCode > 0 && statusCode < MAX_STATUS ? statusCounts.get(statusCode) : statusCounts.get(0);
+        }
+
+        /**
+         * 出现过的状态码及其次数, 按状态码排序
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> result = new TreeMap<>();
+            for (int i = 0; i < MAX_STATUS; i++) {
+                long n = statusCounts.get(i);
+                if (n > 0) {
+                    result.put(i, n);
+                }
+            }
+            return result;
+        }
+
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (HttpEventListener.Phase phase : HttpEventListener.Phase.values()) {
+                LatencyHistogram histogram = histograms[phase.ordinal()];
+                if (histogram.getCount() > 0) {
+                    builder.append(phase).append(": ").append(histogram).append('\n');
+                }
+            }
+            return builder.append("status: ").append(getStatusCounts()).append(", errors: ").append(getErrorCount()).toString();
+        }
+    }
+}
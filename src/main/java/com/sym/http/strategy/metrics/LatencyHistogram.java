@@ -0,0 +1,125 @@
+package com.sym.http.strategy.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的对数线性直方图, 记录时不分配对象.
+ * <p>
+ * 以约1微秒(1024纳秒)为单位, 每个2的幂区间再均分为8个桶, 分位数的相对误差不超过1/16,
+ * 覆盖从1微秒到数百天的范围, 总共不到500个桶
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class LatencyHistogram {
+
+    /**
+     * 纳秒右移10位, 单位约为1微秒
+     */
+    private static final int UNIT_SHIFT = 10;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos >>> UNIT_SHIFT));
+        count.increment();
+        sum.add(nanos);
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均耗时, 纳秒
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * 最大耗时, 纳秒
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 分位数, 纳秒
+     *
+     * @param percentile 0~100, 例如 99.9
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        if (target >= total) {
+            return max.get();
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                // 取桶的中间值, 不超过记录到的最大值
+                long low = lowerBound(i);
+                long high = i + 1 < BUCKETS ? lowerBound(i + 1) : Long.MAX_VALUE >>> UNIT_SHIFT;
+                long middle = (low + (high - low) / 2) << UNIT_SHIFT;
+                return Math.min(middle, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int indexOf(long units) {
+        if (units < SUB_BUCKETS) {
+            return (int) units;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(units);
+        int mantissa = (int) (units >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1fms, p50=%.1fms, p99=%.1fms, p999=%.1fms, max=%.1fms", getCount(),
+                getMean() / 1e6, toMillis(getPercentile(50)), toMillis(getPercentile(99)),
+                toMillis(getPercentile(99.9)), toMillis(getMax()));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.sym.http.strategy.metrics;
+
+import com.sym.http.strategy.HttpEventListener;
+
+import java.util.Objects;
+
+/**
+ * 把事件转发到{@link HttpMetricsRegistry}
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class MetricsEventListener implements HttpEventListener {
+
+    private final HttpMetricsRegistry registry;
+
+    public MetricsEventListener(HttpMetricsRegistry registry) {
+        this.registry = Objects.requireNonNull(registry);
+    }
+
+    public HttpMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void onPhase(String host, Phase phase, long nanos) {
+        registry.recordLatency(host, phase, nanos);
+    }
+
+    @Override
+    public void onResponse(String host, int statusCode, long nanos) {
+        registry.recordLatency(host, Phase.TOTAL, nanos);
+        registry.recordStatus(host, statusCode);
+    }
+
+    @Override
+    public void onFailure(String host, Throwable error, long nanos) {
+        registry.recordLatency(host, Phase.TOTAL, nanos);
+        registry.recordError(host, error);
+    }
+}
@@ -0,0 +1,99 @@
+package com.sym.http.strategy.resilience;
+
+/**
+ * 单个主机的熔断器.
+ * <p>
+ * 1. CLOSED: 正常放行, 连续失败次数达到阈值后进入 OPEN;
+ * 2. OPEN: 直接拒绝请求, 经过一段时间后进入 HALF_OPEN;
+ * 3. HALF_OPEN: 只放行一个试探请求, 成功则回到 CLOSED, 失败则重新进入 OPEN, 没有结果(没有发出或者结果不能说明主机状态)时交还试探机会.
+ * 试探请求超过熔断持续时间仍没有交还时视为丢失, 重新放行一个试探请求, 避免熔断器永远停在 HALF_OPEN
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private int consecutiveFailures;
+    private boolean trialInFlight;
+    private long trialStartedAt;
+
+    CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    public State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * 是否放行本次请求, 放行之后必须调用{@link #onSuccess()}、{@link #onFailure()}或{@link #release()}
+     */
+    boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (current == State.OPEN && now - openedAt < openDurationMillis) {
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (now - openedAt < openDurationMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            // HALF_OPEN 时只放行一个试探请求
+            if (trialInFlight && now - trialStartedAt < openDurationMillis) {
+                return false;
+            }
+            trialInFlight = true;
+            trialStartedAt = now;
+            return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * 放行的请求没有发出, 或者结果不能说明主机的状态: 不改变状态, 只交还 HALF_OPEN 的试探机会
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,21 @@
+package com.sym.http.strategy.resilience;
+
+/**
+ * 熔断器打开时, 请求被直接拒绝
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private final String host;
+
+    public CircuitBreakerOpenException(String host) {
+        super("circuit breaker of [" + host + "] is open");
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sym.http.strategy.resilience;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 重试和熔断的统计信息
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class ResilienceStats {
+
+    final LongAdder calls = new LongAdder();
+    final LongAdder attempts = new LongAdder();
+    final LongAdder retries = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder giveUps = new LongAdder();
+    final LongAdder budgetExhausted = new LongAdder();
+    final LongAdder shortCircuited = new LongAdder();
+
+    /**
+     * 调用次数, 一次调用可能包含多次尝试
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * 实际发出的请求次数, 包括重试
+     */
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * 失败的尝试次数, 包括IO异常和5xx状态码
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * 可以重试但是放弃了的调用次数: 次数用尽、重试预算不足或者熔断器打开
+     */
+    public long getGiveUpCount() {
+        return giveUps.sum();
+    }
+
+    /**
+     * 因为重试预算不足而放弃的次数, 已包含在{@link #getGiveUpCount()}中
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    /**
+     * 熔断器打开, 直接拒绝的调用次数
+     */
+    public long getShortCircuitedCount() {
+        return shortCircuited.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceStats(calls=" + getCallCount() + ", attempts=" + getAttemptCount() +
+                ", retries=" + getRetryCount() + ", failures=" + getFailureCount() +
+                ", giveUps=" + getGiveUpCount() + ", budgetExhausted=" + getBudgetExhaustedCount() +
+                ", shortCircuited=" + getShortCircuitedCount() + ")";
+    }
+}
@@ -0,0 +1,451 @@
+package com.sym.http.strategy.resilience;
+
+import com.github.rholder.retry.Attempt;
+import com.github.rholder.retry.RetryException;
+import com.github.rholder.retry.RetryListener;
+import com.github.rholder.retry.Retryer;
+import com.github.rholder.retry.RetryerBuilder;
+import com.sym.http.protocol.HttpRequest;
+import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.IHttpStrategy;
+import lombok.Data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带重试和熔断的HTTP策略, 可以装饰任意一个{@link IHttpStrategy}.
+ * <p>
+ * 1. 默认只重试幂等的方法(GET/PUT/DELETE), 触发重试的是IO异常和指定的状态码(默认429/502/503/504);
+ * 2. 重试间隔按指数增长并加入随机抖动, 避免大量请求同时重试;
+ * 3. 每个主机有一份重试预算, 时间窗口内的重试次数不能超过请求次数的一定比例, 防止重试放大下游故障;
+ * 4. 每个主机有一个熔断器, 连续失败达到阈值后直接拒绝请求, 抛出{@link CircuitBreakerOpenException}.
+ * 同步请求使用 guava-retrying 的{@link Retryer}, 异步请求在后台线程上延迟发起下一次尝试, 不会阻塞线程.
+ * 建议把底层客户端自身的重试关掉(HttpClientProfile#maxRetries=0), 避免两层重试叠加
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class ResilientHttpStrategy implements IHttpStrategy {
+
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "http-retry-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final IHttpStrategy delegate;
+    private final ResilienceConfig config;
+    private final Map<String, HostState> hostStates = new ConcurrentHashMap<>();
+    private final ResilienceStats totalStats = new ResilienceStats();
+
+    public ResilientHttpStrategy(IHttpStrategy delegate) {
+        this(delegate, new ResilienceConfig());
+    }
+
+    public ResilientHttpStrategy(IHttpStrategy delegate, ResilienceConfig config) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.config = Objects.requireNonNull(config);
+    }
+
+    public IHttpStrategy getDelegate() {
+        return delegate;
+    }
+
+    public ResilienceConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 所有主机的统计信息
+     */
+    public ResilienceStats getStats() {
+        return totalStats;
+    }
+
+    /**
+     * 指定主机的统计信息, 从未请求过的主机返回null
+     */
+    public ResilienceStats getStats(String host) {
+        HostState state = hostStates.get(host.toLowerCase());
+        return Objects.isNull(state) ? null : state.stats;
+    }
+
+    public CircuitBreaker.State getCircuitState(String host) {
+        HostState state = hostStates.get(host.toLowerCase());
+        return Objects.isNull(state) ? CircuitBreaker.State.CLOSED : state.breaker.getState();
+    }
+
+    @Override
+    public HttpResponse get(HttpRequest httpRequest) {
+        return execute(HttpRequest.HttpMethod.GET, httpRequest);
+    }
+
+    @Override
+    public HttpResponse post(HttpRequest httpRequest) {
+        return execute(HttpRequest.HttpMethod.POST, httpRequest);
+    }
+
+    @Override
+    public HttpResponse put(HttpRequest httpRequest) {
+        return execute(HttpRequest.HttpMethod.PUT, httpRequest);
+    }
+
+    @Override
+    public HttpResponse delete(HttpRequest httpRequest) {
+        return execute(HttpRequest.HttpMethod.DELETE, httpRequest);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> getAsync(HttpRequest httpRequest) {
+        return executeAsync(HttpRequest.HttpMethod.GET, httpRequest);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> postAsync(HttpRequest httpRequest) {
+        return executeAsync(HttpRequest.HttpMethod.POST, httpRequest);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> putAsync(HttpRequest httpRequest) {
+        return executeAsync(HttpRequest.HttpMethod.PUT, httpRequest);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> deleteAsync(HttpRequest httpRequest) {
+        return executeAsync(HttpRequest.HttpMethod.DELETE, httpRequest);
+    }
+
+    /**
+     * 流式请求的响应体无法重放, 所以不重试, 只经过熔断器
+     */
+    @Override
+    public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
+        HostState state = begin(httpRequest);
+        StreamingHttpResponse response;
+        try {
+            response = delegate.stream(httpRequest, method);
+        } catch (RuntimeException e) {
+            state.record(-1, e);
+            throw e;
+        }
+        state.record(response.getStatusCode(), null);
+        return response;
+    }
+
+    @Override
+    public Executor asyncExecutor() {
+        return delegate.asyncExecutor();
+    }
+
+    private HttpResponse execute(HttpRequest.HttpMethod method, HttpRequest request) {
+        HostState state = begin(request);
+        boolean idempotent = isRetryable(method, request);
+        Retryer<HttpResponse> retryer = RetryerBuilder.<HttpResponse>newBuilder()
+                .retryIfException(e -> idempotent && isRetryableError(e))
+                .retryIfResult(r -> idempotent && isRetryableStatus(r))
+                .withRetryListener(new RetryListener() {
+                    @Override
+                    public <V> void onRetry(Attempt<V> attempt) {
+                        // 每一次尝试结束后都会回调, 包括第一次
+                        state.record(attempt.hasResult() ? statusCodeOf(attempt.getResult()) : -1,
+                                attempt.hasException() ? attempt.getExceptionCause() : null);
+                    }
+                })
+                .withStopStrategy(attempt -> !state.allowRetry((int) attempt.getAttemptNumber()))
+                .withWaitStrategy(attempt -> backoffMillis((int) attempt.getAttemptNumber()))
+                .build();
+        try {
+            return retryer.call(() -> send(method, request));
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (RetryException e) {
+            // 放弃重试, 返回最后一次的结果或者抛出最后一次的异常
+            Attempt<?> last = e.getLastFailedAttempt();
+            if (last.hasException()) {
+                throw propagate(last.getExceptionCause());
+            }
+            return (HttpResponse) last.getResult();
+        }
+    }
+
+    private CompletableFuture<HttpResponse> executeAsync(HttpRequest.HttpMethod method, HttpRequest request) {
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        HostState state;
+        try {
+            state = begin(request);
+        } catch (CircuitBreakerOpenException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        attemptAsync(method, request, state, 1, result);
+        return result;
+    }
+
+    private void attemptAsync(HttpRequest.HttpMethod method, HttpRequest request, HostState state, int attempt,
+                              CompletableFuture<HttpResponse> result) {
+        // 调用方已经取消, 交还熔断器放行的机会
+        if (result.isDone()) {
+            state.breaker.release();
+            return;
+        }
+        CompletableFuture<HttpResponse> future;
+        try {
+            future = sendAsync(method, request);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, e) -> {
+            Throwable error = e instanceof CompletionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+            state.record(Objects.isNull(error) ? statusCodeOf(response) : -1, error);
+            boolean retry = isRetryable(method, request) &&
+                    (Objects.isNull(error) ? isRetryableStatus(response) : isRetryableError(error));
+            if (retry && state.allowRetry(attempt)) {
+                RETRY_SCHEDULER.schedule(() -> attemptAsync(method, request, state, attempt + 1, result),
+                        backoffMillis(attempt), TimeUnit.MILLISECONDS);
+            } else if (Objects.nonNull(error)) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+    }
+
+    /**
+     * 一次调用开始: 检查熔断器, 记录到重试预算
+     */
+    private HostState begin(HttpRequest request) {
+        String host = hostOf(request.getUrl());
+        HostState state = hostStates.computeIfAbsent(host, h -> new HostState());
+        state.stats.calls.increment();
+        totalStats.calls.increment();
+        if (!state.breaker.tryAcquire()) {
+            state.stats.shortCircuited.increment();
+            totalStats.shortCircuited.increment();
+            throw new CircuitBreakerOpenException(host);
+        }
+        state.budget.onRequest();
+        return state;
+    }
+
+    /**
+     * 非幂等的方法默认不重试; InputStream 请求体只能发送一次, 也不能重试
+     */
+    private boolean isRetryable(HttpRequest.HttpMethod method, HttpRequest request) {
+        if (request.getBody() instanceof InputStream) {
+            return false;
+        }
+        return method != HttpRequest.HttpMethod.POST || config.isRetryNonIdempotent();
+    }
+
+    private boolean isRetryableStatus(HttpResponse response) {
+        return Objects.nonNull(response) && config.getRetryStatusCodes().contains(response.getStatusCode());
+    }
+
+    /**
+     * 只有IO异常(连接失败、超时等)才重试, 参数错误之类的异常重试也没有意义
+     */
+    private static boolean isRetryableError(Throwable error) {
+        for (Throwable e = error; Objects.nonNull(e); e = e.getCause()) {
+            if (e instanceof IOException) {
+                return true;
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指数退避加抖动: 第n次重试的上限为 base * 2^(n-1), 实际等待时间在上限的一半到上限之间随机
+     */
+    long backoffMillis(int attempt) {
+        long cap = config.getBaseBackoffMillis() << Math.min(attempt - 1, 30);
+        cap = Math.min(Math.max(cap, 0), config.getMaxBackoffMillis());
+        if (cap <= 1) {
+            return cap;
+        }
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap - cap / 2 + 1);
+    }
+
+    private HttpResponse send(HttpRequest.HttpMethod method, HttpRequest request) {
+        switch (method) {
+            case GET:
+                return delegate.get(request);
+            case POST:
+                return delegate.post(request);
+            case PUT:
+                return delegate.put(request);
+            case DELETE:
+                return delegate.delete(request);
+            default:
+                throw new IllegalArgumentException("illegal http method of " + method);
+        }
+    }
+
+    private CompletableFuture<HttpResponse> sendAsync(HttpRequest.HttpMethod method, HttpRequest request) {
+        switch (method) {
+            case GET:
+                return delegate.getAsync(request);
+            case POST:
+                return delegate.postAsync(request);
+            case PUT:
+                return delegate.putAsync(request);
+            case DELETE:
+                return delegate.deleteAsync(request);
+            default:
+                throw new IllegalArgumentException("illegal http method of " + method);
+        }
+    }
+
+    private static int statusCodeOf(Object response) {
+        return response instanceof HttpResponse ? ((HttpResponse) response).getStatusCode() : -1;
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException(e);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return new URL(url).getHost().toLowerCase();
+        } catch (MalformedURLException | NullPointerException e) {
+            return String.valueOf(url);
+        }
+    }
+
+    /**
+     * 单个主机的熔断器、重试预算和统计信息
+     */
+    private class HostState {
+        final CircuitBreaker breaker = new CircuitBreaker(config.getFailureThreshold(), config.getOpenDurationMillis());
+        final RetryBudget budget = new RetryBudget(config.getRetryBudgetRatio(), config.getMinRetriesPerWindow(),
+                config.getBudgetWindowSeconds());
+        final ResilienceStats stats = new ResilienceStats();
+
+        /**
+         * 记录一次尝试的结果, 5xx和IO异常算作失败; 其它异常(参数错误等)不能说明主机的状态, 既不算成功也不算失败
+         *
+         * @param statusCode 状态码, 异常时为-1
+         */
+        void record(int statusCode, Throwable error) {
+            stats.attempts.increment();
+            totalStats.attempts.increment();
+            if (Objects.nonNull(error) && !isRetryableError(error)) {
+                breaker.release();
+            } else if (Objects.nonNull(error) || statusCode >= 500) {
+                stats.failures.increment();
+                totalStats.failures.increment();
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+
+        /**
+         * 第 attempt 次尝试失败后, 判断能否继续重试. 最后才经过熔断器, 拒绝重试时不会占用 HALF_OPEN 的试探机会
+         */
+        boolean allowRetry(int attempt) {
+            if (attempt >= config.getMaxAttempts()) {
+                giveUp();
+                return false;
+            }
+            if (!budget.tryAcquireRetry()) {
+                stats.budgetExhausted.increment();
+                totalStats.budgetExhausted.increment();
+                giveUp();
+                return false;
+            }
+            if (!breaker.tryAcquire()) {
+                giveUp();
+                return false;
+            }
+            stats.retries.increment();
+            totalStats.retries.increment();
+            return true;
+        }
+
+        private void giveUp() {
+            stats.giveUps.increment();
+            totalStats.giveUps.increment();
+        }
+    }
+
+    @Data
+    public static class ResilienceConfig {
+        /**
+         * 最大尝试次数, 包括第一次
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 第一次重试的退避时间上限, 之后每次翻倍
+         */
+        private long baseBackoffMillis = 100;
+
+        /**
+         * 退避时间的最大值
+         */
+        private long maxBackoffMillis = 2000;
+
+        /**
+         * 是否重试非幂等的方法(POST)
+         */
+        private boolean retryNonIdempotent = false;
+
+        /**
+         * 需要重试的状态码
+         */
+        private Set<Integer> retryStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+        /**
+         * 重试次数与请求次数的最大比例
+         */
+        private double retryBudgetRatio = 0.2;
+
+        /**
+         * 时间窗口内无论请求量多少都允许的重试次数, 保证低流量时也能重试
+         */
+        private int minRetriesPerWindow = 10;
+
+        /**
+         * 重试预算的时间窗口
+         */
+        private int budgetWindowSeconds = 10;
+
+        /**
+         * 连续失败多少次后熔断
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * 熔断持续时间, 之后放行一个试探请求
+         */
+        private long openDurationMillis = 10000;
+    }
+}
@@ -0,0 +1,75 @@
+package com.sym.http.strategy.resilience;
+
+/**
+ * 重试预算: 在最近的时间窗口内, 重试次数不能超过请求次数的一定比例(另外保留少量的最低重试次数),
+ * 避免下游故障时重试把流量放大数倍. 时间窗口按秒分桶滑动
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final int minRetries;
+    /**
+     * 每个桶对应的秒数, 以及这一秒内的请求次数和重试次数
+     */
+    private final long[] seconds;
+    private final long[] requests;
+    private final long[] retries;
+
+    /**
+     * @param ratio         重试次数与请求次数的最大比例
+     * @param minRetries    时间窗口内无论请求量多少都允许的重试次数
+     * @param windowSeconds 时间窗口
+     */
+    RetryBudget(double ratio, int minRetries, int windowSeconds) {
+        this.ratio = ratio;
+        this.minRetries = minRetries;
+        this.seconds = new long[windowSeconds];
+        this.requests = new long[windowSeconds];
+        this.retries = new long[windowSeconds];
+    }
+
+    synchronized void onRequest() {
+        requests[bucket(now())]++;
+    }
+
+    /**
+     * 申请一次重试, 预算不足时返回false
+     */
+    synchronized boolean tryAcquireRetry() {
+        long now = now();
+        int index = bucket(now);
+        long totalRequests = 0;
+        long totalRetries = 0;
+        for (int i = 0; i < seconds.length; i++) {
+            if (now - seconds[i] < seconds.length) {
+                totalRequests += requests[i];
+                totalRetries += retries[i];
+            }
+        }
+        if (totalRetries < minRetries || totalRetries < ratio * totalRequests) {
+            retries[index]++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 当前这一秒对应的桶, 桶里是上一轮的数据时先清空
+     */
+    private int bucket(long now) {
+        int index = (int) (now % seconds.length);
+        if (seconds[index] != now) {
+            seconds[index] = now;
+            requests[index] = 0;
+            retries[index] = 0;
+        }
+        return index;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -4,20 +4,30 @@ import cn.hutool.core.io.FileUtil;
 import lombok.extern.slf4j.Slf4j;
 import sun.net.www.protocol.file.FileURLConnection;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.JarURLConnection;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 包扫描器抽象父类
@@ -29,9 +39,13 @@ import java.util.stream.Collectors;
 public abstract class AbstractScanner implements IScanner {
 
     private ClassLoader classLoader;
+    private volatile ClassMetadataReader metadataReader;
+    private volatile ScanIndexCache indexCache = ScanIndexCache.getDefault();
     private final static String CLASS_FILE_SUFFIX = ".class";
     private final static String JAR_PROTOCOL_NAME = "jar";
     private final static String FILE_PROTOCOL_NAME = "file";
+    private final static String JAR_FILE_SUFFIX = ".jar";
+    private final static String JAR_SEPARATOR = "!/";
     private final static String FILE_DELIMITER;
 
     static {
@@ -56,34 +70,48 @@ public abstract class AbstractScanner implements IScanner {
         if (Objects.isNull(basePackagePath) || "".equals(basePackagePath)) {
             return Collections.emptyList();
         }
-        // 获取旗下所有的Class
-        List<Class<?>> classList = this.scanPathAndParseToClass(basePackagePath);
-        // 过滤不满足的Class
-        classList.removeIf(aClass -> !filter(aClass));
-        return classList;
+        // 获取旗下所有满足条件的Class
+        return this.scanPathAndParseToClass(basePackagePath);
     }
 
     /**
-     * 根据给定的包目录路径, 获取旗下的所有Class类型
+     * 根据给定的包目录路径, 获取旗下所有满足条件的Class类型. 开启了字节码过滤时,
+     * 先用{@link #filter(ClassMetadata)}过滤, 只加载满足条件的类, 加载后不再重复用反射判断;
+     * 读取不到元数据的类仍然会被加载, 交给{@link #filter(Class)}判断
      *
      * @param basePackagePath 包路径
-     * @return 该package下的所有Class
+     * @return 该package下满足条件的Class
      */
     private List<Class<?>> scanPathAndParseToClass(String basePackagePath) {
         // 获取所有的类全名集合
         List<String> classNameList = doScanPath(formatPath(basePackagePath, true));
-        return classNameList.stream().map(className -> {
+        ClassLoader classLoader = this.getClassLoader();
+        boolean bytecodeFiltered = this.isBytecodeFiltered();
+        List<Class<?>> classList = new ArrayList<>();
+        for (String className : classNameList) {
+            ClassMetadata metadata = bytecodeFiltered ? this.getMetadataReader().read(className) : null;
+            if (Objects.nonNull(metadata) && !filter(metadata)) {
+                continue;
+            }
+            Class<?> c;
             try {
-                return Class.forName(className);
+                // 不执行静态初始化, 扫描不应该产生副作用
+                c = Class.forName(className, false, classLoader);
             } catch (Throwable e) {
                 log.error("解析Class对象失败: {}", e.getMessage());
-                return null;
+                continue;
             }
-        }).filter(Objects::nonNull).collect(Collectors.toList());
+            // 过滤不满足的Class
+            if (Objects.nonNull(metadata) || filter(c)) {
+                classList.add(c);
+            }
+        }
+        return classList;
     }
 
     /**
-     * 解析路径, 获取父目录对象, 可能为文件夹, 也可能在jar包
+     * 解析路径, 获取父目录对象, 可能为文件夹, 也可能在jar包.
+     * 类加载器返回的多个URL之间互不依赖, 并行解析后再合并结果
      *
      * @param basePackagePath 包路径
      * @return 类全名集合
@@ -91,123 +119,243 @@ public abstract class AbstractScanner implements IScanner {
     private List<String> doScanPath(String basePackagePath) {
         // 获取类加载器
         ClassLoader classLoader = this.getClassLoader();
-        // 返回值
-        List<String> retList = new ArrayList<>();
+        List<URL> urls;
         try {
-            Enumeration<URL> resources = classLoader.getResources(basePackagePath);
-            while (resources.hasMoreElements()) {
-                URL url = resources.nextElement();
-                String protocol = url.getProtocol();
-                if (FILE_PROTOCOL_NAME.equals(protocol)) {
-                    // 说明是文件夹
-                    File parentFile = new File(url.toURI());
-                    this.getClassNameFromFolder(parentFile, retList, basePackagePath);
-                } else if (JAR_PROTOCOL_NAME.equals(protocol)) {
-                    // 说明是jar
-                    JarURLConnection urlConnection = (JarURLConnection) url.openConnection();
-                    JarFile jarFile = urlConnection.getJarFile();
-                    this.getClassNameFromJar(jarFile, retList, basePackagePath);
-                } else {
-                    log.warn("不支持的协议类型: {}", protocol);
-                }
-            }
-        } catch (IOException | URISyntaxException e) {
+            urls = Collections.list(classLoader.getResources(basePackagePath));
+        } catch (IOException e) {
             log.error("解析包路径失败, ", e);
+            return new ArrayList<>();
         }
-        return retList;
+        String basePackageName = this.formatPath(basePackagePath, false);
+        return urls.parallelStream()
+                .flatMap(url -> this.doScanUrl(url, basePackageName).stream())
+                .collect(Collectors.toList());
     }
 
     /**
-     * 从文件夹中获取类全名
+     * 解析单个URL下的类全名
      *
-     * @param parentFile    文件夹目录
-     * @param classNameList 类全名集合
+     * @param url             类加载器返回的资源路径
+     * @param basePackageName 包名, "."分隔
+     * @return 类全名集合
      */
-    private void getClassNameFromFolder(File parentFile, List<String> classNameList, String basePackagePath) {
-        if (parentFile.isDirectory()) {
-            // 获取旗下的文件列表
-            File[] listFiles = parentFile.listFiles();
-            if (Objects.nonNull(listFiles)) {
-                List<File> fileList = new ArrayList<>();
-                for (File file : listFiles) {
-                    // 有可能文件夹的子文件还是文件夹, 所以这边用递归处理
-                    this.getFileFromFolderLoop(file, fileList);
-                }
-                // 将File转换为类全名
-                classNameList.addAll(this.parseFileToClassName(fileList, basePackagePath));
+    private List<String> doScanUrl(URL url, String basePackageName) {
+        String protocol = url.getProtocol();
+        try {
+            if (FILE_PROTOCOL_NAME.equals(protocol)) {
+                // 说明是文件夹
+                return this.getClassNameFromFolder(Paths.get(url.toURI()), basePackageName);
+            } else if (JAR_PROTOCOL_NAME.equals(protocol)) {
+                // 说明是jar
+                return this.getClassNameFromJar(url, basePackageName);
+            } else {
+                log.warn("不支持的协议类型: {}", protocol);
             }
+        } catch (IOException | URISyntaxException | UncheckedIOException e) {
+            log.error("解析包路径失败: {}, ", url, e);
         }
+        return Collections.emptyList();
     }
 
     /**
-     * 从jar中获取类全名
+     * 从文件夹中获取类全名. 根目录下的每个子目录单独遍历, 子目录之间并行,
+     * 每个子目录的结果收集在各自的集合中, 最后由stream合并, 不需要加锁
      *
-     * @param jarFile       jar文件
-     * @param classNameList 类全名集合
+     * @param root            包对应的文件夹
+     * @param basePackageName 包名, 用于拼接类全名
+     * @return 类全名集合
      */
-    private void getClassNameFromJar(JarFile jarFile, List<String> classNameList, String basePackagePath) {
-        List<JarEntry> jarEntries = jarFile.stream().parallel()
-                .filter(jarEntry -> !jarEntry.isDirectory()
-                        && jarEntry.getName().contains(basePackagePath)
-                        && jarEntry.getName().endsWith(CLASS_FILE_SUFFIX))
+    private List<String> getClassNameFromFolder(Path root, String basePackageName) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        List<Path> children;
+        try (Stream<Path> stream = Files.list(root)) {
+            children = stream.collect(Collectors.toList());
+        }
+        return children.parallelStream()
+                .flatMap(child -> this.walkFolder(child).stream())
+                .map(file -> this.parseFileToClassName(root, file, basePackageName))
                 .collect(Collectors.toList());
-        // 将JarEntry转换为类全名
-        classNameList.addAll(this.parseJarEntityToClassName(jarEntries));
     }
 
     /**
-     * 递归获取一个文件下的所有.class文件
+     * 遍历一个文件或文件夹, 获取其中所有的.class文件, 跟随符号链接, 循环链接和无法访问的文件会被跳过
      *
-     * @param file   父目录
-     * @param result .class文件描述符
+     * @param start 文件或文件夹
+     * @return .class文件集合
      */
-    private void getFileFromFolderLoop(File file, List<File> result) {
-        if (!file.isDirectory()) {
-            if (file.getPath().endsWith(CLASS_FILE_SUFFIX)) {
-                result.add(file);
+    private List<Path> walkFolder(Path start) {
+        List<Path> result = new ArrayList<>();
+        try {
+            Files.walkFileTree(start, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && file.getFileName().toString().endsWith(CLASS_FILE_SUFFIX)) {
+                        result.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.warn("跳过无法访问的文件: {}, {}", file, e.toString());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("遍历文件夹失败: {}, ", start, e);
+        }
+        return result;
+    }
+
+    /**
+     * 将.class文件解析成类全名, 根据文件相对于包目录的路径拼接, 与操作系统的路径分隔符无关
+     *
+     * @param root            包对应的文件夹
+     * @param file            .class文件
+     * @param basePackageName 包名
+     * @return 类全名
+     */
+    private String parseFileToClassName(Path root, Path file, String basePackageName) {
+        StringBuilder className = new StringBuilder(basePackageName);
+        for (Path name : root.relativize(file)) {
+            className.append('.').append(name.toString());
+        }
+        return className.substring(0, className.length() - CLASS_FILE_SUFFIX.length());
+    }
+
+    /**
+     * 解析jar协议的URL, 支持嵌套jar包, 格式为 jar:file:/a.jar!/{jar包或目录}!/.../{包路径}:
+     * 以".jar"结尾的部分为嵌套的jar包, 其它部分为所在jar包中的目录(如 BOOT-INF/classes).
+     * 配置了索引缓存时, 先根据最外层jar包的大小和修改时间查找索引, 命中时不打开jar包
+     *
+     * @param url             jar协议的资源路径
+     * @param basePackageName 包名, "."分隔
+     * @return 类全名集合
+     */
+    private List<String> getClassNameFromJar(URL url, String basePackageName) throws IOException, URISyntaxException {
+        String spec = url.toString().substring(JAR_PROTOCOL_NAME.length() + 1);
+        String[] parts = spec.split(JAR_SEPARATOR);
+        Path jarPath = Paths.get(new URI(parts[0]));
+        // 去掉最后的包路径, 剩下的部分确定类所在的位置
+        String container = spec.substring(0, spec.lastIndexOf(JAR_SEPARATOR));
+        ScanIndexCache cache = indexCache;
+        boolean bytecodeFiltered = this.isBytecodeFiltered();
+        if (Objects.nonNull(cache)) {
+            try {
+                ScanIndexCache.PackageIndex index = cache.lookup(jarPath, container, basePackageName, bytecodeFiltered);
+                if (Objects.nonNull(index)) {
+                    if (bytecodeFiltered) {
+                        ClassMetadataReader reader = this.getMetadataReader();
+                        index.getMetadata().forEach(reader::put);
+                    }
+                    return index.getClassNames();
+                }
+            } catch (IOException e) {
+                log.warn("读取扫描索引失败, 直接遍历jar包: {}, {}", jarPath, e.toString());
             }
-            // 递归终止条件
-            return;
         }
-        File[] listFiles = file.listFiles();
-        if (Objects.nonNull(listFiles)) {
-            for (File listFile : listFiles) {
-                this.getFileFromFolderLoop(listFile, result);
+        JarFile jarFile = JarFileCache.get(jarPath);
+        String entryPrefix = "";
+        for (int i = 1; i < parts.length - 1; i++) {
+            String part = decode(parts[i]);
+            if (part.endsWith(JAR_FILE_SUFFIX)) {
+                jarFile = JarFileCache.getNested(jarFile, entryPrefix + part);
+                entryPrefix = "";
+            } else {
+                entryPrefix = entryPrefix + (part.endsWith("/") ? part : part + "/");
             }
         }
+        List<JarEntry> jarEntries = this.getClassEntriesFromJar(jarFile, entryPrefix, basePackageName);
+        List<String> classNames = this.parseJarEntityToClassName(jarEntries, entryPrefix);
+        if (Objects.nonNull(cache)) {
+            // 字节码过滤需要的元数据一起写入索引, 下次命中时不需要再读取.class文件
+            List<ClassMetadata> metadata = bytecodeFiltered ? this.readMetadata(jarFile, jarEntries) : null;
+            try {
+                cache.store(jarPath, container, basePackageName, classNames, metadata);
+            } catch (IOException e) {
+                log.warn("写入扫描索引失败: {}, {}", jarPath, e.toString());
+            }
+        }
+        return classNames;
     }
 
     /**
-     * 将文件集合解析成类全名集合
+     * 从jar中获取包下的.class条目, 只读取中央目录中的条目名称, 不解压
      *
-     * @param fileList        文件集合
-     * @param basePackagePath 扫描目录
-     * @return 类全名集合
+     * @param jarFile         jar文件
+     * @param entryPrefix     类所在的目录, 如 BOOT-INF/classes/, 在jar包根目录时为空字符串
+     * @param basePackageName 包名, "."分隔
+     * @return .class条目集合
      */
-    private List<String> parseFileToClassName(List<File> fileList, String basePackagePath) {
-        return fileList.stream().map(file -> {
-            String filePath = file.getPath();
-            int beginIndex = filePath.indexOf(basePackagePath);
-            int endIndex = filePath.lastIndexOf(CLASS_FILE_SUFFIX);
-            String substring = filePath.substring(beginIndex, endIndex);
-            return this.formatPath(substring, false);
-        }).collect(Collectors.toList());
+    private List<JarEntry> getClassEntriesFromJar(JarFile jarFile, String entryPrefix, String basePackageName) {
+        String prefix = entryPrefix + basePackageName.replace('.', '/') + "/";
+        return jarFile.stream().parallel()
+                .filter(jarEntry -> !jarEntry.isDirectory())
+                .filter(jarEntry -> jarEntry.getName().startsWith(prefix) && jarEntry.getName().endsWith(CLASS_FILE_SUFFIX))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 从jar包中读取类元数据, 同时放入扫描器的元数据读取器, 过滤时不再通过类加载器重复读取
+     *
+     * @param jarFile    jar文件
+     * @param jarEntries .class条目
+     * @return 类元数据, 读取失败的类被跳过
+     */
+    private List<ClassMetadata> readMetadata(JarFile jarFile, List<JarEntry> jarEntries) {
+        ClassMetadataReader reader = this.getMetadataReader();
+        List<ClassMetadata> result = new ArrayList<>(jarEntries.size());
+        for (JarEntry jarEntry : jarEntries) {
+            try (InputStream in = jarFile.getInputStream(jarEntry)) {
+                ClassMetadata metadata = ClassMetadataReader.read(in);
+                reader.put(metadata);
+                result.add(metadata);
+            } catch (IOException | RuntimeException e) {
+                log.debug("读取类元数据失败: {}, {}", jarEntry.getName(), e.toString());
+            }
+        }
+        return result;
     }
 
     /**
      * 将JarEntry集合解析成类全名集合
-     * @param jarEntries jar信息
+     * @param jarEntries  jar中的.class文件
+     * @param entryPrefix 类所在的目录
      * @return 类全名集合
      */
-    private List<String> parseJarEntityToClassName(List<JarEntry> jarEntries) {
-        return jarEntries.stream().map(jarEntry -> {
-            String name = jarEntry.getName();
+    private List<String> parseJarEntityToClassName(List<JarEntry> jarEntries, String entryPrefix) {
+        return jarEntries.stream().map(JarEntry::getName).map(name -> {
             int endIndex = name.lastIndexOf(CLASS_FILE_SUFFIX);
-            String substring = name.substring(0, endIndex);
-            return this.formatPath(substring, false);
+            // jar包中的路径分隔符固定为"/", 与操作系统无关
+            return name.substring(entryPrefix.length(), endIndex).replace('/', '.');
         }).collect(Collectors.toList());
     }
 
+    /**
+     * 解码URL中被转义的字符, 如空格
+     */
+    private static String decode(String part) {
+        if (part.indexOf('%') < 0) {
+            return part;
+        }
+        try {
+            return URLDecoder.decode(part.replace("+", "%2B"), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 设置扫描索引缓存, 默认为{@link ScanIndexCache#getDefault()}, 没有通过系统属性开启时为null, 即不使用索引
+     *
+     * @param indexCache 索引缓存
+     */
+    public void setIndexCache(ScanIndexCache indexCache) {
+        this.indexCache = indexCache;
+    }
+
     /**
      * 获取类加载器, 优先级顺序：用户配置 > 当前线程 > 系统默认
      *
@@ -224,6 +372,24 @@ public abstract class AbstractScanner implements IScanner {
         return ret;
     }
 
+    /**
+     * 获取类元数据读取器, 同一个扫描器多次扫描时复用已读取的元数据
+     *
+     * @return 元数据读取器
+     */
+    protected ClassMetadataReader getMetadataReader() {
+        ClassMetadataReader reader = metadataReader;
+        if (Objects.isNull(reader)) {
+            synchronized (this) {
+                reader = metadataReader;
+                if (Objects.isNull(reader)) {
+                    metadataReader = reader = new ClassMetadataReader(this.getClassLoader());
+                }
+            }
+        }
+        return reader;
+    }
+
     /**
      * 转换路径的格式
      *
@@ -248,4 +414,24 @@ public abstract class AbstractScanner implements IScanner {
      */
     protected abstract boolean filter(Class<?> c);
 
+    /**
+     * 是否在加载类之前先用{@link #filter(ClassMetadata)}过滤, 默认不开启
+     *
+     * @return true-先根据字节码元数据过滤, 再加载类
+     */
+    protected boolean isBytecodeFiltered() {
+        return false;
+    }
+
+    /**
+     * 根据字节码元数据过滤, 不需要加载类, 只在{@link #isBytecodeFiltered()}返回true时使用.
+     * 通过的类加载以后不会再经过{@link #filter(Class)}, 两者的判断需要保持一致
+     *
+     * @param metadata 类元数据
+     * @return true-满足要求, false-需要被过滤掉, 不会被加载
+     */
+    protected boolean filter(ClassMetadata metadata) {
+        return true;
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.sym.scanner;
+
+import org.objectweb.asm.Opcodes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 从.class文件中读取的类元数据, 不需要加载类. 类名都是"."分隔的全名,
+ * 注解只包含运行时可见的(RetentionPolicy.RUNTIME), 与反射看到的一致
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class ClassMetadata {
+
+    private final String className;
+    private final String superClassName;
+    private final List<String> interfaceNames;
+    private final Set<String> annotationNames;
+    private final Set<String> methodAnnotationNames;
+    private final int access;
+
+    ClassMetadata(String className, String superClassName, List<String> interfaceNames,
+                  Set<String> annotationNames, Set<String> methodAnnotationNames, int access) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+        this.annotationNames = Collections.unmodifiableSet(annotationNames);
+        this.methodAnnotationNames = Collections.unmodifiableSet(methodAnnotationNames);
+        this.access = access;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 父类全名, java.lang.Object 没有父类时为null
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * 直接实现的接口
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * 类上直接标注的注解, 不包含从父类继承的, 继承的注解通过{@link ClassMetadataReader#hasAnnotation}判断
+     */
+    public Set<String> getAnnotationNames() {
+        return annotationNames;
+    }
+
+    /**
+     * 类中声明的方法(不含构造方法)上标注的所有注解
+     */
+    public Set<String> getMethodAnnotationNames() {
+        return methodAnnotationNames;
+    }
+
+    public int getAccess() {
+        return access;
+    }
+
+    public boolean isInterface() {
+        return (access & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (access & Opcodes.ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (access & Opcodes.ACC_ABSTRACT) != 0;
+    }
+
+    public boolean isEnum() {
+        return (access & Opcodes.ACC_ENUM) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadata(" + className + ")";
+    }
+}
@@ -0,0 +1,201 @@
+package com.sym.scanner;
+
+import lombok.extern.slf4j.Slf4j;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 使用 ASM 的{@link ClassReader}读取类元数据, 跳过方法体、调试信息和栈帧, 只解析类头、注解和方法签名.
+ * 读取结果会被缓存, 判断继承关系和 @Inherited 注解时需要读取父类和注解本身的元数据
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class ClassMetadataReader {
+
+    private static final String INHERITED = "java.lang.annotation.Inherited";
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+    /**
+     * 缓存中表示类文件不存在或无法解析
+     */
+    private static final ClassMetadata ABSENT = new ClassMetadata("", null, new ArrayList<>(), new HashSet<>(), new HashSet<>(), 0);
+
+    private final ClassLoader classLoader;
+    private final Map<String, ClassMetadata> cache = new ConcurrentHashMap<>();
+
+    public ClassMetadataReader(ClassLoader classLoader) {
+        this.classLoader = Objects.requireNonNull(classLoader);
+    }
+
+    /**
+     * 通过类加载器找到.class文件并读取元数据
+     *
+     * @param className 类全名
+     * @return 元数据, 找不到类文件或者无法解析(如类文件版本高于ASM支持的版本)时返回null
+     */
+    public ClassMetadata read(String className) {
+        ClassMetadata metadata = cache.get(className);
+        if (Objects.isNull(metadata)) {
+            metadata = load(className);
+            cache.put(className, metadata);
+        }
+        return metadata == ABSENT ? null : metadata;
+    }
+
+    /**
+     * 放入已经读取的元数据, 如从扫描索引或jar包条目中读取的, 之后不再通过类加载器读取
+     */
+    void put(ClassMetadata metadata) {
+        cache.putIfAbsent(metadata.getClassName(), metadata);
+    }
+
+    /**
+     * 类或者它的父类上是否有指定注解, 父类上的注解只有标注了 @Inherited 才算, 与{@link Class#isAnnotationPresent}一致
+     */
+    public boolean hasAnnotation(ClassMetadata metadata, String annotationName) {
+        if (metadata.getAnnotationNames().contains(annotationName)) {
+            return true;
+        }
+        if (!isInherited(annotationName) || metadata.isInterface()) {
+            return false;
+        }
+        for (String superName = metadata.getSuperClassName(); Objects.nonNull(superName); ) {
+            ClassMetadata superMetadata = read(superName);
+            if (Objects.isNull(superMetadata)) {
+                return false;
+            }
+            if (superMetadata.getAnnotationNames().contains(annotationName)) {
+                return true;
+            }
+            superName = superMetadata.getSuperClassName();
+        }
+        return false;
+    }
+
+    /**
+     * 类是否可以赋值给指定类型, 即是否为它本身、它的子类或者实现类, 与{@link Class#isAssignableFrom}一致
+     */
+    public boolean isAssignable(ClassMetadata metadata, String typeName) {
+        if (metadata.getClassName().equals(typeName) || "java.lang.Object".equals(typeName)) {
+            return true;
+        }
+        for (String interfaceName : metadata.getInterfaceNames()) {
+            if (isAssignable(interfaceName, typeName)) {
+                return true;
+            }
+        }
+        return isAssignable(metadata.getSuperClassName(), typeName);
+    }
+
+    private boolean isAssignable(String className, String typeName) {
+        if (Objects.isNull(className)) {
+            return false;
+        }
+        if (className.equals(typeName)) {
+            return true;
+        }
+        ClassMetadata metadata = read(className);
+        return Objects.nonNull(metadata) && isAssignable(metadata, typeName);
+    }
+
+    private boolean isInherited(String annotationName) {
+        ClassMetadata annotation = read(annotationName);
+        return Objects.nonNull(annotation) && annotation.getAnnotationNames().contains(INHERITED);
+    }
+
+    private ClassMetadata load(String className) {
+        String resource = className.replace('.', '/') + ".class";
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (Objects.isNull(in)) {
+                return ABSENT;
+            }
+            return read(in);
+        } catch (IOException | RuntimeException e) {
+            log.debug("读取类元数据失败: {}, {}", className, e.toString());
+            return ABSENT;
+        }
+    }
+
+    /**
+     * 从类文件的输入流中读取元数据, 不会关闭输入流
+     */
+    public static ClassMetadata read(InputStream in) throws IOException {
+        MetadataVisitor visitor = new MetadataVisitor();
+        new ClassReader(in).accept(visitor, PARSING_OPTIONS);
+        return visitor.toMetadata();
+    }
+
+    private static String toClassName(String internalName) {
+        return Objects.isNull(internalName) ? null : internalName.replace('/', '.');
+    }
+
+    private static class MetadataVisitor extends ClassVisitor {
+
+        private String className;
+        private String superClassName;
+        private final List<String> interfaceNames = new ArrayList<>();
+        private final Set<String> annotationNames = new HashSet<>();
+        private final Set<String> methodAnnotationNames = new HashSet<>();
+        private int access;
+
+        MetadataVisitor() {
+            super(Opcodes.ASM7);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.access = access;
+            this.className = toClassName(name);
+            this.superClassName = toClassName(superName);
+            if (Objects.nonNull(interfaces)) {
+                for (String interfaceName : interfaces) {
+                    interfaceNames.add(toClassName(interfaceName));
+                }
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (visible) {
+                annotationNames.add(Type.getType(descriptor).getClassName());
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            // Class#getDeclaredMethods 不包含构造方法和静态初始化块
+            if ("<init>".equals(name) || "<clinit>".equals(name)) {
+                return null;
+            }
+            return new MethodVisitor(Opcodes.ASM7) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    if (visible) {
+                        methodAnnotationNames.add(Type.getType(descriptor).getClassName());
+                    }
+                    return null;
+                }
+            };
+        }
+
+        ClassMetadata toMetadata() {
+            return new ClassMetadata(className, superClassName, interfaceNames, annotationNames, methodAnnotationNames, access);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.sym.scanner;
+
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 扫描器共享的已打开jar包, 多次扫描、多个扫描器之间复用, 不需要每次都通过 JarURLConnection 重新打开.
+ * jar包以不校验签名的方式打开, 遍历条目只读取中央目录, 不会解压条目内容.
+ * jar包的大小或修改时间变化后会重新打开, 被替换的旧jar包可能还在被其它线程的扫描使用, 不会立即关闭, 留到 {@link #clear()} 时关闭.
+ * <p>
+ * 嵌套在jar包中的jar包(如 Spring Boot 的 BOOT-INF/lib/*.jar)会被拷贝到 ${java.io.tmpdir}/sym-nested-jars 后再打开,
+ * 临时文件名由外层jar包路径、条目名称和条目的CRC决定, 同一个嵌套jar包只拷贝一次, 跨进程复用.
+ * 本进程拷贝出的临时文件在 {@link #clear()} 时删除, 未调用 clear() 时保留到下次启动复用, 可以安全地手动清理该目录
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class JarFileCache {
+
+    private static final Map<String, CachedJarFile> CACHE = new ConcurrentHashMap<>();
+    /**
+     * 被替换但还没有关闭的jar包
+     */
+    private static final List<JarFile> RETIRED = new ArrayList<>();
+    /**
+     * 本进程拷贝出的嵌套jar包
+     */
+    private static final Set<Path> EXTRACTED = ConcurrentHashMap.newKeySet();
+    private static final Path NESTED_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "sym-nested-jars");
+
+    private JarFileCache() {
+    }
+
+    /**
+     * 获取文件系统上的jar包
+     *
+     * @param path jar包路径
+     * @return 已打开的jar包, 不要关闭
+     */
+    public static JarFile get(Path path) throws IOException {
+        Path jarPath = path.toAbsolutePath().normalize();
+        BasicFileAttributes attrs = Files.readAttributes(jarPath, BasicFileAttributes.class);
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        String key = jarPath.toString();
+        CachedJarFile cached = CACHE.get(key);
+        if (Objects.nonNull(cached) && cached.size == size && cached.modified == modified) {
+            return cached.jarFile;
+        }
+        synchronized (JarFileCache.class) {
+            cached = CACHE.get(key);
+            if (Objects.nonNull(cached) && cached.size == size && cached.modified == modified) {
+                return cached.jarFile;
+            }
+            // 不校验签名, 只读取中央目录
+            JarFile jarFile = new JarFile(jarPath.toFile(), false);
+            CACHE.put(key, new CachedJarFile(jarFile, size, modified));
+            if (Objects.nonNull(cached)) {
+                RETIRED.add(cached.jarFile);
+            }
+            return jarFile;
+        }
+    }
+
+    /**
+     * 获取嵌套在jar包中的jar包
+     *
+     * @param outer     外层jar包
+     * @param entryName 嵌套jar包在外层jar包中的条目名称
+     * @return 已打开的jar包, 不要关闭
+     */
+    public static JarFile getNested(JarFile outer, String entryName) throws IOException {
+        JarEntry entry = outer.getJarEntry(entryName);
+        if (Objects.isNull(entry) || entry.isDirectory()) {
+            throw new IOException("nested jar [" + entryName + "] not found in " + outer.getName());
+        }
+        String name = Hashing.sha256().hashString(outer.getName() + "!/" + entryName + "#" + entry.getCrc()
+                + "#" + entry.getSize(), StandardCharsets.UTF_8).toString() + ".jar";
+        Path target = NESTED_DIRECTORY.resolve(name);
+        if (!Files.isRegularFile(target) || Files.size(target) != entry.getSize()) {
+            Files.createDirectories(NESTED_DIRECTORY);
+            Path temp = Files.createTempFile(NESTED_DIRECTORY, name, ".tmp");
+            try (InputStream in = outer.getInputStream(entry)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                EXTRACTED.add(target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return get(target);
+    }
+
+    /**
+     * 关闭并清空所有缓存的jar包, 删除本进程拷贝出的嵌套jar包. 调用时不能有正在进行的扫描
+     */
+    public static void clear() {
+        synchronized (JarFileCache.class) {
+            CACHE.values().forEach(cached -> closeQuietly(cached.jarFile));
+            CACHE.clear();
+            RETIRED.forEach(JarFileCache::closeQuietly);
+            RETIRED.clear();
+        }
+        for (Path path : EXTRACTED) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除嵌套jar包失败: {}", path);
+            }
+            EXTRACTED.remove(path);
+        }
+    }
+
+    private static void closeQuietly(JarFile jarFile) {
+        try {
+            jarFile.close();
+        } catch (IOException e) {
+            log.warn("关闭jar包失败: {}", jarFile.getName());
+        }
+    }
+
+    private static class CachedJarFile {
+        private final JarFile jarFile;
+        private final long size;
+        private final long modified;
+
+        CachedJarFile(JarFile jarFile, long size, long modified) {
+            this.jarFile = jarFile;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
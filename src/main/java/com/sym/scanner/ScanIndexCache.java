@@ -0,0 +1,357 @@
+package com.sym.scanner;
+
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 扫描结果的持久化索引. 每个jar包(包括嵌套的jar包和 BOOT-INF/classes 这类目录)中的每个扫描包对应缓存目录下的一个二进制文件,
+ * 记录包下的类全名, 扫描器需要字节码元数据时还会记录每个类的{@link ClassMetadata}. 命中索引时不需要打开jar包, 也不需要读取.class文件.
+ * <p>
+ * 索引在打开jar包之前检查, 以文件路径、大小和修改时间作为指纹:
+ * 1. 大小和修改时间都没变, 直接使用索引;
+ * 2. 大小没变但修改时间变了(如重新拷贝), 计算内容摘要与索引中记录的比较, 相同时仍然使用索引;
+ * 3. 其它情况重新扫描jar包并覆盖索引. 第一次扫描不计算摘要, 摘要只在第2种情况下计算并记录.
+ * 索引文件通过内存映射读取, 同一个JVM内读取过的索引还会缓存在内存中. 文件夹形式的类路径无法廉价地判断是否变化, 不使用索引.
+ * <p>
+ * 默认不开启, 通过 -Dsym.scanner.cache.enabled=true 开启默认缓存, 目录为 ${java.io.tmpdir}/sym-scan-index,
+ * 可以通过 -Dsym.scanner.cache.dir 修改; 也可以通过{@link AbstractScanner#setIndexCache}为单个扫描器指定
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class ScanIndexCache {
+
+    public static final String DIR_PROPERTY = "sym.scanner.cache.dir";
+    public static final String ENABLED_PROPERTY = "sym.scanner.cache.enabled";
+
+    private static final int MAGIC = 0x53594d49;
+    private static final int VERSION = 2;
+    private static final String FILE_SUFFIX = ".idx";
+    private static final byte[] NO_HASH = new byte[0];
+
+    private static volatile ScanIndexCache defaultCache;
+
+    private final Path directory;
+    private final Map<String, PackageIndex> memory = new ConcurrentHashMap<>();
+    /**
+     * 索引失效时已经计算出的新内容摘要, 重新扫描后写入索引, 避免再计算一次
+     */
+    private final Map<String, byte[]> pendingHashes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ScanIndexCache(Path directory) {
+        this.directory = Objects.requireNonNull(directory);
+    }
+
+    /**
+     * 默认的索引缓存, 只有通过系统属性开启时才返回, 否则返回null
+     */
+    public static ScanIndexCache getDefault() {
+        if (!Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY))) {
+            return null;
+        }
+        ScanIndexCache cache = defaultCache;
+        if (Objects.isNull(cache)) {
+            synchronized (ScanIndexCache.class) {
+                cache = defaultCache;
+                if (Objects.isNull(cache)) {
+                    String dir = System.getProperty(DIR_PROPERTY);
+                    defaultCache = cache = new ScanIndexCache(Objects.isNull(dir)
+                            ? Paths.get(System.getProperty("java.io.tmpdir"), "sym-scan-index") : Paths.get(dir));
+                }
+            }
+        }
+        return cache;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 查找索引, 只读取jar包文件的属性, 不打开jar包
+     *
+     * @param jarPath         文件系统上的jar包, 嵌套jar包时为最外层的jar包
+     * @param container       jar包内类所在的位置, 如"file:/a.jar!/BOOT-INF/lib/b.jar", 与包名一起作为索引的key
+     * @param packageName     包名
+     * @param requireMetadata 是否需要类元数据, 索引中没有记录元数据时视为未命中
+     * @return 索引, 未命中时返回null
+     */
+    public PackageIndex lookup(Path jarPath, String container, String packageName, boolean requireMetadata) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(jarPath, BasicFileAttributes.class);
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        String key = container + "#" + packageName;
+
+        PackageIndex index = memory.get(key);
+        if (Objects.isNull(index) || !index.matches(size, modified)) {
+            index = load(key);
+        }
+        if (Objects.nonNull(index) && index.size == size && index.modified != modified) {
+            // 只有大小相同、修改时间不同时才计算摘要
+            byte[] hash = hash(jarPath);
+            if (index.hash.length > 0 && Arrays.equals(index.hash, hash)) {
+                index = new PackageIndex(key, size, modified, hash, index.classNames, index.metadata);
+                write(index);
+            } else {
+                pendingHashes.put(key, hash);
+                index = null;
+            }
+        }
+        if (Objects.isNull(index) || !index.matches(size, modified) || (requireMetadata && !index.hasMetadata())) {
+            misses.increment();
+            return null;
+        }
+        memory.put(key, index);
+        hits.increment();
+        return index;
+    }
+
+    /**
+     * 扫描jar包以后写入索引
+     *
+     * @param jarPath     文件系统上的jar包, 嵌套jar包时为最外层的jar包
+     * @param container   jar包内类所在的位置
+     * @param packageName 包名
+     * @param classNames  包下的类全名
+     * @param metadata    类元数据, 没有读取时为null
+     */
+    public void store(Path jarPath, String container, String packageName, List<String> classNames,
+                      Collection<ClassMetadata> metadata) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(jarPath, BasicFileAttributes.class);
+        String key = container + "#" + packageName;
+        byte[] hash = pendingHashes.remove(key);
+        Map<String, ClassMetadata> metadataMap = null;
+        if (Objects.nonNull(metadata)) {
+            metadataMap = new LinkedHashMap<>();
+            for (ClassMetadata classMetadata : metadata) {
+                metadataMap.put(classMetadata.getClassName(), classMetadata);
+            }
+        }
+        PackageIndex index = new PackageIndex(key, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                Objects.isNull(hash) ? NO_HASH : hash, Collections.unmodifiableList(new ArrayList<>(classNames)), metadataMap);
+        write(index);
+        memory.put(key, index);
+    }
+
+    private static byte[] hash(Path jarPath) throws IOException {
+        return com.google.common.io.Files.asByteSource(jarPath.toFile()).hash(Hashing.sha256()).asBytes();
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + FILE_SUFFIX);
+    }
+
+    /**
+     * 通过内存映射读取索引文件, 文件不存在、格式不对或者属于其它key时返回null
+     */
+    private PackageIndex load(String key) {
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            if (!key.equals(readString(buffer))) {
+                return null;
+            }
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            byte[] hash = new byte[buffer.get() & 0xff];
+            buffer.get(hash);
+            List<String> classNames = readStrings(buffer);
+            Map<String, ClassMetadata> metadata = null;
+            if (buffer.get() == 1) {
+                metadata = new LinkedHashMap<>();
+                int count = buffer.getInt();
+                for (int i = 0; i < count; i++) {
+                    ClassMetadata classMetadata = readMetadata(buffer);
+                    metadata.put(classMetadata.getClassName(), classMetadata);
+                }
+            }
+            return new PackageIndex(key, size, modified, hash, Collections.unmodifiableList(classNames), metadata);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            log.warn("跳过损坏的索引文件: {}, key: {}", file, key);
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再移动, 多个JVM同时写同一个索引时不会读到写了一半的文件
+     */
+    private void write(PackageIndex index) {
+        Path file = fileOf(index.key);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, index.key);
+                out.writeLong(index.size);
+                out.writeLong(index.modified);
+                out.writeByte(index.hash.length);
+                out.write(index.hash);
+                writeStrings(out, index.classNames);
+                if (index.hasMetadata()) {
+                    out.writeByte(1);
+                    out.writeInt(index.metadata.size());
+                    for (ClassMetadata metadata : index.metadata.values()) {
+                        writeMetadata(out, metadata);
+                    }
+                } else {
+                    out.writeByte(0);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("写入索引文件失败: {}, {}", file, e.toString());
+            if (Objects.nonNull(temp)) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static void writeMetadata(DataOutputStream out, ClassMetadata metadata) throws IOException {
+        writeString(out, metadata.getClassName());
+        writeString(out, Objects.isNull(metadata.getSuperClassName()) ? "" : metadata.getSuperClassName());
+        writeStrings(out, metadata.getInterfaceNames());
+        writeStrings(out, metadata.getAnnotationNames());
+        writeStrings(out, metadata.getMethodAnnotationNames());
+        out.writeInt(metadata.getAccess());
+    }
+
+    private static ClassMetadata readMetadata(ByteBuffer buffer) {
+        String className = readString(buffer);
+        String superClassName = readString(buffer);
+        List<String> interfaceNames = readStrings(buffer);
+        Set<String> annotationNames = new HashSet<>(readStrings(buffer));
+        Set<String> methodAnnotationNames = new HashSet<>(readStrings(buffer));
+        int access = buffer.getInt();
+        return new ClassMetadata(className, superClassName.isEmpty() ? null : superClassName, interfaceNames,
+                annotationNames, methodAnnotationNames, access);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一个jar包中一个包的索引
+     */
+    public static class PackageIndex {
+        private final String key;
+        private final long size;
+        private final long modified;
+        private final byte[] hash;
+        private final List<String> classNames;
+        private final Map<String, ClassMetadata> metadata;
+
+        PackageIndex(String key, long size, long modified, byte[] hash, List<String> classNames,
+                     Map<String, ClassMetadata> metadata) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.classNames = classNames;
+            this.metadata = metadata;
+        }
+
+        boolean matches(long size, long modified) {
+            return this.size == size && this.modified == modified;
+        }
+
+        public List<String> getClassNames() {
+            return classNames;
+        }
+
+        public boolean hasMetadata() {
+            return Objects.nonNull(metadata);
+        }
+
+        /**
+         * 类元数据, 扫描时没有读取元数据的索引返回空集合
+         */
+        public Collection<ClassMetadata> getMetadata() {
+            return hasMetadata() ? Collections.unmodifiableCollection(metadata.values()) : Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.sym.scanner;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 可组合的扫描条件, 同时提供基于字节码元数据和基于反射的两种判断, 两者结果一致.
+ * 例如: {@code ScanQuery.annotatedWith(A.class).or(ScanQuery.methodsAnnotatedWith(B.class))}.
+ * 多个条件交给{@link com.sym.scanner.impl.QueryScanner}, 只需要遍历一次类路径
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class ScanQuery {
+
+    private final String description;
+    private final BiPredicate<ClassMetadata, ClassMetadataReader> metadataPredicate;
+    private final Predicate<Class<?>> classPredicate;
+
+    private ScanQuery(String description, BiPredicate<ClassMetadata, ClassMetadataReader> metadataPredicate,
+                      Predicate<Class<?>> classPredicate) {
+        this.description = description;
+        this.metadataPredicate = metadataPredicate;
+        this.classPredicate = classPredicate;
+    }
+
+    /**
+     * 类上带有指定注解, 包括从父类继承的 @Inherited 注解
+     */
+    public static ScanQuery annotatedWith(Class<? extends Annotation> annotation) {
+        String name = annotation.getName();
+        return new ScanQuery("annotatedWith(" + name + ")",
+                (metadata, reader) -> reader.hasAnnotation(metadata, name),
+                c -> c.isAnnotationPresent(annotation));
+    }
+
+    /**
+     * 类中声明的方法(不含构造方法)上带有指定注解
+     */
+    public static ScanQuery methodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        String name = annotation.getName();
+        return new ScanQuery("methodsAnnotatedWith(" + name + ")",
+                (metadata, reader) -> metadata.getMethodAnnotationNames().contains(name),
+                c -> {
+                    for (Method method : c.getDeclaredMethods()) {
+                        if (method.isAnnotationPresent(annotation)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+    }
+
+    /**
+     * 指定类型的子类或实现类, 不包括类型本身
+     */
+    public static ScanQuery subTypesOf(Class<?> superType) {
+        String name = superType.getName();
+        return new ScanQuery("subTypesOf(" + name + ")",
+                (metadata, reader) -> !name.equals(metadata.getClassName()) && reader.isAssignable(metadata, name),
+                c -> c != superType && superType.isAssignableFrom(c));
+    }
+
+    /**
+     * 排除接口、注解和抽象类
+     */
+    public static ScanQuery concrete() {
+        return new ScanQuery("concrete",
+                (metadata, reader) -> !metadata.isInterface() && !metadata.isAbstract(),
+                c -> !c.isInterface() && !Modifier.isAbstract(c.getModifiers()));
+    }
+
+    public ScanQuery and(ScanQuery other) {
+        Objects.requireNonNull(other);
+        return new ScanQuery("(" + description + " and " + other.description + ")",
+                metadataPredicate.and(other.metadataPredicate), classPredicate.and(other.classPredicate));
+    }
+
+    public ScanQuery or(ScanQuery other) {
+        Objects.requireNonNull(other);
+        return new ScanQuery("(" + description + " or " + other.description + ")",
+                metadataPredicate.or(other.metadataPredicate), classPredicate.or(other.classPredicate));
+    }
+
+    public ScanQuery negate() {
+        return new ScanQuery("not " + description, metadataPredicate.negate(), classPredicate.negate());
+    }
+
+    /**
+     * 根据字节码元数据判断, 不需要加载类
+     */
+    public boolean matches(ClassMetadata metadata, ClassMetadataReader reader) {
+        return metadataPredicate.test(metadata, reader);
+    }
+
+    /**
+     * 根据已加载的类判断, 用于读取不到元数据的类
+     */
+    public boolean matches(Class<?> c) {
+        return classPredicate.test(c);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sym.scanner;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一次扫描的分组结果, 每个条件名称对应满足该条件的类, 一个类可以同时出现在多个分组中
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class ScanResult {
+
+    private final Map<String, List<Class<?>>> groups;
+    private final List<Class<?>> classes;
+
+    /**
+     * @param groups  条件名称 -> 满足该条件的类
+     * @param classes 至少满足一个条件的类
+     */
+    public ScanResult(Map<String, List<Class<?>>> groups, List<Class<?>> classes) {
+        this.groups = new LinkedHashMap<>(groups);
+        this.classes = Collections.unmodifiableList(classes);
+    }
+
+    /**
+     * 满足指定条件的类
+     *
+     * @param name 添加条件时的名称
+     * @return 类集合, 名称不存在时返回空集合
+     */
+    public List<Class<?>> get(String name) {
+        List<Class<?>> list = groups.get(name);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 至少满足一个条件的类
+     */
+    public List<Class<?>> getClasses() {
+        return classes;
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(groups.keySet());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ScanResult(");
+        groups.forEach((name, list) -> sb.append(name).append('=').append(list.size()).append(", "));
+        if (!groups.isEmpty()) {
+            sb.setLength(sb.length() - 2);
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -4,9 +4,10 @@ import com.sym.scanner.AbstractScanner;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 类中只要有一个方法带有指定注解, 就可以扫描到
@@ -16,23 +17,25 @@ import java.util.List;
  */
 public class AnnotationMethodScanner extends AbstractScanner {
 
-    private List<Class<? extends Annotation>> annotationList;
+    private Set<Class<? extends Annotation>> annotationSet;
 
     public AnnotationMethodScanner(Class<? extends Annotation> aClass) {
         this(Collections.singletonList(aClass));
     }
 
     public AnnotationMethodScanner(List<Class<? extends Annotation>> annotationList) {
-        this.annotationList = new ArrayList<>(annotationList);
+        this.annotationSet = new HashSet<>(annotationList);
     }
 
+    /**
+     * 方法上的每个注解到集合中查找一次, 不需要对每个指定注解都遍历一遍方法
+     */
     @Override
     protected boolean filter(Class<?> c) {
         Method[] declaredMethods = c.getDeclaredMethods();
         for (Method method : declaredMethods) {
-            for (Class<? extends Annotation> aClass : annotationList) {
-                boolean present = method.isAnnotationPresent(aClass);
-                if (present) {
+            for (Annotation annotation : method.getDeclaredAnnotations()) {
+                if (annotationSet.contains(annotation.annotationType())) {
                     return true;
                 }
             }
@@ -0,0 +1,31 @@
+package com.sym.scanner.impl;
+
+import com.sym.scanner.ClassMetadata;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * 类带有指定注解才可以被扫描到, 先读取.class文件判断注解, 只加载满足条件的类
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class BytecodeAnnotationClassScanner extends AnnotationClassScanner {
+
+    private final String annotationName;
+
+    public BytecodeAnnotationClassScanner(Class<? extends Annotation> classType) {
+        super(classType);
+        this.annotationName = classType.getName();
+    }
+
+    @Override
+    protected boolean isBytecodeFiltered() {
+        return true;
+    }
+
+    @Override
+    protected boolean filter(ClassMetadata metadata) {
+        return getMetadataReader().hasAnnotation(metadata, annotationName);
+    }
+}
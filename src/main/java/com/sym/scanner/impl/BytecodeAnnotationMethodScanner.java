@@ -0,0 +1,44 @@
+package com.sym.scanner.impl;
+
+import com.sym.scanner.ClassMetadata;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 类中只要有一个方法带有指定注解, 就可以扫描到. 先读取.class文件判断方法注解, 只加载满足条件的类
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class BytecodeAnnotationMethodScanner extends AnnotationMethodScanner {
+
+    private final Set<String> annotationNames;
+
+    public BytecodeAnnotationMethodScanner(Class<? extends Annotation> aClass) {
+        this(Collections.singletonList(aClass));
+    }
+
+    public BytecodeAnnotationMethodScanner(List<Class<? extends Annotation>> annotationList) {
+        super(annotationList);
+        this.annotationNames = annotationList.stream().map(Class::getName).collect(Collectors.toSet());
+    }
+
+    @Override
+    protected boolean isBytecodeFiltered() {
+        return true;
+    }
+
+    @Override
+    protected boolean filter(ClassMetadata metadata) {
+        for (String name : metadata.getMethodAnnotationNames()) {
+            if (annotationNames.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
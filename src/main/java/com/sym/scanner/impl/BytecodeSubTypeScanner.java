@@ -0,0 +1,41 @@
+package com.sym.scanner.impl;
+
+import com.sym.scanner.AbstractScanner;
+import com.sym.scanner.ClassMetadata;
+
+/**
+ * 扫描指定类型的子类或实现类, 不包括类型本身. 先读取.class文件沿父类和接口判断继承关系, 只加载满足条件的类
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class BytecodeSubTypeScanner extends AbstractScanner {
+
+    private final Class<?> superType;
+
+    public BytecodeSubTypeScanner(Class<?> superType) {
+        super();
+        this.superType = superType;
+    }
+
+    public BytecodeSubTypeScanner(Class<?> superType, ClassLoader classLoader) {
+        super(classLoader);
+        this.superType = superType;
+    }
+
+    @Override
+    protected boolean isBytecodeFiltered() {
+        return true;
+    }
+
+    @Override
+    protected boolean filter(ClassMetadata metadata) {
+        return !superType.getName().equals(metadata.getClassName())
+                && getMetadataReader().isAssignable(metadata, superType.getName());
+    }
+
+    @Override
+    protected boolean filter(Class<?> c) {
+        return c != superType && superType.isAssignableFrom(c);
+    }
+}
@@ -0,0 +1,141 @@
+package com.sym.scanner.impl;
+
+import com.sym.scanner.AbstractScanner;
+import com.sym.scanner.IScanner;
+import com.sym.scanner.index.AnnotationIndexProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 根据编译期生成的索引(见{@link AnnotationIndexProcessor})扫描, 不遍历类路径, 也不读取.class文件.
+ * 包含扫描包的每一个类路径(文件夹或jar包)都带有索引时才使用索引, 否则退化为对应的字节码扫描器
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@Slf4j
+public class IndexedScanner implements IScanner {
+
+    private final String indexFile;
+    private final AbstractScanner fallback;
+    /**
+     * 类路径根目录 -> 是否带有索引
+     */
+    private final Map<String, Boolean> indexedRoots = new ConcurrentHashMap<>();
+
+    private IndexedScanner(String indexFile, AbstractScanner fallback) {
+        this.indexFile = AnnotationIndexProcessor.INDEX_LOCATION + indexFile;
+        this.fallback = fallback;
+    }
+
+    /**
+     * 类上带有指定注解, 包括从父类继承的 @Inherited 注解
+     */
+    public static IndexedScanner annotatedWith(Class<? extends Annotation> annotation) {
+        return new IndexedScanner(AnnotationIndexProcessor.ANNOTATION + annotation.getName(),
+                new BytecodeAnnotationClassScanner(annotation));
+    }
+
+    /**
+     * 类中声明的方法上带有指定注解
+     */
+    public static IndexedScanner methodsAnnotatedWith(Class<? extends Annotation> annotation) {
+        return new IndexedScanner(AnnotationIndexProcessor.METHOD + annotation.getName(),
+                new BytecodeAnnotationMethodScanner(annotation));
+    }
+
+    /**
+     * 指定类型的子类或实现类, 不包括类型本身
+     */
+    public static IndexedScanner subTypesOf(Class<?> superType) {
+        return new IndexedScanner(AnnotationIndexProcessor.TYPE + superType.getName(),
+                new BytecodeSubTypeScanner(superType));
+    }
+
+    @Override
+    public List<Class<?>> doScan(String basePackagePath) {
+        if (Objects.isNull(basePackagePath) || "".equals(basePackagePath)) {
+            return Collections.emptyList();
+        }
+        ClassLoader classLoader = this.getClassLoader();
+        List<String> classNames;
+        try {
+            classNames = this.readIndex(classLoader, basePackagePath);
+        } catch (IOException e) {
+            log.warn("读取扫描索引失败, 使用字节码扫描: {}", e.toString());
+            classNames = null;
+        }
+        if (Objects.isNull(classNames)) {
+            return fallback.doScan(basePackagePath);
+        }
+        List<Class<?>> classList = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                classList.add(Class.forName(className, false, classLoader));
+            } catch (Throwable e) {
+                log.error("解析Class对象失败: {}", e.getMessage());
+            }
+        }
+        return classList;
+    }
+
+    /**
+     * 从索引中读取包下满足条件的类全名
+     *
+     * @return 类全名集合, 有类路径没有索引时返回null
+     */
+    private List<String> readIndex(ClassLoader classLoader, String basePackagePath) throws IOException {
+        String path = basePackagePath.replace('.', '/');
+        for (URL url : Collections.list(classLoader.getResources(path))) {
+            String location = url.toString();
+            String root = location.substring(0, location.lastIndexOf(path));
+            if (!indexedRoots.computeIfAbsent(root, this::hasIndex)) {
+                return null;
+            }
+        }
+        String prefix = basePackagePath + ".";
+        Set<String> classNames = new LinkedHashSet<>();
+        for (URL url : Collections.list(classLoader.getResources(indexFile))) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(prefix)) {
+                        classNames.add(line);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(classNames);
+    }
+
+    private boolean hasIndex(String root) {
+        try (InputStream ignored = new URL(root + AnnotationIndexProcessor.INDEX_FILE).openStream()) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取类加载器, 优先级顺序：当前线程 > 系统默认
+     */
+    private ClassLoader getClassLoader() {
+        ClassLoader ret = Thread.currentThread().getContextClassLoader();
+        return Objects.isNull(ret) ? ClassLoader.getSystemClassLoader() : ret;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sym.scanner.impl;
+
+import com.sym.scanner.AbstractScanner;
+import com.sym.scanner.ClassMetadata;
+import com.sym.scanner.ClassMetadataReader;
+import com.sym.scanner.ScanQuery;
+import com.sym.scanner.ScanResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 多条件扫描器, 一次遍历类路径, 每个类只读取一次元数据、只加载一次, 同时判断所有条件并按条件名称分组.
+ * {@link #doScan(String)}返回至少满足一个条件的类, {@link #scan(String)}返回分组结果
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class QueryScanner extends AbstractScanner {
+
+    private final Map<String, ScanQuery> queries = new LinkedHashMap<>();
+
+    public QueryScanner() {
+        super();
+    }
+
+    public QueryScanner(ClassLoader classLoader) {
+        super(classLoader);
+    }
+
+    /**
+     * 添加一个扫描条件
+     *
+     * @param name  条件名称, 用于获取分组结果
+     * @param query 扫描条件
+     * @return this
+     */
+    public QueryScanner query(String name, ScanQuery query) {
+        queries.put(Objects.requireNonNull(name), Objects.requireNonNull(query));
+        return this;
+    }
+
+    /**
+     * 扫描并按条件分组
+     *
+     * @param basePackagePath 包路径
+     * @return 分组结果
+     */
+    public ScanResult scan(String basePackagePath) {
+        List<Class<?>> classes = doScan(basePackagePath);
+        Map<String, List<Class<?>>> groups = new LinkedHashMap<>();
+        queries.keySet().forEach(name -> groups.put(name, new ArrayList<>()));
+        ClassMetadataReader reader = getMetadataReader();
+        for (Class<?> c : classes) {
+            // 元数据已经在过滤时读取过, 这里命中缓存
+            ClassMetadata metadata = reader.read(c.getName());
+            queries.forEach((name, query) -> {
+                if (Objects.nonNull(metadata) ? query.matches(metadata, reader) : query.matches(c)) {
+                    groups.get(name).add(c);
+                }
+            });
+        }
+        return new ScanResult(groups, classes);
+    }
+
+    @Override
+    protected boolean isBytecodeFiltered() {
+        return true;
+    }
+
+    @Override
+    protected boolean filter(ClassMetadata metadata) {
+        ClassMetadataReader reader = getMetadataReader();
+        for (ScanQuery query : queries.values()) {
+            if (query.matches(metadata, reader)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected boolean filter(Class<?> c) {
+        for (ScanQuery query : queries.values()) {
+            if (query.matches(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
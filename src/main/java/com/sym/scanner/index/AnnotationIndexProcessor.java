@@ -0,0 +1,206 @@
+package com.sym.scanner.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 编译期生成扫描索引的注解处理器, 在 META-INF/sym-index 下为每个注解和父类型生成一个文件, 每行一个类全名:
+ * <p>
+ * 1. annotation/{注解全名}: 类上带有该注解, 包括从父类继承的 @Inherited 注解;
+ * 2. method/{注解全名}: 类中声明的方法上带有该注解;
+ * 3. type/{类型全名}: 该类型的子类或实现类, 不包括类型本身.
+ * 只记录 RetentionPolicy.RUNTIME 的注解, 与反射看到的一致. 所有索引文件的相对路径记录在 META-INF/sym-index/index 中,
+ * {@link com.sym.scanner.impl.IndexedScanner}根据它判断类路径是否带有索引.
+ * <p>
+ * 增量编译时会合并上一次生成的索引, 去掉本次重新编译以及已经不存在的类.
+ * <p>
+ * 处理器没有通过 META-INF/services 注册, 依赖本工程时不会被自动启用, 需要使用方显式开启:
+ * javac 使用 -processor com.sym.scanner.index.AnnotationIndexProcessor; maven 在 maven-compiler-plugin 中配置:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *     &lt;path&gt;(本工程的坐标)&lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;com.sym.scanner.index.AnnotationIndexProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ * 显式指定处理器后不再自动发现其它处理器(如lombok、JMH的 org.openjdk.jmh.generators.BenchmarkProcessor), 需要一起列出
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@SupportedAnnotationTypes("*")
+public class AnnotationIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/sym-index/";
+    public static final String INDEX_FILE = INDEX_LOCATION + "index";
+    public static final String ANNOTATION = "annotation/";
+    public static final String METHOD = "method/";
+    public static final String TYPE = "type/";
+
+    private static final String OBJECT = "java.lang.Object";
+
+    /**
+     * 索引文件相对路径 -> 类全名集合
+     */
+    private final Map<String, Set<String>> index = new TreeMap<>();
+    /**
+     * 本次编译处理过的类
+     */
+    private final Set<String> processed = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                processType((TypeElement) element);
+            }
+        }
+        // 不占用注解, 其它处理器照常处理
+        return false;
+    }
+
+    private void processType(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        processed.add(className);
+        // 包含父类上的 @Inherited 注解
+        for (AnnotationMirror mirror : processingEnv.getElementUtils().getAllAnnotationMirrors(type)) {
+            addIfRuntime(ANNOTATION, mirror, className);
+        }
+        Set<String> superTypes = new HashSet<>();
+        collectSuperTypes(type.asType(), superTypes);
+        for (String superType : superTypes) {
+            add(TYPE + superType, className);
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.METHOD) {
+                for (AnnotationMirror mirror : enclosed.getAnnotationMirrors()) {
+                    addIfRuntime(METHOD, mirror, className);
+                }
+            } else if (enclosed instanceof TypeElement) {
+                // 内部类
+                processType((TypeElement) enclosed);
+            }
+        }
+    }
+
+    private void collectSuperTypes(TypeMirror typeMirror, Set<String> result) {
+        for (TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(typeMirror)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement element = (TypeElement) ((DeclaredType) superType).asElement();
+            String name = processingEnv.getElementUtils().getBinaryName(element).toString();
+            if (!OBJECT.equals(name) && result.add(name)) {
+                collectSuperTypes(superType, result);
+            }
+        }
+    }
+
+    private void addIfRuntime(String kind, AnnotationMirror mirror, String className) {
+        TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+        Retention retention = annotationType.getAnnotation(Retention.class);
+        if (Objects.nonNull(retention) && retention.value() == RetentionPolicy.RUNTIME) {
+            add(kind + processingEnv.getElementUtils().getBinaryName(annotationType), className);
+        }
+    }
+
+    private void add(String file, String className) {
+        index.computeIfAbsent(file, k -> new TreeSet<>()).add(className);
+    }
+
+    private void writeIndex() {
+        if (processed.isEmpty()) {
+            return;
+        }
+        mergePrevious();
+        try {
+            for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                write(INDEX_LOCATION + entry.getKey(), entry.getValue());
+            }
+            write(INDEX_FILE, index.keySet());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "生成扫描索引失败: " + e);
+        }
+    }
+
+    /**
+     * 合并上一次编译生成的索引, 本次处理过的类以本次为准, 已经找不到的类被丢弃
+     */
+    private void mergePrevious() {
+        Set<String> files = read(INDEX_FILE);
+        for (String file : files) {
+            for (String className : read(INDEX_LOCATION + file)) {
+                if (!processed.contains(className) && exists(className)) {
+                    add(file, className);
+                }
+            }
+        }
+    }
+
+    private boolean exists(String className) {
+        return Objects.nonNull(processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')));
+    }
+
+    private Set<String> read(String resource) {
+        Set<String> lines = new TreeSet<>();
+        try {
+            FileObject fileObject = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileObject.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        lines.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 第一次编译, 没有旧索引
+        }
+        return lines;
+    }
+
+    private void write(String resource, Set<String> lines) throws IOException {
+        FileObject fileObject = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+        try (Writer writer = fileObject.openWriter()) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+}
@@ -3,12 +3,19 @@ package com.sym.serialization;
 import com.caucho.hessian.io.*;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.sym.serialization.hessian.JavaTimeDeserializer;
+import com.sym.serialization.hessian.JavaTimeSerializer;
+import com.sym.serialization.hessian.JavaTimeType;
+import com.sym.serialization.schema.SchemaCodec;
+import com.sym.serialization.schema.SchemaInput;
+import com.sym.serialization.schema.SchemaOutput;
+import com.sym.serialization.xml.XmlObjectIterator;
+import com.sym.serialization.xml.XmlObjectWriter;
 import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
 import org.dozer.DozerBeanMapper;
 
 import java.io.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,8 +38,10 @@ public class SerializationUtil {
 
         // Hessian也不支持java8时间api，也需要对其增强
         ExtSerializerFactory extSerializerFactory = new ExtSerializerFactory();
-        extSerializerFactory.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer());
-        extSerializerFactory.addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer());
+        for (JavaTimeType timeType : JavaTimeType.values()) {
+            extSerializerFactory.addSerializer(timeType.getType(), new JavaTimeSerializer(timeType));
+            extSerializerFactory.addDeserializer(timeType.getType(), new JavaTimeDeserializer(timeType));
+        }
         serializerFactory = new SerializerFactory();
         serializerFactory.addFactory(extSerializerFactory);
     }
@@ -83,22 +92,26 @@ public class SerializationUtil {
      * 反序列化 :{@link HessianInput#readObject()}可以将字节数组反序列化成对象
      */
     public static class Hessian {
+        // Hessian2Output/Hessian2Input 内部自带缓冲区和引用表, 不是线程安全的, 每个线程复用一份,
+        // 通过 init() 重新绑定底层流时会重置内部状态
+        private static final ThreadLocal<HessianStreams> STREAMS_CACHE = ThreadLocal.withInitial(HessianStreams::new);
+
         /**
          * 序列化
          */
         public static byte[] serialize(Object o) throws IOException {
             assert null != o;
-            Hessian2Output hessian2Output = null;
-            try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                hessian2Output = new Hessian2Output(bos);
-                hessian2Output.setSerializerFactory(serializerFactory);
+            HessianStreams streams = STREAMS_CACHE.get();
+            ByteArrayOutputStream bos = streams.outputBuffer();
+            Hessian2Output hessian2Output = streams.output;
+            hessian2Output.init(bos);
+            try {
                 hessian2Output.writeObject(o);
                 hessian2Output.flush();
                 return bos.toByteArray();
             } finally {
-                if (null != hessian2Output) {
-                    hessian2Output.close();
-                }
+                // 解除对底层流的引用, 不能调用 close(), 否则会释放内部缓冲区
+                hessian2Output.init(null);
             }
         }
 
@@ -108,16 +121,43 @@ public class SerializationUtil {
         public static <T> T deserialize(byte[] bytes, Class<T> t) throws IOException {
             assert null != bytes && bytes.length > 0;
             assert null != t;
-            Hessian2Input hessian2Input = null;
-            try (ByteArrayInputStream bis = new ByteArrayInputStream(bytes)) {
-                hessian2Input = new Hessian2Input(bis);
-                hessian2Input.setSerializerFactory(serializerFactory);
+            Hessian2Input hessian2Input = STREAMS_CACHE.get().input;
+            hessian2Input.init(new ByteArrayInputStream(bytes));
+            try {
                 Object object = hessian2Input.readObject();
-                return mapper.map(object, t);
+                // 类型一致时无需再经过 dozer 拷贝
+                return t.isInstance(object) ? t.cast(object) : mapper.map(object, t);
             } finally {
-                if (null != hessian2Input) {
-                    hessian2Input.close();
+                hessian2Input.init(null);
+            }
+        }
+
+        /**
+         * 每个线程缓存的 Hessian 输入输出流
+         */
+        private static class HessianStreams {
+            // 超过这个大小的输出缓冲区不再复用, 避免偶发的大对象长期占用内存
+            private static final int MAX_CACHED_BUFFER_SIZE = 1024 * 1024;
+
+            private final Hessian2Output output;
+            private final Hessian2Input input;
+            private ByteArrayOutputStream buffer;
+
+            HessianStreams() {
+                this.output = new Hessian2Output(null);
+                this.output.setSerializerFactory(serializerFactory);
+                this.input = new Hessian2Input(null);
+                this.input.setSerializerFactory(serializerFactory);
+                this.buffer = new ByteArrayOutputStream(256);
+            }
+
+            ByteArrayOutputStream outputBuffer() {
+                if (buffer.size() > MAX_CACHED_BUFFER_SIZE) {
+                    buffer = new ByteArrayOutputStream(256);
+                } else {
+                    buffer.reset();
                 }
+                return buffer;
             }
         }
     }
@@ -171,6 +211,55 @@ public class SerializationUtil {
     }
 
 
+    /**
+     * 使用按类动态生成的 {@link SchemaCodec} 实现对象的序列化和反序列化, 适用于调用量最大的DTO.
+     * 字段按固定顺序写入, 整数使用 varint 编码且不写字段类型标记, 报文头部携带8字节的schema指纹,
+     * 反序列化时会校验指纹, 两端实体类定义不一致时直接失败, 而不是读出错位的数据.
+     * 序列化   :{@link SchemaCodec#write(Object, SchemaOutput)}
+     * 反序列化 :{@link SchemaCodec#read(SchemaInput)}
+     */
+    public static class Schema {
+        // SchemaOutput 不是线程安全的, 每个线程复用一个缓冲区
+        private static final ThreadLocal<SchemaOutput> OUTPUT_CACHE = ThreadLocal.withInitial(SchemaOutput::new);
+
+        /**
+         * 序列化
+         */
+        public static byte[] serialize(Object o) {
+            assert null != o;
+            SchemaCodec<?> codec = SchemaCodec.forClass(o.getClass());
+            SchemaOutput output = OUTPUT_CACHE.get();
+            output.reset();
+            output.writeRawLong(codec.getFingerprint());
+            codec.write(o, output);
+            return output.toBytes();
+        }
+
+        /**
+         * 反序列化
+         */
+        public static <T> T deserialize(byte[] bytes, Class<T> type) {
+            assert null != bytes && bytes.length > 0;
+            assert null != type;
+            SchemaCodec<T> codec = SchemaCodec.forClass(type);
+            SchemaInput input = new SchemaInput(bytes);
+            long fingerprint = input.readRawLong();
+            if (fingerprint != codec.getFingerprint()) {
+                throw new IllegalStateException("schema指纹不匹配, 期望:" + Long.toHexString(codec.getFingerprint())
+                        + ", 实际:" + Long.toHexString(fingerprint) + ", 请确认两端的" + type.getName() + "定义一致");
+            }
+            return codec.read(input);
+        }
+
+        /**
+         * 获取类的schema指纹, 可用于服务间的兼容性检查
+         */
+        public static long fingerprint(Class<?> type) {
+            return SchemaCodec.forClass(type).getFingerprint();
+        }
+    }
+
+
     /**
      * 使用第三方框架 XStream 实现对象的序列化和反序列化, XStream是线程安全的。
      * <p>
@@ -181,6 +270,12 @@ public class SerializationUtil {
         // XStream 是线程安全的
         private static com.thoughtworks.xstream.XStream xStream = new com.thoughtworks.xstream.XStream(new DomDriver());
 
+        // DomDriver 读取时会在内存中构建完整的DOM, 流式读写改用基于StAX的驱动
+        private static com.thoughtworks.xstream.XStream staxStream = new com.thoughtworks.xstream.XStream(new StaxDriver());
+
+        // 流式写入时的默认根节点
+        private final static String DEFAULT_ROOT_NODE = "objects";
+
         // XML的前缀, 如果需要将对象序列化成xml格式, 就需要加上这个前缀
         private final static String XML_PREFIX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
 
@@ -230,55 +325,43 @@ public class SerializationUtil {
         public static <T> T fromXml(String xml, Class<T> t) {
             return mapper.map(xStream.fromXML(xml), t);
         }
-    }
-
-    /**
-     * Hessian序列化java8的日期Api会抛出SOF异常, 自定义序列化器处理它
-     *
-     * @author shenyanming
-     * Created on 2020/5/20 11:52
-     */
-    public static class LocalDateTimeSerializer extends AbstractSerializer {
-
-        private DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-        @Override
-        public void writeObject(Object obj, AbstractHessianOutput out) throws IOException {
-            if (null == obj) {
-                out.writeNull();
-                return;
-            }
-            LocalDateTime localDateTime = (LocalDateTime) obj;
-            out.writeString(dateTimeFormatter.format(localDateTime));
+        /**
+         * 打开一个流式xml写入器, 对象逐个写入到输出流上, 适用于导出大批量数据
+         */
+        public static XmlObjectWriter openWriter(OutputStream os) throws IOException {
+            return openWriter(os, DEFAULT_ROOT_NODE);
         }
-    }
-
-    /**
-     * Hessian序列化java8的日期Api会抛出SOF异常, 自定义序列化器处理它
-     *
-     * @author shenyanming
-     * Created on 2020/5/20 16:40
-     */
-    public static class LocalDateTimeDeserializer extends AbstractDeserializer {
-
-        private DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+        public static XmlObjectWriter openWriter(OutputStream os, String rootNodeName) throws IOException {
+            assert null != os;
+            return new XmlObjectWriter(staxStream, os, rootNodeName);
+        }
 
-        @Override
-        public Object readObject(AbstractHessianInput in) throws IOException {
-            String string = in.readString();
-            try {
-                return LocalDateTime.parse(string, dateTimeFormatter);
-            } catch (Exception e) {
-                return null;
+        /**
+         * 将对象序列流式地写成xml
+         *
+         * @return 写入的对象个数
+         */
+        public static int writeXml(Iterable<?> objects, OutputStream os) throws IOException {
+            assert null != objects;
+            try (XmlObjectWriter writer = openWriter(os)) {
+                for (Object o : objects) {
+                    writer.write(o);
+                }
+                return writer.getCount();
             }
         }
 
-        @Override
-        public Class<?> getType() {
-            return LocalDateTime.class;
+        /**
+         * 流式读取{@link #openWriter(OutputStream)}写出的xml, 每次只反序列化一个对象
+         */
+        public static <T> XmlObjectIterator<T> readXml(InputStream is, Class<T> t) throws IOException {
+            assert null != is;
+            assert null != t;
+            return new XmlObjectIterator<>(staxStream, is,
+                    o -> null == o || t.isInstance(o) ? t.cast(o) : mapper.map(o, t));
         }
-
     }
 
 }
@@ -0,0 +1,87 @@
+package com.sym.serialization.hessian;
+
+import com.caucho.hessian.io.AbstractDeserializer;
+import com.caucho.hessian.io.AbstractHessianInput;
+import com.caucho.hessian.io.HessianProtocolException;
+
+import java.io.IOException;
+
+/**
+ * 与{@link JavaTimeSerializer}对应的反序列化器
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class JavaTimeDeserializer extends AbstractDeserializer {
+
+    private final JavaTimeType timeType;
+
+    public JavaTimeDeserializer(JavaTimeType timeType) {
+        this.timeType = timeType;
+    }
+
+    @Override
+    public Class<?> getType() {
+        return timeType.getType();
+    }
+
+    /**
+     * 数据不是以对象格式写入的, 只可能是旧版本写入的字符串
+     */
+    @Override
+    public Object readObject(AbstractHessianInput in) throws IOException {
+        String text = in.readString();
+        try {
+            return null == text ? null : timeType.parse(text);
+        } catch (Exception e) {
+            throw new HessianProtocolException("无法解析" + getType().getName() + ": " + text, e);
+        }
+    }
+
+    /**
+     * Hessian 1.0 的 map 格式
+     */
+    @Override
+    public Object readMap(AbstractHessianInput in) throws IOException {
+        Object[] values = new Object[timeType.getFieldNames().length];
+        while (!in.isEnd()) {
+            int index = timeType.indexOf(in.readString());
+            Object value = in.readObject();
+            if (index >= 0) {
+                values[index] = value;
+            }
+        }
+        in.readMapEnd();
+        Object obj = timeType.create(values);
+        in.addRef(obj);
+        return obj;
+    }
+
+    @Override
+    public Object[] createFields(int len) {
+        return new String[len];
+    }
+
+    @Override
+    public Object createField(String name) {
+        return name;
+    }
+
+    /**
+     * Hessian 2.0 的对象格式, 字段顺序以类定义为准
+     */
+    @Override
+    public Object readObject(AbstractHessianInput in, Object[] fields) throws IOException {
+        Object[] values = new Object[timeType.getFieldNames().length];
+        for (Object field : fields) {
+            int index = timeType.indexOf((String) field);
+            Object value = in.readObject();
+            if (index >= 0) {
+                values[index] = value;
+            }
+        }
+        Object obj = timeType.create(values);
+        in.addRef(obj);
+        return obj;
+    }
+}
@@ -0,0 +1,56 @@
+package com.sym.serialization.hessian;
+
+import com.caucho.hessian.io.AbstractHessianOutput;
+import com.caucho.hessian.io.AbstractSerializer;
+
+import java.io.IOException;
+
+/**
+ * Hessian序列化java8的日期Api会抛出SOF异常, 自定义序列化器处理它.
+ * 以Hessian对象的形式写入, 类定义在同一个流里只写一次, 后续实例只写数值字段
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class JavaTimeSerializer extends AbstractSerializer {
+
+    private final JavaTimeType timeType;
+
+    public JavaTimeSerializer(JavaTimeType timeType) {
+        this.timeType = timeType;
+    }
+
+    @Override
+    public void writeObject(Object obj, AbstractHessianOutput out) throws IOException {
+        if (null == obj) {
+            out.writeNull();
+            return;
+        }
+        if (out.addRef(obj)) {
+            return;
+        }
+        String className = obj.getClass().getName();
+        String[] fieldNames = timeType.getFieldNames();
+        int ref = out.writeObjectBegin(className);
+        if (ref < -1) {
+            // Hessian 1.0 的 map 格式, 每个字段值之前都要写字段名
+            for (int i = 0; i < fieldNames.length; i++) {
+                out.writeString(fieldNames[i]);
+                timeType.writeValue(obj, i, out);
+            }
+            out.writeMapEnd();
+            return;
+        }
+        if (ref == -1) {
+            // 第一次出现该类型, 先写类定义
+            out.writeInt(fieldNames.length);
+            for (String fieldName : fieldNames) {
+                out.writeString(fieldName);
+            }
+            out.writeObjectBegin(className);
+        }
+        for (int i = 0; i < fieldNames.length; i++) {
+            timeType.writeValue(obj, i, out);
+        }
+    }
+}
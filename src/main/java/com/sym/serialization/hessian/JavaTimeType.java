@@ -0,0 +1,171 @@
+package com.sym.serialization.hessian;
+
+import com.caucho.hessian.io.AbstractHessianOutput;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hessian支持的java8时间类型, 全部按照基于epoch的数值编码, 不经过格式化, 也不会丢失纳秒精度.
+ * 每种类型对应一组字段名, 字段值依次写入, 读取时按字段名还原
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public enum JavaTimeType {
+
+    /**
+     * 按UTC偏移换算成 epoch秒 + 纳秒
+     */
+    LOCAL_DATE_TIME(LocalDateTime.class, "second", "nano") {
+        private final DateTimeFormatter legacyFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        @Override
+        void writeValue(Object obj, int index, AbstractHessianOutput out) throws IOException {
+            LocalDateTime localDateTime = (LocalDateTime) obj;
+            if (index == 0) {
+                out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC));
+            } else {
+                out.writeInt(localDateTime.getNano());
+            }
+        }
+
+        @Override
+        Object create(Object[] values) {
+            return LocalDateTime.ofEpochSecond(longValue(values[0]), intValue(values[1]), ZoneOffset.UTC);
+        }
+
+        @Override
+        Object parse(String text) {
+            // 兼容旧版本以 yyyy-MM-dd HH:mm:ss 字符串写入的数据
+            return LocalDateTime.parse(text, legacyFormatter);
+        }
+    },
+
+    /**
+     * epoch天数
+     */
+    LOCAL_DATE(LocalDate.class, "day") {
+        @Override
+        void writeValue(Object obj, int index, AbstractHessianOutput out) throws IOException {
+            out.writeLong(((LocalDate) obj).toEpochDay());
+        }
+
+        @Override
+        Object create(Object[] values) {
+            return LocalDate.ofEpochDay(longValue(values[0]));
+        }
+
+        @Override
+        Object parse(String text) {
+            return LocalDate.parse(text);
+        }
+    },
+
+    /**
+     * epoch秒 + 纳秒
+     */
+    INSTANT(Instant.class, "second", "nano") {
+        @Override
+        void writeValue(Object obj, int index, AbstractHessianOutput out) throws IOException {
+            Instant instant = (Instant) obj;
+            if (index == 0) {
+                out.writeLong(instant.getEpochSecond());
+            } else {
+                out.writeInt(instant.getNano());
+            }
+        }
+
+        @Override
+        Object create(Object[] values) {
+            return Instant.ofEpochSecond(longValue(values[0]), intValue(values[1]));
+        }
+
+        @Override
+        Object parse(String text) {
+            return Instant.parse(text);
+        }
+    },
+
+    /**
+     * epoch秒 + 纳秒 + 时区ID
+     */
+    ZONED_DATE_TIME(ZonedDateTime.class, "second", "nano", "zone") {
+        @Override
+        void writeValue(Object obj, int index, AbstractHessianOutput out) throws IOException {
+            ZonedDateTime zonedDateTime = (ZonedDateTime) obj;
+            if (index == 0) {
+                out.writeLong(zonedDateTime.toEpochSecond());
+            } else if (index == 1) {
+                out.writeInt(zonedDateTime.getNano());
+            } else {
+                out.writeString(zonedDateTime.getZone().getId());
+            }
+        }
+
+        @Override
+        Object create(Object[] values) {
+            Instant instant = Instant.ofEpochSecond(longValue(values[0]), intValue(values[1]));
+            return ZonedDateTime.ofInstant(instant, ZoneId.of((String) values[2]));
+        }
+
+        @Override
+        Object parse(String text) {
+            return ZonedDateTime.parse(text);
+        }
+    };
+
+    private final Class<?> type;
+    private final String[] fieldNames;
+
+    JavaTimeType(Class<?> type, String... fieldNames) {
+        this.type = type;
+        this.fieldNames = fieldNames;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    int indexOf(String fieldName) {
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(fieldName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 写入下标为 index 的字段值, 下标与{@link #fieldNames}一一对应
+     */
+    abstract void writeValue(Object obj, int index, AbstractHessianOutput out) throws IOException;
+
+    /**
+     * 根据按{@link #fieldNames}顺序排好的字段值还原对象
+     */
+    abstract Object create(Object[] values);
+
+    /**
+     * 从字符串还原对象
+     */
+    abstract Object parse(String text);
+
+    private static long longValue(Object value) {
+        return null == value ? 0L : ((Number) value).longValue();
+    }
+
+    private static int intValue(Object value) {
+        return null == value ? 0 : ((Number) value).intValue();
+    }
+}
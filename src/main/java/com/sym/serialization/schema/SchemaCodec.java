@@ -0,0 +1,59 @@
+package com.sym.serialization.schema;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按类生成的专用编解码器. 子类由{@link SchemaCodecGenerator}在第一次使用时通过ASM动态生成,
+ * 字段按固定顺序直接调用 getter/setter 读写, 不走反射也不写字段类型标记.
+ * 生成后的实例是无状态的, 可以被多线程共享
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public abstract class SchemaCodec<T> {
+
+    private static final Map<Class<?>, SchemaCodec<?>> CODEC_CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+
+    /**
+     * schema指纹, 由类名以及有序的字段名、字段类型计算得出, 字段增删改都会改变它
+     */
+    private final long fingerprint;
+
+    protected SchemaCodec(Class<T> type, long fingerprint) {
+        this.type = type;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * 获取类对应的编解码器, 不存在则动态生成
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SchemaCodec<T> forClass(Class<T> type) {
+        SchemaCodec<?> codec = CODEC_CACHE.get(type);
+        if (null == codec) {
+            codec = CODEC_CACHE.computeIfAbsent(type, SchemaCodecGenerator::generate);
+        }
+        return (SchemaCodec<T>) codec;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 按字段顺序写入对象, 对象本身不能为null
+     */
+    public abstract void write(Object obj, SchemaOutput out);
+
+    /**
+     * 按字段顺序读取对象
+     */
+    public abstract T read(SchemaInput in);
+}
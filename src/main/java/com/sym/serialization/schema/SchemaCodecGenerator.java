@@ -0,0 +1,309 @@
+package com.sym.serialization.schema;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 使用ASM为实体类生成{@link SchemaCodec}子类.
+ * <p>
+ * 规则:
+ * 1. 收集类及其父类所有非 static、非 transient 的字段, 按字段名排序作为固定的写入顺序;
+ * 2. 每个字段都必须有 public 的 getter 和 setter(兼容lombok链式setter), 类型与字段一致, 实体类必须有 public 无参构造方法;
+ * 3. 支持基本类型及其包装类、String、枚举、BigDecimal、BigInteger、Date、Instant、LocalDate、LocalDateTime,
+ * 其它类型当作嵌套实体按声明类型递归编码(不支持多态, 也不支持集合和循环引用)
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+class SchemaCodecGenerator {
+
+    private static final String CODEC_INTERNAL_NAME = Type.getInternalName(SchemaCodec.class);
+    private static final String OUTPUT_INTERNAL_NAME = Type.getInternalName(SchemaOutput.class);
+    private static final String INPUT_INTERNAL_NAME = Type.getInternalName(SchemaInput.class);
+    private static final String GENERATED_PACKAGE = "com/sym/serialization/schema/generated/";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    /**
+     * 字段类型 -> SchemaOutput/SchemaInput 的方法名后缀, 例如 int -> writeInt/readInt
+     */
+    private static final Map<Class<?>, String> METHOD_SUFFIX = new HashMap<>();
+
+    static {
+        METHOD_SUFFIX.put(boolean.class, "Boolean");
+        METHOD_SUFFIX.put(byte.class, "Byte");
+        METHOD_SUFFIX.put(short.class, "Short");
+        METHOD_SUFFIX.put(char.class, "Char");
+        METHOD_SUFFIX.put(int.class, "Int");
+        METHOD_SUFFIX.put(long.class, "Long");
+        METHOD_SUFFIX.put(float.class, "Float");
+        METHOD_SUFFIX.put(double.class, "Double");
+        METHOD_SUFFIX.put(Boolean.class, "BooleanObj");
+        METHOD_SUFFIX.put(Byte.class, "ByteObj");
+        METHOD_SUFFIX.put(Short.class, "ShortObj");
+        METHOD_SUFFIX.put(Character.class, "CharObj");
+        METHOD_SUFFIX.put(Integer.class, "IntObj");
+        METHOD_SUFFIX.put(Long.class, "LongObj");
+        METHOD_SUFFIX.put(Float.class, "FloatObj");
+        METHOD_SUFFIX.put(Double.class, "DoubleObj");
+        METHOD_SUFFIX.put(String.class, "String");
+        METHOD_SUFFIX.put(BigDecimal.class, "BigDecimal");
+        METHOD_SUFFIX.put(BigInteger.class, "BigInteger");
+        METHOD_SUFFIX.put(Date.class, "Date");
+        METHOD_SUFFIX.put(Instant.class, "Instant");
+        METHOD_SUFFIX.put(LocalDate.class, "LocalDate");
+        METHOD_SUFFIX.put(LocalDateTime.class, "LocalDateTime");
+    }
+
+    static SchemaCodec<?> generate(Class<?> type) {
+        List<Property> properties = resolveProperties(type);
+        long fingerprint = fingerprint(type, properties);
+        String className = GENERATED_PACKAGE + type.getName().replace('.', '_') + "$$SchemaCodec$$" + COUNTER.incrementAndGet();
+        byte[] bytes = generateBytes(className, type, properties);
+        try {
+            Class<?> codecClass = new CodecClassLoader(type.getClassLoader()).define(className.replace('/', '.'), bytes);
+            Constructor<?> constructor = codecClass.getConstructor(Class.class, long.class);
+            return (SchemaCodec<?>) constructor.newInstance(type, fingerprint);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("生成" + type.getName() + "的SchemaCodec失败", e);
+        }
+    }
+
+    /**
+     * 计算schema指纹, 使用64位的FNV-1a哈希. 枚举按名称编码, 包含所有常量名; 嵌套实体包含它自己的字段,
+     * 两端的枚举常量或嵌套实体的字段不一致时指纹也不同
+     */
+    static long fingerprint(Class<?> type, List<Property> properties) {
+        StringBuilder sb = new StringBuilder();
+        Set<Class<?>> visiting = new HashSet<>();
+        visiting.add(type);
+        describe(type, properties, visiting, sb);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : sb.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void describe(Class<?> type, List<Property> properties, Set<Class<?>> visiting, StringBuilder sb) {
+        sb.append(type.getName());
+        for (Property property : properties) {
+            Class<?> propertyType = property.type;
+            sb.append(';').append(property.name).append(':').append(propertyType.getName());
+            if (METHOD_SUFFIX.containsKey(propertyType)) {
+                continue;
+            }
+            sb.append('{');
+            if (propertyType.isEnum()) {
+                for (Object constant : propertyType.getEnumConstants()) {
+                    sb.append(((Enum<?>) constant).name()).append(',');
+                }
+            } else if (visiting.add(propertyType)) {
+                describe(propertyType, resolveProperties(propertyType), visiting, sb);
+                visiting.remove(propertyType);
+            }
+            sb.append('}');
+        }
+    }
+
+    private static List<Property> resolveProperties(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers()) || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException(type.getName() + "必须是public的具体类");
+        }
+        try {
+            type.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + "缺少public无参构造方法");
+        }
+        List<Property> properties = new ArrayList<>();
+        for (Class<?> c = type; null != c && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                properties.add(new Property(field.getName(), field.getType(),
+                        findGetter(type, field), findSetter(type, field)));
+            }
+        }
+        properties.sort(Comparator.comparing(p -> p.name));
+        return properties;
+    }
+
+    /**
+     * getter的返回值类型必须与字段类型一致, 生成的字节码按字段类型读写, 类型不一致会导致校验失败
+     */
+    private static Method findGetter(Class<?> type, Field field) {
+        String name = capitalize(field.getName());
+        Method getter = findMethod(type, "get" + name);
+        if ((null == getter || getter.getReturnType() != field.getType()) && field.getType() == boolean.class) {
+            getter = findMethod(type, "is" + name);
+        }
+        if (null == getter) {
+            throw new IllegalArgumentException(type.getName() + "的字段[" + field.getName() + "]缺少public getter");
+        }
+        if (getter.getReturnType() != field.getType()) {
+            throw new IllegalArgumentException(type.getName() + "的字段[" + field.getName() + "]的getter返回"
+                    + getter.getReturnType().getName() + ", 与字段类型" + field.getType().getName() + "不一致");
+        }
+        return getter;
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Method findSetter(Class<?> type, Field field) {
+        try {
+            return type.getMethod("set" + capitalize(field.getName()), field.getType());
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + "的字段[" + field.getName() + "]缺少public setter");
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /*------------------------------------------ 字节码生成 ------------------------------------------*/
+
+    private static byte[] generateBytes(String className, Class<?> type, List<Property> properties) {
+        String typeInternalName = Type.getInternalName(type);
+        // 方法体内没有分支跳转, 只需要计算栈大小, 无需计算栈帧
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, CODEC_INTERNAL_NAME, null);
+
+        // 构造方法: 直接调用父类构造方法
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(Ljava/lang/Class;J)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitVarInsn(Opcodes.LLOAD, 2);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, CODEC_INTERNAL_NAME, "<init>", "(Ljava/lang/Class;J)V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // write(Object obj, SchemaOutput out)
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "write", "(Ljava/lang/Object;L" + OUTPUT_INTERNAL_NAME + ";)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, typeInternalName);
+        mv.visitVarInsn(Opcodes.ASTORE, 3);
+        for (Property property : properties) {
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            invoke(mv, type, property.getter);
+            String suffix = METHOD_SUFFIX.get(property.type);
+            if (null != suffix) {
+                String descriptor = "(" + Type.getDescriptor(property.type) + ")V";
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUTPUT_INTERNAL_NAME, "write" + suffix, descriptor, false);
+            } else if (property.type.isEnum()) {
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUTPUT_INTERNAL_NAME, "writeEnum", "(Ljava/lang/Enum;)V", false);
+            } else {
+                mv.visitLdcInsn(Type.getType(property.type));
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, OUTPUT_INTERNAL_NAME, "writeBean", "(Ljava/lang/Object;Ljava/lang/Class;)V", false);
+            }
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        // Object read(SchemaInput in)
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "read", "(L" + INPUT_INTERNAL_NAME + ";)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        mv.visitTypeInsn(Opcodes.NEW, typeInternalName);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, typeInternalName, "<init>", "()V", false);
+        mv.visitVarInsn(Opcodes.ASTORE, 2);
+        for (Property property : properties) {
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            String suffix = METHOD_SUFFIX.get(property.type);
+            if (null != suffix) {
+                String descriptor = "()" + Type.getDescriptor(property.type);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, INPUT_INTERNAL_NAME, "read" + suffix, descriptor, false);
+            } else if (property.type.isEnum()) {
+                mv.visitLdcInsn(Type.getType(property.type));
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, INPUT_INTERNAL_NAME, "readEnum", "(Ljava/lang/Class;)Ljava/lang/Enum;", false);
+                mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(property.type));
+            } else {
+                mv.visitLdcInsn(Type.getType(property.type));
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, INPUT_INTERNAL_NAME, "readBean", "(Ljava/lang/Class;)Ljava/lang/Object;", false);
+                mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(property.type));
+            }
+            invoke(mv, type, property.setter);
+            // lombok的链式setter会返回this, 需要弹出
+            Class<?> returnType = property.setter.getReturnType();
+            if (returnType != void.class) {
+                mv.visitInsn(returnType == long.class || returnType == double.class ? Opcodes.POP2 : Opcodes.POP);
+            }
+        }
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void invoke(MethodVisitor mv, Class<?> type, Method method) {
+        // 统一以实体类作为owner调用, 父类中声明的方法也能正确解析
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(type), method.getName(),
+                Type.getMethodDescriptor(method), false);
+    }
+
+    static class Property {
+        final String name;
+        final Class<?> type;
+        final Method getter;
+        final Method setter;
+
+        Property(String name, Class<?> type, Method getter, Method setter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * 以实体类的类加载器作为父加载器, 保证生成的类能访问到实体类
+     */
+    private static class CodecClassLoader extends ClassLoader {
+        CodecClassLoader(ClassLoader parent) {
+            super(null == parent ? SchemaCodecGenerator.class.getClassLoader() : parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
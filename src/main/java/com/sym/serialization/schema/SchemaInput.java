@@ -0,0 +1,241 @@
+package com.sym.serialization.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * schema编码的输入, 与{@link SchemaOutput}一一对应. 非线程安全
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class SchemaInput {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public SchemaInput(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public SchemaInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    private void require(int n) {
+        if (position + n > limit) {
+            throw new IllegalStateException("schema数据不完整, 需要" + n + "个字节, 剩余" + remaining() + "个字节");
+        }
+    }
+
+    /*------------------------------------------ 基础解码 ------------------------------------------*/
+
+    public int readRawByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public long readRawLong() {
+        require(8);
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (buffer[position++] & 0xFF);
+        }
+        return v;
+    }
+
+    public int readUnsignedVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readRawByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("varint编码格式错误");
+    }
+
+    public long readUnsignedVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readRawByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("varlong编码格式错误");
+    }
+
+    public byte[] readBytes() {
+        int length = readUnsignedVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    private boolean readNullFlag() {
+        return readRawByte() != 0;
+    }
+
+    /*------------------------------------------ 基本类型 ------------------------------------------*/
+
+    public boolean readBoolean() {
+        return readRawByte() != 0;
+    }
+
+    public byte readByte() {
+        return (byte) readRawByte();
+    }
+
+    public short readShort() {
+        return (short) readInt();
+    }
+
+    public char readChar() {
+        return (char) readUnsignedVarInt();
+    }
+
+    public int readInt() {
+        int v = readUnsignedVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public long readLong() {
+        long v = readUnsignedVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public float readFloat() {
+        require(4);
+        int bits = 0;
+        for (int i = 0; i < 4; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Float.intBitsToFloat(bits);
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readRawLong());
+    }
+
+    /*------------------------------------------ 包装类型 ------------------------------------------*/
+
+    public Boolean readBooleanObj() {
+        int flag = readRawByte();
+        return flag == 0 ? null : flag == 2;
+    }
+
+    public Byte readByteObj() {
+        return readNullFlag() ? readByte() : null;
+    }
+
+    public Short readShortObj() {
+        return readNullFlag() ? readShort() : null;
+    }
+
+    public Character readCharObj() {
+        return readNullFlag() ? readChar() : null;
+    }
+
+    public Integer readIntObj() {
+        return readNullFlag() ? readInt() : null;
+    }
+
+    public Long readLongObj() {
+        return readNullFlag() ? readLong() : null;
+    }
+
+    public Float readFloatObj() {
+        return readNullFlag() ? readFloat() : null;
+    }
+
+    public Double readDoubleObj() {
+        return readNullFlag() ? readDouble() : null;
+    }
+
+    /*------------------------------------------ 常用引用类型 ------------------------------------------*/
+
+    public String readString() {
+        int length = readUnsignedVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String s = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return s;
+    }
+
+    public Enum<?> readEnum(Class<?> enumType) {
+        int ordinal = readUnsignedVarInt() - 1;
+        if (ordinal < 0) {
+            return null;
+        }
+        Object[] constants = enumType.getEnumConstants();
+        if (ordinal >= constants.length) {
+            throw new IllegalStateException("枚举" + enumType.getName() + "不存在序号为" + ordinal + "的常量");
+        }
+        return (Enum<?>) constants[ordinal];
+    }
+
+    public BigDecimal readBigDecimal() {
+        if (!readNullFlag()) {
+            return null;
+        }
+        int scale = readInt();
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public BigInteger readBigInteger() {
+        byte[] bytes = readBytes();
+        return null == bytes ? null : new BigInteger(bytes);
+    }
+
+    public Date readDate() {
+        return readNullFlag() ? new Date(readLong()) : null;
+    }
+
+    public Instant readInstant() {
+        if (!readNullFlag()) {
+            return null;
+        }
+        long seconds = readLong();
+        return Instant.ofEpochSecond(seconds, readUnsignedVarInt());
+    }
+
+    public LocalDate readLocalDate() {
+        return readNullFlag() ? LocalDate.ofEpochDay(readLong()) : null;
+    }
+
+    public LocalDateTime readLocalDateTime() {
+        if (!readNullFlag()) {
+            return null;
+        }
+        long seconds = readLong();
+        return LocalDateTime.ofEpochSecond(seconds, readUnsignedVarInt(), ZoneOffset.UTC);
+    }
+
+    public Object readBean(Class<?> declaredType) {
+        return readNullFlag() ? SchemaCodec.forClass(declaredType).read(this) : null;
+    }
+}
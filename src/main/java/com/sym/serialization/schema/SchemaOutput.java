@@ -0,0 +1,251 @@
+package com.sym.serialization.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * schema编码的输出缓冲区, 整数都使用 zigzag + varint 编码, 不写任何字段类型标记.
+ * 包装类型、字符串等引用类型只会多写一个字节(或者复用长度位)来标记 null.
+ * 非线程安全, 可以通过{@link #reset()}重复使用
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public final class SchemaOutput {
+
+    private byte[] buffer;
+    private int position;
+
+    public SchemaOutput() {
+        this(256);
+    }
+
+    public SchemaOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * 重置写入位置, 底层数组会保留下来继续复用
+     */
+    public void reset() {
+        this.position = 0;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int required) {
+        if (position + required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + required));
+        }
+    }
+
+    /*------------------------------------------ 基础编码 ------------------------------------------*/
+
+    public void writeRawByte(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * 定长写入8个字节, 只用于schema指纹这种分布均匀的数值
+     */
+    public void writeRawLong(long v) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (v >>> shift);
+        }
+    }
+
+    public void writeUnsignedVarInt(int v) {
+        ensureCapacity(5);
+        while ((v & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    public void writeUnsignedVarLong(long v) {
+        ensureCapacity(10);
+        while ((v & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        if (null == bytes) {
+            writeUnsignedVarInt(0);
+            return;
+        }
+        writeUnsignedVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private boolean writeNullFlag(Object value) {
+        writeRawByte(null == value ? 0 : 1);
+        return null != value;
+    }
+
+    /*------------------------------------------ 基本类型 ------------------------------------------*/
+
+    public void writeBoolean(boolean v) {
+        writeRawByte(v ? 1 : 0);
+    }
+
+    public void writeByte(byte v) {
+        writeRawByte(v);
+    }
+
+    public void writeShort(short v) {
+        writeInt(v);
+    }
+
+    public void writeChar(char v) {
+        writeUnsignedVarInt(v);
+    }
+
+    public void writeInt(int v) {
+        writeUnsignedVarInt((v << 1) ^ (v >> 31));
+    }
+
+    public void writeLong(long v) {
+        writeUnsignedVarLong((v << 1) ^ (v >> 63));
+    }
+
+    public void writeFloat(float v) {
+        int bits = Float.floatToRawIntBits(v);
+        ensureCapacity(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeDouble(double v) {
+        writeRawLong(Double.doubleToRawLongBits(v));
+    }
+
+    /*------------------------------------------ 包装类型 ------------------------------------------*/
+
+    public void writeBooleanObj(Boolean v) {
+        // 0-null, 1-false, 2-true
+        writeRawByte(null == v ? 0 : (v ? 2 : 1));
+    }
+
+    public void writeByteObj(Byte v) {
+        if (writeNullFlag(v)) {
+            writeByte(v);
+        }
+    }
+
+    public void writeShortObj(Short v) {
+        if (writeNullFlag(v)) {
+            writeShort(v);
+        }
+    }
+
+    public void writeCharObj(Character v) {
+        if (writeNullFlag(v)) {
+            writeChar(v);
+        }
+    }
+
+    public void writeIntObj(Integer v) {
+        if (writeNullFlag(v)) {
+            writeInt(v);
+        }
+    }
+
+    public void writeLongObj(Long v) {
+        if (writeNullFlag(v)) {
+            writeLong(v);
+        }
+    }
+
+    public void writeFloatObj(Float v) {
+        if (writeNullFlag(v)) {
+            writeFloat(v);
+        }
+    }
+
+    public void writeDoubleObj(Double v) {
+        if (writeNullFlag(v)) {
+            writeDouble(v);
+        }
+    }
+
+    /*------------------------------------------ 常用引用类型 ------------------------------------------*/
+
+    public void writeString(String v) {
+        writeBytes(null == v ? null : v.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 枚举只写 ordinal, 0 表示 null
+     */
+    public void writeEnum(Enum<?> v) {
+        writeUnsignedVarInt(null == v ? 0 : v.ordinal() + 1);
+    }
+
+    public void writeBigDecimal(BigDecimal v) {
+        if (writeNullFlag(v)) {
+            writeInt(v.scale());
+            writeBytes(v.unscaledValue().toByteArray());
+        }
+    }
+
+    public void writeBigInteger(BigInteger v) {
+        writeBytes(null == v ? null : v.toByteArray());
+    }
+
+    public void writeDate(Date v) {
+        if (writeNullFlag(v)) {
+            writeLong(v.getTime());
+        }
+    }
+
+    public void writeInstant(Instant v) {
+        if (writeNullFlag(v)) {
+            writeLong(v.getEpochSecond());
+            writeUnsignedVarInt(v.getNano());
+        }
+    }
+
+    public void writeLocalDate(LocalDate v) {
+        if (writeNullFlag(v)) {
+            writeLong(v.toEpochDay());
+        }
+    }
+
+    public void writeLocalDateTime(LocalDateTime v) {
+        if (writeNullFlag(v)) {
+            writeLong(v.toEpochSecond(ZoneOffset.UTC));
+            writeUnsignedVarInt(v.getNano());
+        }
+    }
+
+    /**
+     * 嵌套的实体类, 按照声明类型对应的{@link SchemaCodec}写入, 不支持多态
+     */
+    public void writeBean(Object v, Class<?> declaredType) {
+        if (writeNullFlag(v)) {
+            SchemaCodec.forClass(declaredType).write(v, this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sym.serialization.xml;
+
+import com.thoughtworks.xstream.XStream;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * 以流的方式读取{@link XmlObjectWriter}写出的xml文档, 每次只反序列化一个对象, 不会持有整个文档.
+ * 使用完需要调用{@link #close()}, 底层的{@link InputStream}仍由调用方负责关闭. 非线程安全
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class XmlObjectIterator<T> implements Iterator<T>, Closeable {
+
+    private final ObjectInputStream objectInputStream;
+    private final Function<Object, T> converter;
+
+    /**
+     * 预读的下一个对象
+     */
+    private T next;
+    private boolean prefetched;
+    private boolean finished;
+
+    public XmlObjectIterator(XStream xStream, InputStream is, Function<Object, T> converter) throws IOException {
+        this.objectInputStream = xStream.createObjectInputStream(is);
+        this.converter = converter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (prefetched) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            next = converter.apply(objectInputStream.readObject());
+            prefetched = true;
+            return true;
+        } catch (EOFException e) {
+            // 读到根节点的结束标签
+            finished = true;
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        prefetched = false;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        prefetched = false;
+        next = null;
+        objectInputStream.close();
+    }
+}
@@ -0,0 +1,58 @@
+package com.sym.serialization.xml;
+
+import com.thoughtworks.xstream.XStream;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * 以流的方式将对象序列逐个写成xml, 每写一个对象就直接输出到底层流上, 不会在内存中构建整个文档.
+ * 生成的文档格式为:
+ * <pre>
+ * &lt;objects&gt;
+ *     &lt;com.sym.XXX&gt;...&lt;/com.sym.XXX&gt;
+ *     &lt;com.sym.XXX&gt;...&lt;/com.sym.XXX&gt;
+ * &lt;/objects&gt;
+ * </pre>
+ * 必须调用{@link #close()}才会写入根节点的结束标签, 底层的{@link OutputStream}仍由调用方负责关闭. 非线程安全
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class XmlObjectWriter implements Closeable, Flushable {
+
+    private final ObjectOutputStream objectOutputStream;
+    private int count;
+
+    public XmlObjectWriter(XStream xStream, OutputStream os, String rootNodeName) throws IOException {
+        this.objectOutputStream = xStream.createObjectOutputStream(os, rootNodeName);
+    }
+
+    /**
+     * 写入一个对象
+     */
+    public void write(Object o) throws IOException {
+        objectOutputStream.writeObject(o);
+        count++;
+    }
+
+    /**
+     * 已经写入的对象个数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        objectOutputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        objectOutputStream.close();
+    }
+}
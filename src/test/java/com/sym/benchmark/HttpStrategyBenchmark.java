@@ -0,0 +1,168 @@
+package com.sym.benchmark;
+
+import com.sym.common.LocalHttpServer;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
+import com.sym.http.HttpUtil;
+import com.sym.http.protocol.HttpRequest;
+import com.sym.http.protocol.HttpResponse;
+import com.sym.http.strategy.IHttpStrategy;
+import com.sym.http.strategy.impl.ApacheHttpClientStrategy;
+import com.sym.http.strategy.impl.JdkHttpStrategy;
+import com.sym.http.strategy.impl.OkClientStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三种{@link IHttpStrategy}的压测, 请求同一个JVM内的{@link LocalHttpServer}, 直接运行 main 方法即可.
+ * <p>
+ * 1. 参数组合: 策略 x 是否复用连接 x 响应体大小;
+ * 2. throughput 报告并发下的 ops/s, latency 按采样报告 p50/p99/p999 延迟(微秒);
+ * 3. 并发数通过 -Dsym.benchmark.threads 指定, 默认16.
+ * 服务端和客户端在同一台机器上, 结果只用于策略之间的横向比较
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpStrategyBenchmark {
+
+    public static final String THREADS_PROPERTY = "sym.benchmark.threads";
+
+    @Param({"JDK", "OK_CLINT", "APACHE_HTTP_CLIENT"})
+    private String strategy;
+
+    @Param({"true", "false"})
+    private boolean keepAlive;
+
+    /**
+     * 响应体字节数
+     */
+    @Param({"128", "16384", "262144"})
+    private int payload;
+
+    private LocalHttpServer server;
+    private IHttpStrategy httpStrategy;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int threads = threads();
+        server = LocalHttpServer.start(threads * 2);
+        HttpClientProfiles profiles = new HttpClientProfiles();
+        HttpClientProfile profile = new HttpClientProfile();
+        profile.setKeepAlive(keepAlive);
+        profile.setMaxConnections(threads);
+        profiles.setDefaultProfile(profile);
+        httpStrategy = newStrategy(HttpUtil.Strategy.valueOf(strategy), profiles, threads);
+        request = new HttpRequest();
+        request.setUrl(server.url("/bytes/" + payload));
+        // 预先校验一次, 避免压测的是错误响应
+        HttpResponse response = httpStrategy.get(request);
+        if (response.getStatusCode() != 200 || response.getData().length() != payload) {
+            throw new IllegalStateException(strategy + "响应不正确: " + response.getStatusCode());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (httpStrategy instanceof Closeable) {
+            ((Closeable) httpStrategy).close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public HttpResponse throughput() {
+        return httpStrategy.get(request);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HttpResponse latency() {
+        return httpStrategy.get(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int threads = threads();
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(HttpStrategyBenchmark.class.getName())
+                .threads(threads)
+                // HttpURLConnection 默认每个主机只保留5个空闲连接
+                .jvmArgsAppend("-D" + THREADS_PROPERTY + "=" + threads, "-Dhttp.maxConnections=" + threads);
+        summary(new Runner(builder.build()).run());
+    }
+
+    private static IHttpStrategy newStrategy(HttpUtil.Strategy strategy, HttpClientProfiles profiles, int threads) {
+        switch (strategy) {
+            case JDK:
+                return new JdkHttpStrategy(profiles);
+            case OK_CLINT:
+                return new OkClientStrategy(profiles);
+            case APACHE_HTTP_CLIENT:
+                ApacheHttpClientStrategy.PoolConfig poolConfig = new ApacheHttpClientStrategy.PoolConfig();
+                poolConfig.setMaxPerRoute(threads);
+                return new ApacheHttpClientStrategy(poolConfig, profiles);
+            default:
+                throw new IllegalArgumentException("unknown strategy " + strategy);
+        }
+    }
+
+    private static int threads() {
+        return Integer.getInteger(THREADS_PROPERTY, 16);
+    }
+
+    /**
+     * 把同一参数组合的吞吐量和延迟分位数合并成一行
+     */
+    private static void summary(Collection<RunResult> results) {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (RunResult runResult : results) {
+            String key = String.format("%-20s %-10s %10s", runResult.getParams().getParam("strategy"),
+                    runResult.getParams().getParam("keepAlive"), runResult.getParams().getParam("payload"));
+            String[] row = rows.computeIfAbsent(key, k -> new String[]{"-", "-", "-", "-"});
+            String label = runResult.getParams().getBenchmark();
+            Statistics statistics = runResult.getPrimaryResult().getStatistics();
+            if (label.endsWith("throughput")) {
+                row[0] = String.format("%.0f", statistics.getMean());
+            } else {
+                row[1] = String.format("%.1f", statistics.getPercentile(50));
+                row[2] = String.format("%.1f", statistics.getPercentile(99));
+                row[3] = String.format("%.1f", statistics.getPercentile(99.9));
+            }
+        }
+        System.out.println(String.format("%n%-20s %-10s %10s %12s %12s %12s %12s",
+                "strategy", "keepAlive", "payload", "ops/s", "p50(us)", "p99(us)", "p999(us)"));
+        rows.forEach((key, row) -> System.out.println(String.format("%s %12s %12s %12s %12s",
+                key, row[0], row[1], row[2], row[3])));
+    }
+}
@@ -0,0 +1,257 @@
+package com.sym.benchmark;
+
+import com.sym.serialization.SerializationUtil;
+import com.sym.serialization.entity.BankEntity;
+import com.sym.serialization.entity.OrderEntity;
+import com.sym.serialization.entity.extend.SonEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link SerializationUtil}各个序列化方式的基准测试, 直接运行 main 方法即可.
+ * <p>
+ * 1. 先对每一种 序列化方式 x 样本 做一次往返校验, 打印序列化后的字节数和校验结果;
+ * 2. 只对校验通过的组合运行JMH, 报告 ops/s 以及 GC profiler 统计的每次操作分配的字节数(gc.alloc.rate.norm).
+ * <p>
+ * 自定义样本: 通过系统属性 -Dsym.benchmark.samples=name1=类全名1,name2=类全名2 传入,
+ * 类需要实现{@link Supplier}并提供public无参构造方法, 例如:
+ * -Dsym.benchmark.samples=myDto=com.xxx.MyDtoSupplier
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    public static final String SAMPLES_PROPERTY = "sym.benchmark.samples";
+
+    /**
+     * 具体值由 main 方法在运行时逐个组合传入
+     */
+    @Param({"SCHEMA"})
+    private String codec;
+
+    @Param({"order"})
+    private String sample;
+
+    private Codec currentCodec;
+    private Object entity;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        currentCodec = Codec.valueOf(codec);
+        entity = samples().get(sample).get();
+        bytes = currentCodec.serialize(entity);
+        // 防止直接通过JMH命令行运行时跳过了往返校验
+        if (!Objects.equals(entity, currentCodec.deserialize(bytes, entity.getClass()))) {
+            throw new IllegalStateException(codec + "往返校验失败: " + sample);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return currentCodec.serialize(entity);
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return currentCodec.deserialize(bytes, entity.getClass());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<String[]> passed = report();
+        List<RunResult> results = new ArrayList<>();
+        for (String[] pair : passed) {
+            ChainedOptionsBuilder builder = new OptionsBuilder()
+                    .include(SerializationBenchmark.class.getName())
+                    .param("codec", pair[0])
+                    .param("sample", pair[1])
+                    .addProfiler(GCProfiler.class);
+            String customSamples = System.getProperty(SAMPLES_PROPERTY);
+            if (null != customSamples) {
+                builder.jvmArgsAppend("-D" + SAMPLES_PROPERTY + "=" + customSamples);
+            }
+            results.addAll(new Runner(builder.build()).run());
+        }
+        summary(results);
+    }
+
+    /**
+     * 往返校验并打印每个组合序列化后的字节数
+     *
+     * @return 校验通过的组合, [codec, sample]
+     */
+    public static List<String[]> report() {
+        List<String[]> passed = new ArrayList<>();
+        System.out.println(String.format("%-10s %-10s %10s  %s", "codec", "sample", "bytes", "round-trip"));
+        for (Map.Entry<String, Supplier<?>> entry : samples().entrySet()) {
+            for (Codec c : Codec.values()) {
+                Object entity = entry.getValue().get();
+                String size = "-";
+                String status;
+                try {
+                    byte[] bytes = c.serialize(entity);
+                    size = String.valueOf(bytes.length);
+                    if (Objects.equals(entity, c.deserialize(bytes, entity.getClass()))) {
+                        status = "OK";
+                        passed.add(new String[]{c.name(), entry.getKey()});
+                    } else {
+                        status = "MISMATCH";
+                    }
+                } catch (Throwable e) {
+                    status = "UNSUPPORTED(" + e.getClass().getSimpleName() + ")";
+                }
+                System.out.println(String.format("%-10s %-10s %10s  %s", c.name(), entry.getKey(), size, status));
+            }
+        }
+        return passed;
+    }
+
+    private static void summary(Collection<RunResult> results) {
+        System.out.println(String.format("%n%-40s %-10s %-10s %15s %15s", "benchmark", "codec", "sample", "ops/s", "B/op"));
+        for (RunResult runResult : results) {
+            Result<?> primary = runResult.getPrimaryResult();
+            // 不同版本的JMH, 次要结果的名称可能带有"·"前缀
+            Result<?> alloc = runResult.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (null == alloc) {
+                alloc = runResult.getSecondaryResults().get("·gc.alloc.rate.norm");
+            }
+            String label = runResult.getParams().getBenchmark();
+            System.out.println(String.format("%-40s %-10s %-10s %15.0f %15s",
+                    label.substring(label.lastIndexOf('.') + 1),
+                    runResult.getParams().getParam("codec"),
+                    runResult.getParams().getParam("sample"),
+                    primary.getScore(),
+                    null == alloc ? "-" : String.format("%.1f", alloc.getScore())));
+        }
+    }
+
+    /**
+     * 内置样本 + 自定义样本
+     */
+    static Map<String, Supplier<?>> samples() {
+        Map<String, Supplier<?>> samples = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.of(2021, 7, 7, 19, 17, 1);
+        samples.put("order", () -> new OrderEntity(10086L, "订单-10086", OrderEntity.OrderStatus.ACTIVE, now, now.plusDays(1), null));
+        samples.put("bank", () -> new BankEntity(1L, "ICBC", "中国工商银行", true, now, now));
+        samples.put("son", () -> new SonEntity('m', 65.5, 3, "son"));
+        String custom = System.getProperty(SAMPLES_PROPERTY);
+        if (null != custom && !custom.trim().isEmpty()) {
+            for (String item : custom.split(",")) {
+                String[] kv = item.split("=", 2);
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("样本格式错误, 应为 name=类全名: " + item);
+                }
+                samples.put(kv[0].trim(), newSupplier(kv[1].trim()));
+            }
+        }
+        return samples;
+    }
+
+    private static Supplier<?> newSupplier(String className) {
+        try {
+            return (Supplier<?>) Class.forName(className).newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("无法创建样本: " + className, e);
+        }
+    }
+
+    /**
+     * 参与测试的序列化方式
+     */
+    enum Codec {
+        JDK {
+            @Override
+            byte[] serialize(Object o) throws Exception {
+                return SerializationUtil.Jdk.serialize((Serializable) o);
+            }
+
+            @Override
+            Object deserialize(byte[] bytes, Class<?> type) throws Exception {
+                return SerializationUtil.Jdk.deserialize(bytes, type);
+            }
+        },
+        HESSIAN {
+            @Override
+            byte[] serialize(Object o) throws Exception {
+                return SerializationUtil.Hessian.serialize(o);
+            }
+
+            @Override
+            Object deserialize(byte[] bytes, Class<?> type) throws Exception {
+                return SerializationUtil.Hessian.deserialize(bytes, type);
+            }
+        },
+        KRYO {
+            @Override
+            byte[] serialize(Object o) {
+                return SerializationUtil.Kryo.serialize(o);
+            }
+
+            @Override
+            Object deserialize(byte[] bytes, Class<?> type) {
+                return SerializationUtil.Kryo.deserialize(bytes, type);
+            }
+        },
+        SCHEMA {
+            @Override
+            byte[] serialize(Object o) {
+                return SerializationUtil.Schema.serialize(o);
+            }
+
+            @Override
+            Object deserialize(byte[] bytes, Class<?> type) {
+                return SerializationUtil.Schema.deserialize(bytes, type);
+            }
+        },
+        XSTREAM {
+            @Override
+            byte[] serialize(Object o) {
+                return SerializationUtil.XStream.serialize(o);
+            }
+
+            @Override
+            Object deserialize(byte[] bytes, Class<?> type) {
+                return SerializationUtil.XStream.deSerialize(bytes, type);
+            }
+        };
+
+        abstract byte[] serialize(Object o) throws Exception;
+
+        abstract Object deserialize(byte[] bytes, Class<?> type) throws Exception;
+    }
+}
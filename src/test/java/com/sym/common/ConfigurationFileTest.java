@@ -1,6 +1,9 @@
 package com.sym.common;
 
 import com.sym.configuration.ConfigurationFileUtil;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
+import org.junit.Assert;
 import org.junit.Test;
 
 /**
@@ -32,4 +35,18 @@ public class ConfigurationFileTest {
         System.out.println("read: " + ConfigurationFileUtil.getValue("name"));
         System.out.println("read: " + ConfigurationFileUtil.getValue("student.number"));
     }
+
+    @Test
+    public void httpClientProfilesTest() {
+        HttpClientProfiles profiles = new HttpClientProfiles();
+        profiles.load("/property/http-client.properties");
+        HttpClientProfile profile = profiles.getProfile("127.0.0.1");
+        Assert.assertEquals(2000, profile.getReadTimeoutMillis());
+        Assert.assertEquals(50, profile.getMaxConnections());
+        Assert.assertFalse(profile.isKeepAlive());
+        // 未配置的项继承默认配置
+        Assert.assertEquals(3, profile.getMaxRetries());
+        Assert.assertSame(profiles.getDefaultProfile(), profiles.getProfile("unknown.host"));
+        Assert.assertEquals(60000, profiles.getProfile("unknown.host").getReadTimeoutMillis());
+    }
 }
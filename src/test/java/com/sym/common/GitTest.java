@@ -3,9 +3,29 @@ package com.sym.common;
 import com.sym.git.BatchGitUtil;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.TransportException;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.transport.Transport;
+import org.eclipse.jgit.transport.TransportProtocol;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * jGit的测试
@@ -56,4 +76,211 @@ public class GitTest {
     public void test05() {
         BatchGitUtil.push("");
     }
+
+    /**
+     * 以本地裸仓库作为远程仓库, 并行拉取和克隆, 失败的仓库不影响其它仓库
+     */
+    @Test
+    public void parallelBatchTest() throws IOException, GitAPIException {
+        Path dir = Files.createTempDirectory("batch-git");
+        String remote = createRemote(dir, "remote.git");
+        Path workspace = dir.resolve("workspace");
+        for (String name : Arrays.asList("a", "b", "c")) {
+            Git.cloneRepository().setURI(remote).setDirectory(workspace.resolve(name).toFile()).call().close();
+        }
+        // 没有远程仓库的仓库, 拉取会失败
+        Git.init().setDirectory(workspace.resolve("broken").toFile()).call().close();
+        pushChange(dir, remote, "second.txt");
+
+        ConcurrentLinkedQueue<String> progress = new ConcurrentLinkedQueue<>();
+        BatchGitUtil.BatchOptions options = new BatchGitUtil.BatchOptions().setConcurrency(2).setTimeoutSeconds(30)
+                .setHeadsFile(dir.resolve("heads.properties").toFile())
+                .setProgressListener((repository, success, completed, total) -> progress.add(completed + "/" + total));
+        BatchGitUtil.BatchResult result = BatchGitUtil.pull(workspace.toString(), options);
+        Assert.assertEquals(4, result.getTotal());
+        Assert.assertEquals(3, result.getSuccessCount());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertTrue(result.getFailures().get(0).getPath().contains("broken"));
+        Assert.assertEquals(4, progress.size());
+        Assert.assertTrue(progress.contains("4/4"));
+        for (String name : Arrays.asList("a", "b", "c")) {
+            Assert.assertTrue(Files.exists(workspace.resolve(name).resolve("second.txt")));
+        }
+
+        List<String> urls = Arrays.asList(remote, dir.resolve("missing.git").toUri().toString());
+        result = BatchGitUtil.clone(urls, dir.resolve("clones").toString() + "/", options);
+        Assert.assertEquals(1, result.getSuccessCount());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertTrue(Files.exists(dir.resolve("clones").resolve("remote").resolve("second.txt")));
+    }
+
+    /**
+     * 远程分支没有变化时跳过拉取, 本地跟踪分支已是最新但还没有合并时仍然拉取
+     */
+    @Test
+    public void incrementalPullTest() throws IOException, GitAPIException {
+        Path dir = Files.createTempDirectory("incremental-git");
+        String remote = createRemote(dir, "remote.git");
+        Path workspace = dir.resolve("workspace");
+        for (String name : Arrays.asList("a", "b")) {
+            Git.cloneRepository().setURI(remote).setDirectory(workspace.resolve(name).toFile()).call().close();
+        }
+        Path headsFile = dir.resolve("heads.properties");
+        BatchGitUtil.BatchOptions options = new BatchGitUtil.BatchOptions().setHeadsFile(headsFile.toFile());
+
+        // 刚克隆, 远程没有变化
+        BatchGitUtil.BatchResult result = BatchGitUtil.pull(workspace.toString(), options);
+        Assert.assertEquals(2, result.getSuccessCount());
+        Assert.assertEquals(2, result.getSkippedCount());
+        Assert.assertTrue(Files.exists(headsFile));
+
+        pushChange(dir, remote, "second.txt");
+        result = BatchGitUtil.pull(workspace.toString(), options);
+        Assert.assertEquals(2, result.getSuccessCount());
+        Assert.assertEquals(0, result.getSkippedCount());
+        Assert.assertTrue(Files.exists(workspace.resolve("a").resolve("second.txt")));
+
+        // 根据记录的状态跳过
+        result = BatchGitUtil.pull(workspace.toString(), options);
+        Assert.assertEquals(2, result.getSkippedCount());
+
+        // 只 fetch 没有 merge 的仓库不能跳过
+        pushChange(dir, remote, "third.txt");
+        try (Git git = Git.open(workspace.resolve("a").toFile())) {
+            git.fetch().call();
+        }
+        result = BatchGitUtil.pull(workspace.toString(), options);
+        Assert.assertEquals(2, result.getSuccessCount());
+        Assert.assertEquals(0, result.getSkippedCount());
+        Assert.assertTrue(Files.exists(workspace.resolve("a").resolve("third.txt")));
+        Assert.assertTrue(Files.exists(workspace.resolve("b").resolve("third.txt")));
+
+        // 关闭后总是拉取
+        result = BatchGitUtil.pull(workspace.toString(), options.setSkipUnchanged(false));
+        Assert.assertEquals(2, result.getSuccessCount());
+        Assert.assertEquals(0, result.getSkippedCount());
+    }
+
+    /**
+     * 卡住的仓库在超时后被记为失败并中断, 不影响排在它后面的仓库
+     */
+    @Test
+    public void timeoutTest() throws IOException, GitAPIException, InterruptedException {
+        Path dir = Files.createTempDirectory("timeout-git");
+        String remote = createRemote(dir, "remote.git");
+        Path workspace = dir.resolve("workspace");
+        for (String name : Arrays.asList("hang", "ok")) {
+            Git.cloneRepository().setURI(remote).setDirectory(workspace.resolve(name).toFile()).call().close();
+        }
+        try (Git git = Git.open(workspace.resolve("hang").toFile())) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", "origin", "url", "hang://localhost/remote.git");
+            config.save();
+        }
+        pushChange(dir, remote, "second.txt");
+
+        HangingProtocol protocol = new HangingProtocol();
+        Transport.register(protocol);
+        try {
+            // 只有一个线程, "ok"排在"hang"之后
+            BatchGitUtil.BatchOptions options = new BatchGitUtil.BatchOptions().setConcurrency(1).setTimeoutSeconds(1)
+                    .setSkipUnchanged(false);
+            BatchGitUtil.BatchResult result = BatchGitUtil.pull(workspace.toString(), options);
+            Assert.assertEquals(1, result.getSuccessCount());
+            Assert.assertEquals(1, result.getFailures().size());
+            Assert.assertTrue(result.getFailures().get(0).getPath().endsWith("hang"));
+            Assert.assertEquals("timeout after 1s", result.getFailures().get(0).getReason());
+            Assert.assertTrue(result.getElapsedMillis() < 10_000);
+            Assert.assertTrue(Files.exists(workspace.resolve("ok").resolve("second.txt")));
+            Assert.assertTrue(protocol.interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            Transport.unregister(protocol);
+        }
+    }
+
+    /**
+     * 打开连接后一直等待, 直到线程被中断
+     */
+    private static class HangingProtocol extends TransportProtocol {
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public String getName() {
+            return "hang";
+        }
+
+        @Override
+        public Set<String> getSchemes() {
+            return Collections.singleton("hang");
+        }
+
+        @Override
+        public Set<URIishField> getRequiredFields() {
+            return EnumSet.of(URIishField.HOST, URIishField.PATH);
+        }
+
+        @Override
+        public Transport open(URIish uri, Repository local, String remoteName) throws TransportException {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            throw new TransportException(uri, "interrupted");
+        }
+    }
+
+    /**
+     * 查找仓库时不进入git仓库内部、忽略列表中的目录和超过最大深度的目录
+     */
+    @Test
+    public void findRepositoryTest() throws IOException, GitAPIException {
+        Path workspace = Files.createTempDirectory("find-git");
+        for (String repository : Arrays.asList("a", "a/sub", "group/b", "node_modules/c", "deep/1/2/3/d", "target")) {
+            Files.createDirectories(workspace.resolve(repository));
+            Git.init().setDirectory(workspace.resolve(repository).toFile()).call().close();
+        }
+        BatchGitUtil.BatchOptions options = new BatchGitUtil.BatchOptions();
+        Assert.assertEquals(Arrays.asList("a", "deep/1/2/3/d", "group/b", "target"),
+                relativize(workspace, BatchGitUtil.findGitRepositories(workspace.toString(), options)));
+
+        options.setMaxDepth(2);
+        Assert.assertEquals(Arrays.asList("a", "group/b", "target"),
+                relativize(workspace, BatchGitUtil.findGitRepositories(workspace.toString(), options)));
+
+        // 父目录本身是仓库
+        Assert.assertEquals(1, BatchGitUtil.findGitRepositories(workspace.resolve("a").toString(), options).size());
+    }
+
+    private static List<String> relativize(Path root, List<File> files) {
+        return files.stream().map(file -> root.relativize(file.toPath()).toString().replace(File.separatorChar, '/'))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 创建一个带有初始提交的裸仓库
+     *
+     * @return 仓库地址
+     */
+    static String createRemote(Path dir, String name) throws GitAPIException, IOException {
+        Path bare = dir.resolve(name);
+        Git.init().setBare(true).setDirectory(bare.toFile()).call().close();
+        // 目录的URI以"/"结尾, 克隆时按照".git"结尾的地址截取目录名
+        String remote = bare.toUri().toString().replaceAll("/$", "");
+        pushChange(dir, remote, "first.txt");
+        return remote;
+    }
+
+    /**
+     * 通过一个临时的工作区向远程仓库提交并推送一个文件
+     */
+    static void pushChange(Path dir, String remote, String fileName) throws GitAPIException, IOException {
+        Path seed = Files.createTempDirectory(dir, "seed");
+        try (Git git = Git.cloneRepository().setURI(remote).setDirectory(seed.toFile()).call()) {
+            Files.write(seed.resolve(fileName), fileName.getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern(fileName).call();
+            git.commit().setMessage("add " + fileName).setAuthor("test", "test@sym.com").setCommitter("test", "test@sym.com").call();
+            git.push().setRemote("origin").add("master").call();
+        }
+    }
 }
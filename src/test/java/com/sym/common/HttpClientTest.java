@@ -1,8 +1,29 @@
 package com.sym.common;
 
+import com.google.gson.Gson;
+import com.sym.http.HttpClientProfile;
+import com.sym.http.HttpClientProfiles;
 import com.sym.http.HttpUtil;
+import com.sym.http.codec.HttpRequestBody;
+import com.sym.http.codec.QueryStrings;
+import com.sym.http.protocol.HttpBatchResult;
 import com.sym.http.protocol.HttpRequest;
 import com.sym.http.protocol.HttpResponse;
+import com.sym.http.protocol.StreamingHttpResponse;
+import com.sym.http.strategy.HttpEventListener;
+import com.sym.http.strategy.HttpInstrumentation;
+import com.sym.http.strategy.IHttpStrategy;
+import com.sym.http.strategy.cache.CachingHttpStrategy;
+import com.sym.http.strategy.impl.ApacheHttpClientStrategy;
+import com.sym.http.strategy.impl.JdkHttpStrategy;
+import com.sym.http.strategy.impl.OkClientStrategy;
+import com.sym.http.strategy.metrics.InMemoryHttpMetricsRegistry;
+import com.sym.http.strategy.metrics.LatencyHistogram;
+import com.sym.http.strategy.metrics.MetricsEventListener;
+import com.sym.http.strategy.cache.HttpResponseCache;
+import com.sym.http.strategy.resilience.CircuitBreaker;
+import com.sym.http.strategy.resilience.CircuitBreakerOpenException;
+import com.sym.http.strategy.resilience.ResilientHttpStrategy;
 import okhttp3.*;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -12,14 +33,42 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.pool.PoolStats;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * @author shenyanming
@@ -27,11 +76,27 @@ import java.util.concurrent.TimeUnit;
  */
 public class HttpClientTest {
 
+    /**
+     * 本地服务, 代替原来需要手动启动的 127.0.0.1:8080
+     */
+    private static LocalHttpServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = LocalHttpServer.start();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.close();
+    }
+
     @Test
     public void jdkTest() {
         HttpUtil.setStrategy(HttpUtil.Strategy.JDK);
         // 准备request
         HttpRequest request = new HttpRequest();
+        request.setUrl(server.url("/get/110"));
         HttpResponse response = HttpUtil.get(request);
 
         System.out.println(response.getData());
@@ -44,7 +109,7 @@ public class HttpClientTest {
      */
     @Test
     public void jdkGetTest() throws IOException {
-        String api = "http://127.0.0.1:8080/get/110";
+        String api = server.url("/get/110");
         URL url = new URL(api);
         URLConnection urlConnection = url.openConnection();
         HttpURLConnection httpURLConnection = (HttpURLConnection) urlConnection;
@@ -81,7 +146,7 @@ public class HttpClientTest {
      */
     @Test
     public void jdkPostTest() throws IOException {
-        String api = "http://127.0.0.1:8080/post/123";
+        String api = server.url("/post/123");
         URL url = new URL(api);
         URLConnection urlConnection = url.openConnection();
         HttpURLConnection httpURLConnection = (HttpURLConnection) urlConnection;
@@ -120,6 +185,7 @@ public class HttpClientTest {
         HttpUtil.setStrategy(HttpUtil.Strategy.OK_CLINT);
         // 准备request
         HttpRequest request = new HttpRequest();
+        request.setUrl(server.url("/get/110"));
         HttpResponse response = HttpUtil.get(request);
 
         System.out.println(response.getData());
@@ -133,7 +199,7 @@ public class HttpClientTest {
         // 创建客户端
         OkHttpClient okHttpClient = new OkHttpClient.Builder().callTimeout(10, TimeUnit.SECONDS).readTimeout(10, TimeUnit.SECONDS).build();
         // 创建请求体
-        Request request = new Request.Builder().get().url("http://127.0.0.1:8080/get/123321").addHeader("token", "yes i am a token").tag("Tag").build();
+        Request request = new Request.Builder().get().url(server.url("/get/123321")).addHeader("token", "yes i am a token").tag("Tag").build();
         // 发起请求
         Response response = okHttpClient.newCall(request).execute();
         // 处理返回结果
@@ -155,7 +221,7 @@ public class HttpClientTest {
         // 创建请求体
         Request request = new Request.Builder()
                 //而post请求的其它参数, 跟get请求一样, 拼接在url后面即可
-                .post(body).url("http://127.0.0.1:8080/post/123321?id=110&name=123")
+                .post(body).url(server.url("/post/123321?id=110&name=123"))
                 .addHeader("token", "yes i am a token").tag("Tag").build();
         // 发起请求
         Response response = okHttpClient.newCall(request).execute();
@@ -181,6 +247,7 @@ public class HttpClientTest {
         HttpUtil.setStrategy(HttpUtil.Strategy.APACHE_HTTP_CLIENT);
         // 准备request
         HttpRequest request = new HttpRequest();
+        request.setUrl(server.url("/get/110"));
         HttpResponse response = HttpUtil.get(request);
 
         System.out.println(response.getData());
@@ -196,7 +263,7 @@ public class HttpClientTest {
         InputStream inputStream = null;
         try {
             //设置超时时间, 创建一个Get请求
-            HttpGet httpGet = new HttpGet("http://127.0.0.1:8080/get/110");
+            HttpGet httpGet = new HttpGet(server.url("/get/110"));
             // 设置http请求头
             httpGet.setHeader("token", "123456");
             httpGet.setHeader("sessionID", "goodJob");
@@ -243,7 +310,7 @@ public class HttpClientTest {
         CloseableHttpResponse response = null;
         BufferedReader bufferedReader = null;
         try {
-            HttpPost httpPost = new HttpPost("http://127.0.0.1:8080/post/110");
+            HttpPost httpPost = new HttpPost(server.url("/post/110"));
             //设置请求头
             httpPost.setHeader("token", "life is fantastic");
             //设置请求参数
@@ -276,4 +343,769 @@ public class HttpClientTest {
             }
         }
     }
+
+    /**
+     * 响应缓存: max-age内直接命中, 过期后通过ETag重新校验, POST使缓存失效
+     */
+    @Test
+    public void cachingStrategyTest() {
+        StubHttpStrategy origin = new StubHttpStrategy(httpRequest -> {
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("ETag", "\"v1\"");
+            headers.put("Cache-Control", httpRequest.getUrl().endsWith("fresh") ? "max-age=60" : "no-cache");
+            HttpResponse response = new HttpResponse();
+            response.setHeaders(headers);
+            if (httpRequest.getHeaders() != null && "\"v1\"".equals(httpRequest.getHeaders().get("If-None-Match"))) {
+                response.setStatusCode(304);
+                response.setStatus(HttpResponse.RequestStatus.FAILURE);
+            } else {
+                response.setStatusCode(200);
+                response.setStatus(HttpResponse.RequestStatus.SUCCESS);
+                response.setData("data of " + httpRequest.getUrl());
+            }
+            return response;
+        });
+        AtomicInteger calls = origin.calls;
+        HttpResponseCache cache = new HttpResponseCache();
+        CachingHttpStrategy strategy = new CachingHttpStrategy(origin, cache);
+
+        HttpRequest fresh = new HttpRequest();
+        fresh.setUrl("http://127.0.0.1:8080/fresh");
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("data of http://127.0.0.1:8080/fresh", strategy.get(fresh).getData());
+        }
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(2, cache.getStats().getHitCount());
+
+        HttpRequest etag = new HttpRequest();
+        etag.setUrl("http://127.0.0.1:8080/etag");
+        for (int i = 0; i < 3; i++) {
+            HttpResponse response = strategy.get(etag);
+            Assert.assertEquals(HttpResponse.RequestStatus.SUCCESS, response.getStatus());
+            Assert.assertEquals("data of http://127.0.0.1:8080/etag", response.getData());
+        }
+        Assert.assertEquals(2, cache.getStats().getRevalidationHitCount());
+
+        strategy.post(fresh);
+        calls.set(0);
+        strategy.get(fresh);
+        Assert.assertEquals(1, calls.get());
+
+        // 带参数的GET以完整的查询字符串为key, 相同参数的DELETE使其失效
+        HttpRequest query = new HttpRequest();
+        query.setUrl("http://127.0.0.1:8080/fresh");
+        query.setParameters(Collections.singletonMap("id", "1"));
+        strategy.get(query);
+        strategy.get(query);
+        Assert.assertEquals(2, calls.get());
+        strategy.delete(query);
+        Assert.assertEquals(3, calls.get());
+        strategy.get(query);
+        Assert.assertEquals(4, calls.get());
+        System.out.println(cache.getStats());
+    }
+
+    /**
+     * 缓存被多个调用方共享: 带凭证的请求只有响应允许共享时才缓存, private 的响应不缓存
+     */
+    @Test
+    public void cachingCredentialTest() {
+        StubHttpStrategy origin = new StubHttpStrategy(httpRequest -> {
+            String url = httpRequest.getUrl();
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("Cache-Control", url.endsWith("public") ? "public, max-age=60"
+                    : url.endsWith("private") ? "private, max-age=60" : "max-age=60");
+            HttpResponse response = new HttpResponse();
+            response.setHeaders(headers);
+            response.setStatusCode(200);
+            response.setStatus(HttpResponse.RequestStatus.SUCCESS);
+            response.setData("data of " + httpRequest.getHeaders());
+            return response;
+        });
+        CachingHttpStrategy strategy = new CachingHttpStrategy(origin, new HttpResponseCache());
+
+        HttpRequest alice = new HttpRequest();
+        alice.setUrl("http://127.0.0.1:8080/profile");
+        alice.setHeaders(Collections.singletonMap("Authorization", "Bearer alice"));
+        HttpRequest anonymous = new HttpRequest();
+        anonymous.setUrl("http://127.0.0.1:8080/profile");
+        Assert.assertTrue(strategy.get(alice).getData().contains("alice"));
+        Assert.assertFalse(strategy.get(anonymous).getData().contains("alice"));
+        Assert.assertEquals(2, origin.calls.get());
+
+        HttpRequest cookie = new HttpRequest();
+        cookie.setUrl("http://127.0.0.1:8080/public");
+        cookie.setHeaders(Collections.singletonMap("Cookie", "session=1"));
+        strategy.get(cookie);
+        strategy.get(cookie);
+        Assert.assertEquals(3, origin.calls.get());
+
+        HttpRequest personal = new HttpRequest();
+        personal.setUrl("http://127.0.0.1:8080/private");
+        strategy.get(personal);
+        strategy.get(personal);
+        Assert.assertEquals(5, origin.calls.get());
+    }
+
+    /**
+     * 内存放不下的响应溢出到磁盘, 再次访问时从磁盘读回; 删除后不会再从磁盘读到
+     */
+    @Test
+    public void diskCacheTest() throws IOException {
+        StubHttpStrategy origin = new StubHttpStrategy(httpRequest -> {
+            Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("Cache-Control", "max-age=60");
+            HttpResponse response = new HttpResponse();
+            response.setHeaders(headers);
+            response.setStatusCode(200);
+            response.setStatus(HttpResponse.RequestStatus.SUCCESS);
+            response.setData("data of " + httpRequest.getUrl());
+            return response;
+        });
+        HttpResponseCache.CacheConfig config = new HttpResponseCache.CacheConfig();
+        // 内存中只保留最近的一个响应
+        config.setMaxMemoryBytes(1);
+        config.setDiskDirectory(Files.createTempDirectory("http-cache").toString());
+        HttpResponseCache cache = new HttpResponseCache(config);
+        CachingHttpStrategy strategy = new CachingHttpStrategy(origin, cache);
+
+        HttpRequest first = new HttpRequest();
+        first.setUrl("http://127.0.0.1:8080/first");
+        HttpRequest second = new HttpRequest();
+        second.setUrl("http://127.0.0.1:8080/second");
+        strategy.get(first);
+        strategy.get(second);
+        Assert.assertEquals(1, cache.getStats().getDiskSpillCount());
+        Assert.assertTrue(cache.getDiskBytes() > 0);
+
+        Assert.assertEquals("data of http://127.0.0.1:8080/first", strategy.get(first).getData());
+        Assert.assertEquals(2, origin.calls.get());
+        Assert.assertEquals(1, cache.getStats().getDiskHitCount());
+
+        // second 此时在磁盘上
+        cache.remove("http://127.0.0.1:8080/second");
+        cache.remove("http://127.0.0.1:8080/first");
+        Assert.assertEquals(0, cache.getMemoryCount());
+        Assert.assertEquals(0, cache.getDiskBytes());
+        strategy.get(second);
+        Assert.assertEquals(3, origin.calls.get());
+    }
+
+    /**
+     * 绑定策略的客户端只创建一次, 不受当前线程设置的策略影响
+     */
+    @Test
+    public void clientHandleTest() {
+        IHttpStrategy jdk = HttpUtil.client(HttpUtil.Strategy.JDK);
+        HttpUtil.setStrategy(HttpUtil.Strategy.OK_CLINT);
+        try {
+            Assert.assertSame(jdk, HttpUtil.client(HttpUtil.Strategy.JDK));
+            Assert.assertNotSame(jdk, HttpUtil.client(HttpUtil.Strategy.OK_CLINT));
+        } finally {
+            HttpUtil.clearStrategy();
+        }
+    }
+
+    /**
+     * 重试和熔断: GET遇到503会重试, POST不重试, 连续失败后熔断
+     */
+    @Test
+    public void resilientStrategyTest() {
+        StubHttpStrategy origin = new StubHttpStrategy(httpRequest -> {
+            if (httpRequest.getUrl().contains("down")) {
+                throw new RuntimeException(new IOException("connection refused"));
+            }
+            HttpResponse response = new HttpResponse();
+            response.setStatusCode(503);
+            response.setStatus(HttpResponse.RequestStatus.FAILURE);
+            return response;
+        });
+        AtomicInteger calls = origin.calls;
+        ResilientHttpStrategy.ResilienceConfig config = new ResilientHttpStrategy.ResilienceConfig();
+        config.setBaseBackoffMillis(1);
+        config.setMaxBackoffMillis(5);
+        config.setFailureThreshold(4);
+        ResilientHttpStrategy strategy = new ResilientHttpStrategy(origin, config);
+
+        HttpRequest request = new HttpRequest();
+        request.setUrl("http://127.0.0.1:8080/unavailable");
+        Assert.assertEquals(503, strategy.get(request).getStatusCode());
+        Assert.assertEquals(3, calls.get());
+        Assert.assertEquals(503, strategy.post(request).getStatusCode());
+        Assert.assertEquals(4, calls.get());
+        Assert.assertEquals(CircuitBreaker.State.OPEN, strategy.getCircuitState("127.0.0.1"));
+
+        calls.set(0);
+        try {
+            strategy.get(request);
+            Assert.fail();
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals(0, calls.get());
+        }
+
+        HttpRequest down = new HttpRequest();
+        down.setUrl("http://localhost:8080/down");
+        try {
+            strategy.getAsync(down).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause().getCause() instanceof IOException);
+        }
+        Assert.assertEquals(3, calls.get());
+        Assert.assertEquals(1, strategy.getStats().getShortCircuitedCount());
+        System.out.println(strategy.getStats());
+    }
+
+    /**
+     * 熔断器在一次慢请求期间进入 HALF_OPEN, 慢请求失败后重试预算已耗尽: 不能占用试探机会, 之后的请求仍能试探;
+     * 非IO异常不改变熔断状态, 只交还试探机会
+     */
+    @Test
+    public void resilientHalfOpenTest() throws InterruptedException {
+        StubHttpStrategy origin = new StubHttpStrategy(httpRequest -> {
+            if (httpRequest.getUrl().contains("slow")) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (httpRequest.getUrl().contains("illegal")) {
+                throw new IllegalStateException("illegal request");
+            }
+            HttpResponse response = new HttpResponse();
+            response.setStatusCode(503);
+            response.setStatus(HttpResponse.RequestStatus.FAILURE);
+            return response;
+        });
+        ResilientHttpStrategy.ResilienceConfig config = new ResilientHttpStrategy.ResilienceConfig();
+        config.setFailureThreshold(2);
+        config.setOpenDurationMillis(300);
+        // 不允许任何重试
+        config.setRetryBudgetRatio(0);
+        config.setMinRetriesPerWindow(0);
+        ResilientHttpStrategy strategy = new ResilientHttpStrategy(origin, config);
+
+        HttpRequest slow = new HttpRequest();
+        slow.setUrl("http://127.0.0.1:8080/slow");
+        HttpRequest fail = new HttpRequest();
+        fail.setUrl("http://127.0.0.1:8080/fail");
+        CompletableFuture<HttpResponse> future = strategy.getAsync(slow);
+        Assert.assertEquals(503, strategy.get(fail).getStatusCode());
+        Assert.assertEquals(503, strategy.get(fail).getStatusCode());
+        Assert.assertEquals(CircuitBreaker.State.OPEN, strategy.getCircuitState("127.0.0.1"));
+
+        // 慢请求结束时熔断已经到期
+        Assert.assertEquals(503, future.join().getStatusCode());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, strategy.getCircuitState("127.0.0.1"));
+        Assert.assertEquals(503, strategy.get(fail).getStatusCode());
+        Assert.assertEquals(CircuitBreaker.State.OPEN, strategy.getCircuitState("127.0.0.1"));
+
+        Thread.sleep(400);
+        HttpRequest illegal = new HttpRequest();
+        illegal.setUrl("http://127.0.0.1:8080/illegal");
+        try {
+            strategy.get(illegal);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, strategy.getCircuitState("127.0.0.1"));
+        }
+        Assert.assertEquals(503, strategy.get(fail).getStatusCode());
+        Assert.assertEquals(6, origin.calls.get());
+    }
+
+    /**
+     * 不发起网络请求的策略, 所有方法都交给同一个处理函数, 并记录调用次数
+     */
+    private static class StubHttpStrategy implements IHttpStrategy {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Function<HttpRequest, HttpResponse> handler;
+
+        StubHttpStrategy(Function<HttpRequest, HttpResponse> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public HttpResponse get(HttpRequest httpRequest) {
+            calls.incrementAndGet();
+            return handler.apply(httpRequest);
+        }
+
+        @Override
+        public HttpResponse post(HttpRequest httpRequest) {
+            return get(httpRequest);
+        }
+
+        @Override
+        public HttpResponse put(HttpRequest httpRequest) {
+            return get(httpRequest);
+        }
+
+        @Override
+        public HttpResponse delete(HttpRequest httpRequest) {
+            return get(httpRequest);
+        }
+
+        @Override
+        public StreamingHttpResponse stream(HttpRequest httpRequest, HttpRequest.HttpMethod method) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * GET参数编码到查询字符串, 请求体按类型写入
+     */
+    @Test
+    public void requestBodyTest() throws IOException {
+        Map<String, String> parameters = new TreeMap<>();
+        parameters.put("name", "沈 a&b");
+        parameters.put("page", "1");
+        HttpRequest request = new HttpRequest();
+        request.setUrl("http://127.0.0.1:8080/query?x=1#top");
+        request.setParameters(parameters);
+        Assert.assertEquals("http://127.0.0.1:8080/query?x=1&name=%E6%B2%88%20a%26b&page=1#top",
+                QueryStrings.urlOf(request, HttpRequest.HttpMethod.GET));
+        Assert.assertEquals("http://127.0.0.1:8080/query?x=1#top", QueryStrings.urlOf(request, HttpRequest.HttpMethod.POST));
+
+        // 没有请求体时参数编码为JSON, 与原来的 Gson 输出一致
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpRequestBody.of(request, HttpRequest.HttpMethod.POST).writeTo(out);
+        Assert.assertEquals(new Gson().toJson(parameters), out.toString("UTF-8"));
+        Assert.assertNull(HttpRequestBody.of(request, HttpRequest.HttpMethod.GET));
+
+        HttpResponse body = new HttpResponse();
+        body.setStatusCode(201);
+        request.setBody(body);
+        HttpRequestBody json = HttpRequestBody.of(request, HttpRequest.HttpMethod.PUT);
+        out.reset();
+        json.writeTo(out);
+        Assert.assertEquals("application/json; charset=UTF-8", json.contentType());
+        Assert.assertEquals(-1, json.contentLength());
+        HttpResponse response = new HttpResponse();
+        response.setData(out.toString("UTF-8"));
+        Assert.assertEquals(201, response.<HttpResponse>getData(HttpResponse.class).getStatusCode());
+
+        request.setBody(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        HttpRequestBody stream = HttpRequestBody.of(request, HttpRequest.HttpMethod.POST);
+        Assert.assertFalse(stream.isRepeatable());
+        Assert.assertEquals("application/octet-stream", stream.contentType());
+    }
+
+    /**
+     * 三种策略在并发、开启和关闭长连接时都能正确读取本地服务的响应
+     */
+    @Test
+    public void localServerTest() throws Exception {
+        for (boolean keepAlive : new boolean[]{true, false}) {
+            HttpClientProfiles profiles = new HttpClientProfiles();
+            HttpClientProfile profile = new HttpClientProfile();
+            profile.setKeepAlive(keepAlive);
+            profiles.setDefaultProfile(profile);
+            IHttpStrategy[] strategies = {new JdkHttpStrategy(profiles), new OkClientStrategy(profiles),
+                    new ApacheHttpClientStrategy(new ApacheHttpClientStrategy.PoolConfig(), profiles)};
+            for (IHttpStrategy strategy : strategies) {
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                List<Future<HttpResponse>> futures = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    HttpRequest request = new HttpRequest();
+                    request.setUrl(server.url("/bytes/" + (i % 2 == 0 ? 16 : 64 * 1024)));
+                    futures.add(executor.submit(() -> strategy.get(request)));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    HttpResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+                    Assert.assertEquals(200, response.getStatusCode());
+                    Assert.assertEquals(i % 2 == 0 ? 16 : 64 * 1024, response.getData().length());
+                }
+                executor.shutdown();
+            }
+            ((ApacheHttpClientStrategy) strategies[2]).close();
+        }
+    }
+
+    /**
+     * 多字节字符被拆在不同的分块中时仍能正确解码, 换行符原样保留
+     */
+    @Test
+    public void responseBodyTest() throws IOException {
+        IHttpStrategy[] strategies = {new JdkHttpStrategy(), new OkClientStrategy(),
+                new ApacheHttpClientStrategy(new ApacheHttpClientStrategy.PoolConfig())};
+        for (IHttpStrategy strategy : strategies) {
+            for (int chunkSize : new int[]{1, 2, 5}) {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(server.url("/text/" + chunkSize));
+                HttpResponse response = strategy.get(request);
+                Assert.assertEquals(200, response.getStatusCode());
+                Assert.assertEquals(strategy.getClass().getSimpleName(), LocalHttpServer.TEXT, response.getData());
+            }
+        }
+        ((ApacheHttpClientStrategy) strategies[2]).close();
+    }
+
+    /**
+     * 三种策略的流式响应: 分块读取 chunked 响应体, 未读完就关闭不等待剩余内容且不影响后续请求, 错误状态码也能读到响应体
+     */
+    @Test
+    public void streamTest() throws IOException {
+        byte[] text = LocalHttpServer.TEXT.getBytes(StandardCharsets.UTF_8);
+        IHttpStrategy[] strategies = {new JdkHttpStrategy(), new OkClientStrategy(),
+                new ApacheHttpClientStrategy(new ApacheHttpClientStrategy.PoolConfig())};
+        for (IHttpStrategy strategy : strategies) {
+            String name = strategy.getClass().getSimpleName();
+            HttpRequest request = new HttpRequest();
+            request.setUrl(server.url("/text/3"));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            AtomicInteger chunks = new AtomicInteger();
+            try (StreamingHttpResponse response = strategy.stream(request, HttpRequest.HttpMethod.GET)) {
+                Assert.assertEquals(200, response.getStatusCode());
+                response.consume(chunk -> {
+                    chunks.incrementAndGet();
+                    out.write(chunk.array(), chunk.position(), chunk.remaining());
+                }, 4);
+            }
+            Assert.assertArrayEquals(name, text, out.toByteArray());
+            Assert.assertTrue(name, chunks.get() >= text.length / 4);
+
+            // 完整读完需要10秒以上
+            request.setUrl(server.url("/slow/1024"));
+            long start = System.nanoTime();
+            try (StreamingHttpResponse response = strategy.stream(request, HttpRequest.HttpMethod.GET)) {
+                byte[] head = new byte[2048];
+                int length = 0;
+                while (length < head.length) {
+                    length += response.getBody().read(head, length, head.length - length);
+                }
+            }
+            Assert.assertTrue(name, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+            request.setUrl(server.url("/bytes/16"));
+            Assert.assertEquals(name, 16, strategy.get(request).getData().length());
+
+            request.setUrl(server.url("/error/500"));
+            try (StreamingHttpResponse response = strategy.stream(request, HttpRequest.HttpMethod.GET)) {
+                Assert.assertEquals(500, response.getStatusCode());
+                Assert.assertEquals(HttpResponse.RequestStatus.FAILURE, response.getStatus());
+                Assert.assertEquals(name, "error 500", new String(readAll(response.getBody()), StandardCharsets.UTF_8));
+            }
+        }
+        ((ApacheHttpClientStrategy) strategies[2]).close();
+    }
+
+    /**
+     * HttpUtil 的流式接口使用当前线程的策略
+     */
+    @Test
+    public void getStreamTest() throws IOException {
+        byte[] text = LocalHttpServer.TEXT.getBytes(StandardCharsets.UTF_8);
+        for (HttpUtil.Strategy strategy : HttpUtil.Strategy.values()) {
+            HttpUtil.setStrategy(strategy);
+            try {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(server.url("/text/2"));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                Assert.assertEquals(200, HttpUtil.getStream(request,
+                        chunk -> out.write(chunk.array(), chunk.position(), chunk.remaining())));
+                Assert.assertArrayEquals(strategy.name(), text, out.toByteArray());
+
+                request.setUrl(server.url("/error/404"));
+                try (StreamingHttpResponse response = HttpUtil.getStream(request)) {
+                    Assert.assertEquals(404, response.getStatusCode());
+                    Assert.assertEquals(strategy.name(), "error 404", new String(readAll(response.getBody()), StandardCharsets.UTF_8));
+                }
+            } finally {
+                HttpUtil.clearStrategy();
+            }
+        }
+    }
+
+    /**
+     * Apache 连接池: 顺序请求复用同一个连接, 异步请求的连接池计入统计, 空闲连接被后台线程清理后回调统计信息
+     */
+    @Test
+    public void apachePoolTest() throws Exception {
+        ApacheHttpClientStrategy.PoolConfig config = new ApacheHttpClientStrategy.PoolConfig();
+        config.setMaxIdleMillis(1000);
+        config.setEvictPeriodMillis(100);
+        List<PoolStats> reported = new CopyOnWriteArrayList<>();
+        CountDownLatch evicted = new CountDownLatch(1);
+        // 请求结束后才开始等待清理
+        AtomicBoolean idle = new AtomicBoolean();
+        try (LocalHttpServer local = LocalHttpServer.start(4);
+             ApacheHttpClientStrategy apache = new ApacheHttpClientStrategy(config)) {
+            apache.setPoolStatsListener(stats -> {
+                reported.add(stats);
+                if (stats.getAvailable() == 0 && idle.get()) {
+                    evicted.countDown();
+                }
+            });
+            for (int i = 0; i < 10; i++) {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(local.url("/bytes/16"));
+                Assert.assertEquals(200, apache.get(request).getStatusCode());
+            }
+            Assert.assertEquals(1, local.getConnectionCount());
+            Assert.assertEquals(0, apache.getTotalStats().getLeased());
+            Assert.assertEquals(1, apache.getTotalStats().getAvailable());
+
+            for (int i = 0; i < 5; i++) {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(local.url("/bytes/16"));
+                Assert.assertEquals(200, apache.getAsync(request).get(10, TimeUnit.SECONDS).getStatusCode());
+            }
+            Assert.assertEquals(2, local.getConnectionCount());
+            Assert.assertEquals(2, apache.getTotalStats().getAvailable());
+            Assert.assertEquals(2, apache.getRouteStats().values().stream().mapToInt(PoolStats::getAvailable).sum());
+
+            idle.set(true);
+            Assert.assertTrue(evicted.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(0, apache.getTotalStats().getAvailable());
+            Assert.assertTrue(reported.stream().anyMatch(stats -> stats.getAvailable() == 2));
+
+            // 连接被清理后重新建立
+            HttpRequest request = new HttpRequest();
+            request.setUrl(local.url("/bytes/16"));
+            apache.get(request);
+            Assert.assertEquals(3, local.getConnectionCount());
+        }
+    }
+
+    /**
+     * OkHttp 的异步请求按主机配置的 maxConcurrentRequests 限制并发, 没有单独配置的主机使用默认配置
+     */
+    @Test
+    public void okDispatcherLimitTest() throws Exception {
+        HttpClientProfiles profiles = new HttpClientProfiles();
+        HttpClientProfile limited = new HttpClientProfile();
+        limited.setMaxConcurrentRequests(2);
+        profiles.setProfile("127.0.0.1", limited);
+        OkClientStrategy okClient = new OkClientStrategy(profiles);
+        try (LocalHttpServer local = LocalHttpServer.start()) {
+            for (String host : Arrays.asList("127.0.0.1", "localhost")) {
+                local.resetMaxInFlight();
+                List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    HttpRequest request = new HttpRequest();
+                    request.setUrl("http://" + host + ":" + local.getPort() + "/delay/100");
+                    futures.add(okClient.getAsync(request));
+                }
+                for (CompletableFuture<HttpResponse> future : futures) {
+                    Assert.assertEquals(200, future.get(10, TimeUnit.SECONDS).getStatusCode());
+                }
+                if ("127.0.0.1".equals(host)) {
+                    Assert.assertEquals(2, local.getMaxInFlight());
+                } else {
+                    Assert.assertTrue(local.getMaxInFlight() > 2);
+                }
+            }
+        } finally {
+            okClient.close();
+        }
+    }
+
+    /**
+     * OkHttp 的 enqueue 和 Apache 的 HttpAsyncClient: 并发请求都能完成, 连接失败和线程池拒绝都通过 future 返回而不是直接抛出
+     */
+    @Test
+    public void nativeAsyncTest() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        OkClientStrategy okClient = new OkClientStrategy();
+        ApacheHttpClientStrategy apache = new ApacheHttpClientStrategy(new ApacheHttpClientStrategy.PoolConfig());
+        for (IHttpStrategy strategy : new IHttpStrategy[]{okClient, apache}) {
+            String name = strategy.getClass().getSimpleName();
+            List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(server.url("/async/" + i));
+                request.setParameters(Collections.singletonMap("k", "v"));
+                futures.add(i % 2 == 0 ? strategy.getAsync(request) : strategy.postAsync(request));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                HttpResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals(name, 200, response.getStatusCode());
+                Assert.assertTrue(name, response.getData().startsWith(i % 2 == 0 ? "GET /async/" + i + "?k=v" : "POST /async/" + i));
+            }
+
+            HttpRequest refused = new HttpRequest();
+            refused.setUrl("http://127.0.0.1:" + closedPort + "/refused");
+            try {
+                strategy.getAsync(refused).get(10, TimeUnit.SECONDS);
+                Assert.fail(name);
+            } catch (ExecutionException e) {
+                Assert.assertTrue(name, e.getCause().getCause() instanceof IOException);
+            }
+        }
+
+        // 关闭后线程池或 IO reactor 拒绝执行
+        okClient.close();
+        apache.close();
+        for (IHttpStrategy strategy : new IHttpStrategy[]{okClient, apache}) {
+            HttpRequest request = new HttpRequest();
+            request.setUrl(server.url("/rejected"));
+            CompletableFuture<HttpResponse> future = strategy.getAsync(request);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                Assert.fail(strategy.getClass().getSimpleName());
+            } catch (ExecutionException e) {
+                Assert.assertNotNull(e.getCause());
+            }
+        }
+
+        // 没有原生异步的策略在线程池拒绝时同样返回异常结束的 future
+        IHttpStrategy rejecting = new JdkHttpStrategy() {
+            @Override
+            public Executor asyncExecutor() {
+                return command -> {
+                    throw new RejectedExecutionException("queue full");
+                };
+            }
+        };
+        HttpRequest request = new HttpRequest();
+        request.setUrl(server.url("/rejected"));
+        try {
+            rejecting.getAsync(request).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    /**
+     * 批量请求: 结果与请求顺序一致, 每个host的并发不超过上限, 单个请求失败不影响其它请求
+     */
+    @Test
+    public void executeAllTest() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        try (LocalHttpServer other = LocalHttpServer.start()) {
+            HttpUtil.setMaxConcurrentPerHost("127.0.0.1:" + server.getPort(), 3);
+            HttpUtil.setMaxConcurrentPerHost("127.0.0.1:" + other.getPort(), 2);
+            List<HttpRequest> requests = new ArrayList<>();
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                // 越靠前的请求越慢, 完成顺序与请求顺序相反
+                String path = "/delay/" + (i < 12 ? (12 - i) * 10 : 50);
+                HttpRequest request = new HttpRequest();
+                request.setUrl((i < 12 ? server : other).url(path));
+                request.setParameters(Collections.singletonMap("id", String.valueOf(i)));
+                requests.add(request);
+                expected.add("GET " + path + "?id=" + i + "\n");
+            }
+            String[] failing = {"not a url", "http://127.0.0.1:" + closedPort + "/refused", server.url("/status/500")};
+            for (String url : failing) {
+                HttpRequest request = new HttpRequest();
+                request.setUrl(url);
+                requests.add(request);
+            }
+
+            for (HttpUtil.Strategy strategy : HttpUtil.Strategy.values()) {
+                server.resetMaxInFlight();
+                other.resetMaxInFlight();
+                List<HttpBatchResult> results = HttpUtil.executeAll(requests, HttpRequest.HttpMethod.GET, strategy);
+                Assert.assertEquals(requests.size(), results.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    Assert.assertSame(requests.get(i), results.get(i).getRequest());
+                    Assert.assertTrue(strategy.name(), results.get(i).isSuccess());
+                    Assert.assertEquals(strategy.name(), expected.get(i), results.get(i).getResponse().getData());
+                }
+                Assert.assertTrue(strategy.name(), server.getMaxInFlight() <= 3 && server.getMaxInFlight() >= 2);
+                Assert.assertTrue(strategy.name(), other.getMaxInFlight() <= 2 && other.getMaxInFlight() >= 1);
+
+                Assert.assertTrue(results.get(20).getError() instanceof MalformedURLException);
+                Assert.assertNotNull(strategy.name(), results.get(21).getError());
+                Assert.assertFalse(results.get(21).isSuccess());
+                Assert.assertEquals(500, results.get(22).getResponse().getStatusCode());
+                Assert.assertFalse(results.get(22).isSuccess());
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 三种策略都会上报各阶段耗时和状态码, 记录时不分配对象
+     */
+    @Test
+    public void instrumentationTest() throws Exception {
+        InMemoryHttpMetricsRegistry registry = new InMemoryHttpMetricsRegistry();
+        HttpInstrumentation.setListener(new MetricsEventListener(registry));
+        try {
+            HttpClientProfiles profiles = new HttpClientProfiles();
+            HttpClientProfile profile = new HttpClientProfile();
+            profile.setKeepAlive(false);
+            profile.setMaxRetries(0);
+            profiles.setDefaultProfile(profile);
+            ApacheHttpClientStrategy apache = new ApacheHttpClientStrategy(new ApacheHttpClientStrategy.PoolConfig(), profiles);
+            IHttpStrategy[] strategies = {new JdkHttpStrategy(profiles), new OkClientStrategy(profiles), apache};
+            for (IHttpStrategy strategy : strategies) {
+                registry.clear();
+                HttpRequest ok = new HttpRequest();
+                ok.setUrl(server.url("/bytes/1024"));
+                HttpRequest unavailable = new HttpRequest();
+                unavailable.setUrl(server.url("/status/503"));
+                strategy.get(ok);
+                strategy.get(ok);
+                strategy.get(unavailable);
+
+                InMemoryHttpMetricsRegistry.HostMetrics metrics = registry.getHostMetrics("127.0.0.1");
+                System.out.println(strategy.getClass().getSimpleName() + "\n" + metrics);
+                Assert.assertEquals(2, metrics.getStatusCount(200));
+                Assert.assertEquals(1, metrics.getStatusCount(503));
+                Assert.assertEquals(3, metrics.getHistogram(HttpEventListener.Phase.TOTAL).getCount());
+                Assert.assertEquals(3, metrics.getHistogram(HttpEventListener.Phase.CONNECT).getCount());
+                Assert.assertEquals(3, metrics.getHistogram(HttpEventListener.Phase.TTFB).getCount());
+                Assert.assertTrue(metrics.getHistogram(HttpEventListener.Phase.BODY).getCount() >= 2);
+            }
+            apache.close();
+
+            // 连接被拒绝时记录失败
+            registry.clear();
+            HttpRequest refused = new HttpRequest();
+            refused.setUrl("http://127.0.0.1:1/");
+            try {
+                strategies[1].get(refused);
+                Assert.fail();
+            } catch (RuntimeException e) {
+                Assert.assertEquals(1, registry.getHostMetrics("127.0.0.1").getErrorCount());
+            }
+
+            // 记录路径不分配对象
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            HttpEventListener listener = HttpInstrumentation.getListener();
+            for (int i = 0; i < 10000; i++) {
+                listener.onResponse("127.0.0.1", 200, i);
+            }
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < 100000; i++) {
+                listener.onPhase("127.0.0.1", HttpEventListener.Phase.TTFB, i * 1000L);
+                listener.onResponse("127.0.0.1", 200, i * 1000L);
+            }
+            long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            Assert.assertTrue("allocated " + allocated, allocated < 1024);
+        } finally {
+            HttpInstrumentation.setListener(null);
+        }
+    }
+
+    @Test
+    public void latencyHistogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500, TimeUnit.NANOSECONDS.toMillis(histogram.getPercentile(50)), 500 / 16);
+        Assert.assertEquals(990, TimeUnit.NANOSECONDS.toMillis(histogram.getPercentile(99)), 990 / 16);
+        Assert.assertEquals(1000, TimeUnit.NANOSECONDS.toMillis(histogram.getPercentile(100)));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMax());
+    }
 }
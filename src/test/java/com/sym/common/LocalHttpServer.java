@@ -0,0 +1,224 @@
+package com.sym.common;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于 JDK 自带 com.sun.net.httpserver 的本地HTTP服务, 给测试和基准测试使用, 不依赖外部服务.
+ * 监听 127.0.0.1 上的随机端口, 提供以下接口:
+ * <p>
+ * 1. /bytes/{n}: 返回n个字节的响应体;
+ * 2. /status/{code}: 返回指定的状态码;
+ * 3. /error/{code}: 返回指定的状态码, 响应体为 "error {code}";
+ * 4. /text/{n}: 以 chunked 编码返回{@link #TEXT}, 每n个字节刷新一次, 多字节字符会被拆在不同的分块中;
+ * 5. /slow/{n}: 以 chunked 编码返回n KB, 每写出1KB停顿10ms, 用来验证未读完就关闭不会等待剩余的响应体;
+ * 6. /delay/{ms}: 等待指定的毫秒数后按其它路径的方式返回, 同时统计正在处理的请求数的峰值;
+ * 7. 其它路径: 原样返回 "方法 路径?查询字符串" 以及请求体.
+ * 请求头带有 Connection: close 时, 服务端在响应后关闭连接
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class LocalHttpServer implements AutoCloseable {
+
+    static {
+        // 默认不开启 TCP_NODELAY, 长连接上响应头和响应体分两次写出时, 会和客户端的延迟确认叠加出约40ms的等待
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * 多行、包含多字节字符和不同换行符的响应体
+     */
+    public static final String TEXT = "第一行 line one\n第二行\r\n\n沈yanming ✓ 😀\n最后一行没有换行";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, byte[]> payloads = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private LocalHttpServer(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        AtomicInteger index = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "local-http-server-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/bytes/", exchange -> respond(exchange, 200, payload(lastSegment(exchange))));
+        server.createContext("/status/", exchange -> respond(exchange, lastSegment(exchange), new byte[0]));
+        server.createContext("/error/", exchange -> {
+            int code = lastSegment(exchange);
+            respond(exchange, code, ("error " + code).getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/text/", exchange -> chunked(exchange, TEXT.getBytes(StandardCharsets.UTF_8), lastSegment(exchange), 1));
+        server.createContext("/slow/", exchange -> chunked(exchange, payload(lastSegment(exchange) * 1024), 1024, 10));
+        server.createContext("/delay/", this::delay);
+        server.createContext("/", this::echo);
+        server.start();
+    }
+
+    public static LocalHttpServer start() throws IOException {
+        return start(16);
+    }
+
+    /**
+     * @param threads 处理请求的线程数, 压测时应不少于客户端的并发数
+     */
+    public static LocalHttpServer start(int threads) throws IOException {
+        return new LocalHttpServer(threads);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + getPort() + path;
+    }
+
+    /**
+     * 已处理的请求数
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 处理过请求的连接数, 按客户端地址区分
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * /delay/{ms} 同时处理的请求数的峰值
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public void resetMaxInFlight() {
+        maxInFlight.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void delay(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            sleep(lastSegment(exchange));
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        echo(exchange);
+    }
+
+    private void echo(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write((exchange.getRequestMethod() + " " + exchange.getRequestURI().getRawPath() +
+                (query == null ? "" : "?" + query) + "\n").getBytes(StandardCharsets.UTF_8));
+        copy(exchange.getRequestBody(), out);
+        respond(exchange, 200, out.toByteArray());
+    }
+
+    private void respond(HttpExchange exchange, int code, byte[] body) throws IOException {
+        requests.increment();
+        connections.add(exchange.getRemoteAddress());
+        try {
+            // 读完请求体, 连接才能被复用
+            copy(exchange.getRequestBody(), null);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            boolean empty = body.length == 0 || code == 204 || code == 304;
+            exchange.sendResponseHeaders(code, empty ? -1 : body.length);
+            if (!empty) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 以 chunked 编码分多次写出响应体, 每次写出后刷新并停顿, 客户端会分多次读到. 客户端提前断开时不再继续写
+     */
+    private void chunked(HttpExchange exchange, byte[] body, int chunkSize, long pauseMillis) throws IOException {
+        requests.increment();
+        connections.add(exchange.getRemoteAddress());
+        try {
+            copy(exchange.getRequestBody(), null);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int offset = 0; offset < body.length; offset += chunkSize) {
+                    out.write(body, offset, Math.min(chunkSize, body.length - offset));
+                    out.flush();
+                    sleep(pauseMillis);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private byte[] payload(int size) {
+        return payloads.computeIfAbsent(size, n -> {
+            byte[] bytes = new byte[n];
+            Arrays.fill(bytes, (byte) 'a');
+            return bytes;
+        });
+    }
+
+    private static int lastSegment(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        return Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            if (out != null) {
+                out.write(buffer, 0, n);
+            }
+        }
+    }
+}
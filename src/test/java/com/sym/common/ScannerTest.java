@@ -1,10 +1,43 @@
 package com.sym.common;
 
+import com.sym.common.scan.ScanFixtures;
 import com.sym.scanner.IScanner;
+import com.sym.scanner.JarFileCache;
+import com.sym.scanner.ScanIndexCache;
+import com.sym.scanner.ScanQuery;
+import com.sym.scanner.ScanResult;
+import com.sym.scanner.impl.AnnotationClassScanner;
+import com.sym.scanner.impl.AnnotationMethodScanner;
+import com.sym.scanner.impl.BytecodeAnnotationClassScanner;
+import com.sym.scanner.impl.BytecodeAnnotationMethodScanner;
+import com.sym.scanner.impl.BytecodeSubTypeScanner;
 import com.sym.scanner.impl.DefaultClassScanner;
+import com.sym.scanner.impl.IndexedScanner;
+import com.sym.scanner.impl.QueryScanner;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author shenyanming
@@ -19,4 +52,274 @@ public class ScannerTest {
         classList.forEach(System.out::println);
     }
 
+    /**
+     * com.sym 同时存在于 target/classes 和 target/test-classes 两个目录, 结果需要合并, 且不能重复
+     */
+    @Test
+    public void multiRootScanTest() {
+        List<Class<?>> classList = new DefaultClassScanner().doScan("com.sym");
+        Assert.assertTrue(classList.contains(DefaultClassScanner.class));
+        Assert.assertTrue(classList.contains(ScannerTest.class));
+        Assert.assertTrue(classList.contains(ScanFixtures.MarkedChild.class));
+        Assert.assertEquals(classList.size(), new HashSet<>(classList).size());
+
+        List<Class<?>> fixtures = new DefaultClassScanner().doScan("com.sym.common.scan");
+        Assert.assertEquals(9, fixtures.size());
+
+        // jar中的类
+        Assert.assertTrue(new DefaultClassScanner().doScan("org.junit.runner.notification")
+                .contains(org.junit.runner.notification.RunListener.class));
+    }
+
+    /**
+     * 字节码过滤和反射过滤的结果一致, 并且不满足条件的类不会被初始化
+     */
+    @Test
+    public void bytecodeScanTest() {
+        String basePackage = "com.sym.common.scan";
+        List<Class<?>> marked = new BytecodeAnnotationClassScanner(ScanFixtures.Marked.class).doScan(basePackage);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.MarkedBase.class, ScanFixtures.MarkedChild.class)),
+                new HashSet<>(marked));
+        Assert.assertEquals(new HashSet<>(new AnnotationClassScanner(ScanFixtures.Marked.class).doScan(basePackage)),
+                new HashSet<>(marked));
+
+        List<Class<?>> handlers = new BytecodeAnnotationMethodScanner(ScanFixtures.Handler.class).doScan(basePackage);
+        Assert.assertEquals(Arrays.asList(ScanFixtures.MarkedChild.class), handlers);
+
+        List<Class<?>> services = new BytecodeSubTypeScanner(ScanFixtures.Service.class).doScan(basePackage);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.NamedService.class,
+                ScanFixtures.MarkedChild.class, ScanFixtures.PlainService.class)), new HashSet<>(services));
+
+        Assert.assertFalse(ScanFixtures.INITIALIZED.contains(ScanFixtures.Unmarked.class.getName()));
+
+        // 扫描测试类本身, 两种方式的结果一致
+        Assert.assertEquals(new HashSet<>(new AnnotationMethodScanner(Test.class).doScan("com.sym.common")),
+                new HashSet<>(new BytecodeAnnotationMethodScanner(Test.class).doScan("com.sym.common")));
+    }
+
+    /**
+     * 多个条件一次扫描, 分组结果与单独扫描一致
+     */
+    @Test
+    public void queryScannerTest() {
+        String basePackage = "com.sym.common.scan";
+        ScanResult result = new QueryScanner()
+                .query("marked", ScanQuery.annotatedWith(ScanFixtures.Marked.class))
+                .query("handlers", ScanQuery.methodsAnnotatedWith(ScanFixtures.Handler.class))
+                .query("services", ScanQuery.subTypesOf(ScanFixtures.Service.class).and(ScanQuery.concrete()))
+                .query("deprecatedUnmarked", ScanQuery.annotatedWith(ScanFixtures.Marked.class).negate()
+                        .and(ScanQuery.methodsAnnotatedWith(Deprecated.class)))
+                .scan(basePackage);
+        Assert.assertEquals(new HashSet<>(new BytecodeAnnotationClassScanner(ScanFixtures.Marked.class).doScan(basePackage)),
+                new HashSet<>(result.get("marked")));
+        Assert.assertEquals(Arrays.asList(ScanFixtures.MarkedChild.class), result.get("handlers"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.MarkedChild.class, ScanFixtures.PlainService.class)),
+                new HashSet<>(result.get("services")));
+        Assert.assertEquals(Arrays.asList(ScanFixtures.Unmarked.class), result.get("deprecatedUnmarked"));
+        Assert.assertEquals(4, result.getClasses().size());
+        Assert.assertTrue(result.get("missing").isEmpty());
+        Assert.assertFalse(ScanFixtures.INITIALIZED.contains(ScanFixtures.Unmarked.class.getName()));
+
+        // 组合条件
+        List<Class<?>> either = new QueryScanner().query("either", ScanQuery.annotatedWith(ScanFixtures.Marked.class)
+                .or(ScanQuery.methodsAnnotatedWith(Deprecated.class))).doScan(basePackage);
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.MarkedBase.class, ScanFixtures.MarkedChild.class,
+                ScanFixtures.Unmarked.class)), new HashSet<>(either));
+    }
+
+    /**
+     * 索引在打开jar包之前检查: 大小和修改时间不变时直接命中; 只有修改时间变化时比较内容摘要; 内容变化后重建
+     */
+    @Test
+    public void indexCacheTest() throws IOException {
+        Path dir = Files.createTempDirectory("scan-index");
+        Path jar = dir.resolve("fixture.jar");
+        Path fixtures = Paths.get("target/test-classes/com/sym/common/scan");
+        try (Stream<Path> files = Files.list(fixtures)) {
+            writeJar(jar, fixtures, files.map(file -> file.getFileName().toString()).toArray(String[]::new));
+        }
+        Path cacheDir = dir.resolve("cache");
+        Set<Class<?>> expected = new HashSet<>(Arrays.asList(ScanFixtures.NamedService.class,
+                ScanFixtures.MarkedChild.class, ScanFixtures.PlainService.class));
+
+        // 第一次扫描未命中, 不计算摘要
+        ScanIndexCache cache = new ScanIndexCache(cacheDir);
+        Assert.assertEquals(expected, new HashSet<>(scanServices(jar, cache)));
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, countFiles(cacheDir));
+
+        // 新的实例从索引文件读取
+        cache = new ScanIndexCache(cacheDir);
+        Assert.assertEquals(expected, new HashSet<>(scanServices(jar, cache)));
+        Assert.assertEquals(1, cache.getHitCount());
+
+        // 只改修改时间: 索引中还没有摘要, 计算后重建一次; 再次只改修改时间时摘要相同, 直接命中
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        cache = new ScanIndexCache(cacheDir);
+        Assert.assertEquals(expected, new HashSet<>(scanServices(jar, cache)));
+        Assert.assertEquals(1, cache.getMissCount());
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 120_000));
+        cache = new ScanIndexCache(cacheDir);
+        Assert.assertEquals(expected, new HashSet<>(scanServices(jar, cache)));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(0, cache.getMissCount());
+
+        // 内容变化后重建
+        writeJar(jar, fixtures, "ScanFixtures$PlainService.class");
+        cache = new ScanIndexCache(cacheDir);
+        Assert.assertEquals(Collections.singletonList(ScanFixtures.PlainService.class), scanServices(jar, cache));
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, countFiles(cacheDir));
+    }
+
+    /**
+     * 测试代码编译时生成了索引, com.sym.common.scan 直接从索引读取; com.sym 还包含没有索引的主代码, 退化为字节码扫描
+     */
+    @Test
+    public void indexedScannerTest() {
+        String basePackage = "com.sym.common.scan";
+        Assert.assertNotNull(getClass().getClassLoader().getResource("META-INF/sym-index/index"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.MarkedBase.class, ScanFixtures.MarkedChild.class)),
+                new HashSet<>(IndexedScanner.annotatedWith(ScanFixtures.Marked.class).doScan(basePackage)));
+        Assert.assertEquals(Arrays.asList(ScanFixtures.MarkedChild.class),
+                IndexedScanner.methodsAnnotatedWith(ScanFixtures.Handler.class).doScan(basePackage));
+        Assert.assertEquals(new HashSet<>(new BytecodeSubTypeScanner(ScanFixtures.Service.class).doScan(basePackage)),
+                new HashSet<>(IndexedScanner.subTypesOf(ScanFixtures.Service.class).doScan(basePackage)));
+
+        Assert.assertEquals(new HashSet<>(new BytecodeSubTypeScanner(IScanner.class).doScan("com.sym")),
+                new HashSet<>(IndexedScanner.subTypesOf(IScanner.class).doScan("com.sym")));
+    }
+
+    /**
+     * 嵌套jar包和 BOOT-INF/classes 形式的类路径, 只有包路径开头的条目才会被加载
+     */
+    @Test
+    public void nestedJarScanTest() throws IOException {
+        Path dir = Files.createTempDirectory("nested-jar");
+        Path fixtures = Paths.get("target/test-classes/com/sym/common/scan");
+        ByteArrayOutputStream inner = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(inner); Stream<Path> files = Files.list(fixtures)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                out.putNextEntry(new JarEntry("com/sym/common/scan/" + file.getFileName()));
+                out.write(Files.readAllBytes(file));
+                out.closeEntry();
+            }
+            // 包路径出现在中间, 不属于扫描的包
+            out.putNextEntry(new JarEntry("shade/com/sym/common/scan/Fake.class"));
+            out.closeEntry();
+        }
+        Path outer = dir.resolve("app.jar");
+        try (OutputStream os = Files.newOutputStream(outer); JarOutputStream out = new JarOutputStream(os)) {
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/fixtures.jar"));
+            out.write(inner.toByteArray());
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("BOOT-INF/classes/com/sym/common/scan/ScanFixtures$PlainService.class"));
+            out.write(Files.readAllBytes(fixtures.resolve("ScanFixtures$PlainService.class")));
+            out.closeEntry();
+        }
+
+        String base = "jar:" + outer.toUri();
+        FatJarClassLoader nested = new FatJarClassLoader(base + "!/BOOT-INF/lib/fixtures.jar!/");
+        List<Class<?>> services = new QueryScanner(nested)
+                .query("services", ScanQuery.subTypesOf(ScanFixtures.Service.class)).doScan("com.sym.common.scan");
+        Assert.assertEquals(new HashSet<>(Arrays.asList(ScanFixtures.NamedService.class,
+                ScanFixtures.MarkedChild.class, ScanFixtures.PlainService.class)), new HashSet<>(services));
+        Assert.assertFalse(nested.requested.stream().anyMatch(name -> name.startsWith("shade.")));
+
+        FatJarClassLoader classes = new FatJarClassLoader(base + "!/BOOT-INF/classes!/");
+        Assert.assertEquals(Arrays.asList(ScanFixtures.PlainService.class),
+                new QueryScanner(classes).query("services", ScanQuery.subTypesOf(ScanFixtures.Service.class))
+                        .doScan("com.sym.common.scan"));
+    }
+
+    /**
+     * jar包变化后重新打开, 旧的jar包留到 clear() 时才关闭; clear() 同时删除拷贝出的嵌套jar包
+     */
+    @Test
+    public void jarFileCacheTest() throws IOException {
+        Path dir = Files.createTempDirectory("jar-cache");
+        Path fixtures = Paths.get("target/test-classes/com/sym/common/scan");
+        Path jar = dir.resolve("fixtures.jar");
+        writeJar(jar, fixtures, "ScanFixtures$PlainService.class");
+        JarFile first = JarFileCache.get(jar);
+        Assert.assertSame(first, JarFileCache.get(jar));
+
+        // 以新文件替换, 原地改写已打开的jar包会破坏旧jar包的内存映射
+        Path rebuilt = dir.resolve("rebuilt.jar");
+        writeJar(rebuilt, fixtures, "ScanFixtures$PlainService.class", "ScanFixtures$NamedService.class");
+        Files.setLastModifiedTime(rebuilt, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        Files.move(rebuilt, jar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        JarFile second = JarFileCache.get(jar);
+        Assert.assertNotSame(first, second);
+        // 其它线程的扫描可能还在使用旧的jar包
+        Assert.assertNotNull(first.getEntry("com/sym/common/scan/ScanFixtures$PlainService.class"));
+
+        Path outer = dir.resolve("app.jar");
+        try (OutputStream os = Files.newOutputStream(outer); JarOutputStream out = new JarOutputStream(os)) {
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/fixtures.jar"));
+            out.write(Files.readAllBytes(jar));
+            out.closeEntry();
+        }
+        Path extracted = Paths.get(JarFileCache.getNested(JarFileCache.get(outer), "BOOT-INF/lib/fixtures.jar").getName());
+        Assert.assertTrue(Files.exists(extracted));
+
+        JarFileCache.clear();
+        Assert.assertFalse(Files.exists(extracted));
+        for (JarFile jarFile : Arrays.asList(first, second)) {
+            try {
+                jarFile.getEntry("com/sym/common/scan/ScanFixtures$PlainService.class");
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // 已关闭
+            }
+        }
+    }
+
+    /**
+     * 模拟 Spring Boot 可执行jar的类加载器, 包路径解析到指定的嵌套位置, 类和.class文件仍然由父加载器提供
+     */
+    private static class FatJarClassLoader extends ClassLoader {
+        private final String root;
+        private final Set<String> requested = ConcurrentHashMap.newKeySet();
+
+        FatJarClassLoader(String root) {
+            super(ScannerTest.class.getClassLoader());
+            this.root = root;
+        }
+
+        @Override
+        public Enumeration<URL> getResources(String name) throws IOException {
+            return Collections.enumeration(Collections.singletonList(new URL(root + name)));
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            requested.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private static List<Class<?>> scanServices(Path jar, ScanIndexCache cache) {
+        QueryScanner scanner = new QueryScanner(new FatJarClassLoader("jar:" + jar.toUri() + "!/"));
+        scanner.setIndexCache(cache);
+        return scanner.query("services", ScanQuery.subTypesOf(ScanFixtures.Service.class)).doScan("com.sym.common.scan");
+    }
+
+    private static void writeJar(Path jar, Path classes, String... fileNames) throws IOException {
+        try (OutputStream os = Files.newOutputStream(jar); JarOutputStream out = new JarOutputStream(os)) {
+            for (String fileName : fileNames) {
+                out.putNextEntry(new JarEntry("com/sym/common/scan/" + fileName));
+                out.write(Files.readAllBytes(classes.resolve(fileName)));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static long countFiles(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.count();
+        }
+    }
+
 }
@@ -2,9 +2,22 @@ package com.sym.common;
 
 import com.sym.serialization.entity.OrderEntity;
 import com.sym.serialization.SerializationUtil;
+import com.sym.serialization.entity.extend.SonEntity;
+import com.sym.serialization.xml.XmlObjectIterator;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 序列化测试
@@ -27,6 +40,24 @@ public class SerializationTest {
         System.out.println(SerializationUtil.Hessian.deserialize(bytes, OrderEntity.class));
     }
 
+    /**
+     * java8时间类型按 epoch 数值编码, 保留纳秒精度
+     */
+    @Test
+    public void hessianJavaTimeTest() throws IOException {
+        LocalDateTime now = LocalDateTime.of(2021, 7, 7, 19, 17, 1, 123456789);
+        OrderEntity entity = new OrderEntity().setOrderId(1L).setCreateTime(now);
+        OrderEntity result = SerializationUtil.Hessian.deserialize(SerializationUtil.Hessian.serialize(entity), OrderEntity.class);
+        Assert.assertEquals(now, result.getCreateTime());
+
+        Instant instant = Instant.ofEpochSecond(1625656621L, 987654321);
+        Assert.assertEquals(instant, SerializationUtil.Hessian.deserialize(SerializationUtil.Hessian.serialize(instant), Instant.class));
+        LocalDate localDate = LocalDate.of(2021, 7, 7);
+        Assert.assertEquals(localDate, SerializationUtil.Hessian.deserialize(SerializationUtil.Hessian.serialize(localDate), LocalDate.class));
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(now, ZoneId.of("Asia/Shanghai"));
+        Assert.assertEquals(zonedDateTime, SerializationUtil.Hessian.deserialize(SerializationUtil.Hessian.serialize(zonedDateTime), ZonedDateTime.class));
+    }
+
     /**
      * 序列化, 省略流关闭
      */
@@ -61,6 +92,51 @@ public class SerializationTest {
         System.out.println(entity);
     }
 
+    @Test
+    public void schemaSerializeTest() {
+        OrderEntity entity = new OrderEntity(1L, "order", OrderEntity.OrderStatus.ACTIVE, LocalDateTime.now(), null, BigDecimal.ONE);
+        byte[] bytes = SerializationUtil.Schema.serialize(entity);
+        System.out.println(bytes.length + ", " + Long.toHexString(SerializationUtil.Schema.fingerprint(OrderEntity.class)));
+    }
+
+    @Test
+    public void schemaDeserializeTest() {
+        OrderEntity entity = new OrderEntity(1L, "订单", OrderEntity.OrderStatus.FINISH, LocalDateTime.now(), null, BigDecimal.ONE);
+        OrderEntity result = SerializationUtil.Schema.deserialize(SerializationUtil.Schema.serialize(entity), OrderEntity.class);
+        // transient 字段不参与序列化
+        Assert.assertNull(result.getCost());
+        Assert.assertEquals(entity.setCost(null), result);
+
+        SonEntity son = new SonEntity('m', 65.5, -3, "son");
+        Assert.assertEquals(son, SerializationUtil.Schema.deserialize(SerializationUtil.Schema.serialize(son), SonEntity.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void schemaFingerprintMismatchTest() {
+        byte[] bytes = SerializationUtil.Schema.serialize(new SonEntity('m', 65.5, -3, "son"));
+        SerializationUtil.Schema.deserialize(bytes, OrderEntity.class);
+    }
+
+    /**
+     * getter返回值类型与字段类型不一致时, 在生成编解码器前就拒绝
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void schemaAccessorTypeMismatchTest() {
+        SerializationUtil.Schema.serialize(new WideningEntity());
+    }
+
+    public static class WideningEntity {
+        private int count;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
     @Test
     public void xStreamSerializeTest() {
         String xml = SerializationUtil.XStream.toXml(new OrderEntity());
@@ -73,4 +149,23 @@ public class SerializationTest {
         OrderEntity orderEntity = SerializationUtil.XStream.fromXml(xml, OrderEntity.class);
         System.out.println(orderEntity);
     }
+
+    /**
+     * 流式写入和读取xml
+     */
+    @Test
+    public void xStreamStreamingTest() throws IOException {
+        List<OrderEntity> orders = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            orders.add(new OrderEntity().setOrderId(i).setOrderName("order-" + i).setOrderStatus(OrderEntity.OrderStatus.ACTIVE));
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        Assert.assertEquals(orders.size(), SerializationUtil.XStream.writeXml(orders, bos));
+
+        List<OrderEntity> result = new ArrayList<>();
+        try (XmlObjectIterator<OrderEntity> iterator = SerializationUtil.XStream.readXml(new ByteArrayInputStream(bos.toByteArray()), OrderEntity.class)) {
+            iterator.forEachRemaining(result::add);
+        }
+        Assert.assertEquals(orders, result);
+    }
 }
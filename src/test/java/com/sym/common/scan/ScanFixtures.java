@@ -0,0 +1,61 @@
+package com.sym.common.scan;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 扫描器测试用的类, 覆盖注解继承、接口继承和静态初始化的场景
+ *
+ * @author shenyanming
+ * Created on 2026/10/19
+ */
+public class ScanFixtures {
+
+    /**
+     * 被扫描期间初始化过的类
+     */
+    public static final java.util.Set<String> INITIALIZED = java.util.concurrent.ConcurrentHashMap.newKeySet();
+
+    @Inherited
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface Marked {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Handler {
+    }
+
+    public interface Service {
+    }
+
+    public interface NamedService extends Service {
+    }
+
+    @Marked
+    public static class MarkedBase {
+    }
+
+    public static class MarkedChild extends MarkedBase implements NamedService {
+        @Handler
+        public void handle() {
+        }
+    }
+
+    public static class PlainService implements Service {
+    }
+
+    public static class Unmarked {
+        static {
+            INITIALIZED.add(Unmarked.class.getName());
+        }
+
+        @Deprecated
+        public void handle() {
+        }
+    }
+}